@@ -0,0 +1,106 @@
+package com.acme.mytrader.backtest;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.price.journal.TickJournalWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * <pre>
+ * Throughput of the BacktestRunner over a generated journal of TICKS random walk ticks, reported per tick (the target
+ * is tens of millions of ticks per minute, i.e. well under 6000 ns/tick even with one thread).
+ *
+ * Every security holds a ladder of resting orders, most of them too far away to fire, so every tick is replayed.
+ *
+ * gradlew jmh -PjmhArgs="BacktestBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dmytrader.metrics.enabled=false"})
+public class BacktestBenchmark {
+
+    private static final int TICKS = 5_000_000;
+
+    @Param({"1", "4", "8"})
+    private int parallelism;
+
+    @Param({"200"})
+    private int symbolCount;
+
+    private Path journal;
+    private BacktestRunner runner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journal = Files.createTempDirectory("backtest-journal");
+        int[] securityIds = new int[symbolCount];
+        double[] prices = new double[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            securityIds[s] = SecurityRegistry.intern("SYM" + s);
+            prices[s] = 100.00;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        try (TickJournalWriter writer = new TickJournalWriter(journal)) {
+            for (int i = 0; i < TICKS; i++) {
+                int s = random.nextInt(symbolCount);
+                prices[s] = Math.max(1.00, prices[s] + random.nextDouble(-0.05, 0.05));
+                writer.append(securityIds[s], i, prices[s]);
+            }
+        }
+        runner = new BacktestRunner(List.of(journal), BacktestBenchmark::orders, parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(journal)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public BacktestResult backtest() throws IOException {
+        return runner.run();
+    }
+
+    private static List<Order> orders(String security) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            orders.add(new Order(BigInteger.valueOf(i), new Stock(security, 50.00 + i * 0.20), 100,
+                    i % 2 == 0 ? Direction.BUY : Direction.SELL));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,111 @@
+package com.acme.mytrader.client.impl;
+
+import com.acme.mytrader.price.SecurityPriceListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Cost of a pushed quote, per quote (bursts of 1000 quotes of 100 securities):
+ *
+ * - decode: QuoteDecoder on a direct buffer already holding the quotes, the gc profiler must show no allocation
+ * - loopbackStream: LoopbackQuoteServer -> socket -> NioStockClient -> listener, the benchmark thread publishes the
+ * burst and waits until the listener got all of it (the allocation of the server side is included)
+ *
+ * Run: gradlew jmh -PjmhArgs="QuoteStreamBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteStreamBenchmark {
+
+    private static final int BURST = 1000;
+    private static final int SYMBOL_COUNT = 100;
+
+    private final CountingListener listener = new CountingListener();
+    private QuoteDecoder decoder;
+    private ByteBuffer encodedQuotes;
+    private int quotesStart;
+    private LoopbackQuoteServer server;
+    private NioStockClient client;
+    private double[] prices;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        decoder = new QuoteDecoder(listener);
+        encodedQuotes = ByteBuffer.allocateDirect(SYMBOL_COUNT * 64 + BURST * QuoteProtocol.QUOTE_LENGTH);
+        for (int s = 0; s < SYMBOL_COUNT; s++) {
+            QuoteProtocol.putSymbol(encodedQuotes, s, "SYM" + s);
+        }
+        quotesStart = encodedQuotes.position();
+        for (int i = 0; i < BURST; i++) {
+            QuoteProtocol.putQuote(encodedQuotes, i % SYMBOL_COUNT, 100.00 + i * 0.01);
+        }
+        encodedQuotes.flip();
+        decoder.decode(encodedQuotes);
+
+        server = new LoopbackQuoteServer();
+        client = new NioStockClient(server.getAddress(), listener);
+        client.subscribe("IBM");
+        if (!server.awaitSubscription("IBM", 5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("IBM not subscribed");
+        }
+        prices = new double[BURST];
+        for (int i = 0; i < BURST; i++) {
+            prices[i] = 100.00 + i * 0.01;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public int decode() {
+        encodedQuotes.position(quotesStart);
+        return decoder.decode(encodedQuotes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public long loopbackStream() {
+        long expected = listener.received + BURST;
+        server.publish("IBM", prices);
+        while (listener.received < expected) {
+            Thread.onSpinWait();
+        }
+        return listener.received;
+    }
+
+    private static class CountingListener implements SecurityPriceListener {
+        private volatile long received;
+        private double last;
+
+        @Override
+        public void priceUpdate(int securityId, double price) {
+            last = price;
+            received++;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.acme.mytrader.execution.risk;
+
+import com.acme.mytrader.execution.ExecutionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Cost of the RiskGateExecutionService checks with every limit on, under contention: the gate is shared by 1, 4 or 8
+ * threads that send orders of
+ *
+ * - sameSecurity = true: one security, every thread contends on the same counters and token bucket
+ * - sameSecurity = false: a security per thread, only the gross counters and the global bucket are shared
+ *
+ * The limits are high enough for every order to pass (a buy and a sell alternate so the position stays flat), the
+ * ExecutionService does nothing.
+ *
+ * gradlew jmh -PjmhArgs="RiskGateBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RiskGateBenchmark {
+
+    private static final ExecutionService NO_EXECUTION = new ExecutionService() {
+        @Override
+        public void buy(String security, double price, int volume) {
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+        }
+    };
+
+    @State(Scope.Benchmark)
+    public static class Gate {
+
+        @Param({"true", "false"})
+        boolean sameSecurity;
+
+        RiskGateExecutionService gate;
+        final AtomicInteger threads = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            gate = new RiskGateExecutionService(NO_EXECUTION, RiskLimits.builder()
+                    .maxPosition(1_000_000)
+                    .maxNotional(1e12)
+                    .maxOrdersPerSecond(1e12).orderBurst(1_000)
+                    .maxGrossPosition(100_000_000)
+                    .maxGrossNotional(1e15)
+                    .maxGlobalOrdersPerSecond(1e12).globalOrderBurst(1_000)
+                    .build());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sender {
+
+        String security;
+        boolean buy;
+
+        @Setup(Level.Trial)
+        public void setUp(Gate gate) {
+            security = gate.sameSecurity ? "RISK" : "RISK" + gate.threads.getAndIncrement();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneThread(Gate gate, Sender sender) {
+        send(gate, sender);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fourThreads(Gate gate, Sender sender) {
+        send(gate, sender);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightThreads(Gate gate, Sender sender) {
+        send(gate, sender);
+    }
+
+    private static void send(Gate gate, Sender sender) {
+        sender.buy = !sender.buy;
+        if (sender.buy) {
+            gate.gate.buy(sender.security, 50.00, 100);
+        } else {
+            gate.gate.sell(sender.security, 50.00, 100);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.acme.mytrader.metrics;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.TradingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Cost of the TradingMetrics recording on the strategy tick path, the same ticks are run with the metrics on and off,
+ * the difference of the two scores is the recording cost (and gc.alloc.rate.norm must stay ~ 0 B/op with them on):
+ *
+ * gradlew jmh -PjmhArgs="MetricsOverheadBenchmark"
+ *
+ * - tickQuiet: the tick does not cross any trigger level (one counter update)
+ * - tickTriggerOne: the tick fires one order (counters, 2 histograms and 3 System.nanoTime calls), an order with the
+ * same trigger and another order number is placed so the book stays the same
+ * - recordLatency / recordLatencyContended: one histogram record from 1 / 4 threads
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"true", "false"})
+    private boolean metricsEnabled;
+
+    @Param({"10000"})
+    private int orderCount;
+
+    @Param({"100"})
+    private int symbolCount;
+
+    private TradingStrategy tradingStrategy;
+    private int[] securityIds;
+    private Order[] crossedOrders;
+    private Order[] spareOrders;
+    private int tick;
+    private long latency;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TradingMetrics.get().setEnabled(metricsEnabled);
+        tradingStrategy = new TradingStrategy(new NoOpExecutionService());
+        securityIds = new int[symbolCount];
+        crossedOrders = new Order[symbolCount];
+        spareOrders = new Order[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            String security = "SYM" + s;
+            securityIds[s] = SecurityRegistry.intern(security);
+            crossedOrders[s] = order(orderCount + s, security, 120.00);
+            spareOrders[s] = order(orderCount + symbolCount + s, security, 120.00);
+            tradingStrategy.placeOrder(crossedOrders[s]);
+        }
+        for (int i = 0; i < orderCount; i++) {
+            tradingStrategy.placeOrder(order(i, "SYM" + (i % symbolCount), 50.00 + (i % 5000) / 100.00));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TradingMetrics.get().setEnabled(true);
+    }
+
+    @Benchmark
+    public void tickQuiet() {
+        tradingStrategy.priceUpdate(securityIds[nextSymbol()], 150.00);
+    }
+
+    @Benchmark
+    public void tickTriggerOne() {
+        int symbol = nextSymbol();
+        tradingStrategy.priceUpdate(securityIds[symbol], 110.00);
+        tradingStrategy.placeOrder(replaceCrossedOrder(symbol));
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        TradingMetrics.get().recordFired(latency, latency);
+        latency = (latency + 997) & 0xFFFFF;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordLatencyContended() {
+        recordLatency();
+    }
+
+    private int nextSymbol() {
+        int symbol = tick;
+        tick = ++tick == symbolCount ? 0 : tick;
+        return symbol;
+    }
+
+    /**
+     * The crossed order of the symbol has fired, its spare (same trigger, another order number) takes its place
+     *
+     * @return the order to place
+     */
+    private Order replaceCrossedOrder(int symbol) {
+        Order replacement = spareOrders[symbol];
+        spareOrders[symbol] = crossedOrders[symbol];
+        crossedOrders[symbol] = replacement;
+        return replacement;
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .stock(new Stock(security, triggerPrice))
+                .volume(100)
+                .direction(orderNo % 2 == 0 ? Direction.BUY : Direction.SELL)
+                .build();
+    }
+
+    private static class NoOpExecutionService implements ExecutionService {
+        private long executed;
+
+        @Override
+        public void buy(String security, double price, int volume) {
+            executed += volume;
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+            executed -= volume;
+        }
+    }
+}
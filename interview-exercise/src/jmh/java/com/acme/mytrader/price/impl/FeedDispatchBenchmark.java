@@ -0,0 +1,78 @@
+package com.acme.mytrader.price.impl;
+
+import com.acme.mytrader.client.impl.SimulatedStockClient;
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.SecurityPriceListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * StockFeedObservable dispatch of a price change to many listeners. The client has no latency and its price moves on
+ * every quote (random walk) so every poll dispatches one change of the single monitored security.
+ *
+ * - perSecurity = false: the listeners are registered for every security (addPriceListener(listener))
+ * - perSecurity = true: the listeners are registered for the polled security (addPriceListener(security, listener))
+ * - primitive = true: SecurityPriceListener (security id callback), false: plain PriceListener (String callback)
+ *
+ * The feed is not started, the poll is driven by the benchmark thread.
+ * Run: gradlew jmh -PjmhArgs="FeedDispatchBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedDispatchBenchmark {
+
+    private static final String SECURITY = "IBM";
+
+    @Param({"1", "16", "256"})
+    private int listenerCount;
+
+    @Param({"false", "true"})
+    private boolean perSecurity;
+
+    @Param({"false", "true"})
+    private boolean primitive;
+
+    private StockFeedObservable stockFeed;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        stockFeed = new StockFeedObservable(new SimulatedStockClient(0, TimeUnit.NANOSECONDS, 42));
+        stockFeed.monitor(SECURITY);
+        for (int i = 0; i < listenerCount; i++) {
+            PriceListener listener = primitive
+                    ? (SecurityPriceListener) (securityId, price) -> blackhole.consume(price)
+                    : (PriceListener) (security, price) -> blackhole.consume(price);
+            if (perSecurity) {
+                stockFeed.addPriceListener(SECURITY, listener);
+            } else {
+                stockFeed.addPriceListener(listener);
+            }
+        }
+        // registering a listener starts the polling, the benchmark thread is the only one polling
+        stockFeed.shutDown();
+    }
+
+    @Benchmark
+    public void pollAndDispatch() {
+        stockFeed.getLivePrices();
+    }
+}
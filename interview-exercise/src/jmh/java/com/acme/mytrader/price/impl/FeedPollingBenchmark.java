@@ -0,0 +1,58 @@
+package com.acme.mytrader.price.impl;
+
+import com.acme.mytrader.client.impl.SimulatedStockClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Cost of one poll cycle of StockFeedObservable against the SimulatedStockClient with a per call latency.
+ * batchSize = 1 is the one round trip per security polling, bigger batches use the bulk call of the client
+ *
+ * Run: gradlew jmh -PjmhArgs="FeedPollingBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class FeedPollingBenchmark {
+
+    @Param({"1000"})
+    private int symbolCount;
+
+    @Param({"1", "50", "500"})
+    private int batchSize;
+
+    @Param({"50"})
+    private int latencyMicros;
+
+    private StockFeedObservable stockFeed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stockFeed = new StockFeedObservable(new SimulatedStockClient(latencyMicros, TimeUnit.MICROSECONDS, 42), batchSize);
+        for (int i = 0; i < symbolCount; i++) {
+            stockFeed.monitor("SYM" + i);
+        }
+    }
+
+    @Benchmark
+    public void pollCycle() {
+        stockFeed.getLivePrices();
+    }
+}
@@ -0,0 +1,79 @@
+package com.acme.mytrader.price.impl;
+
+import com.acme.mytrader.client.impl.SimulatedStockClient;
+import com.acme.mytrader.price.PriceListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Cost of the life cycle of a StockFeedObservable, as paid by the tests and the short lived backtest workers that spin
+ * up many feeds:
+ *
+ * - createOnly: a feed monitoring securityCount securities that is never started (no thread, no scheduled task), it
+ * does not depend on listenerCount
+ * - startAndShutDown: the same feed started by listenerCount listeners then shut down
+ *
+ * The period is long so no poll happens while the feed is up.
+ * Run: gradlew jmh -PjmhArgs="FeedStartupBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedStartupBenchmark {
+
+    private static final PriceListener LISTENER = (security, price) -> {
+    };
+
+    @Param({"SHARED_SCHEDULER", "VIRTUAL_THREAD_PER_SECURITY"})
+    private PollingMode mode;
+
+    @Param({"1", "100"})
+    private int securityCount;
+
+    @Param({"1", "100"})
+    private int listenerCount;
+
+    private final SimulatedStockClient client = new SimulatedStockClient(0, TimeUnit.NANOSECONDS);
+
+    @Benchmark
+    public StockFeedObservable createOnly() {
+        return newFeed();
+    }
+
+    @Benchmark
+    public StockFeedObservable startAndShutDown() {
+        StockFeedObservable stockFeed = newFeed();
+        for (int i = 0; i < listenerCount; i++) {
+            stockFeed.addPriceListener("SYM" + (i % securityCount), LISTENER);
+        }
+        stockFeed.shutDown();
+        return stockFeed;
+    }
+
+    private StockFeedObservable newFeed() {
+        StockFeedObservable stockFeed = new StockFeedObservable(client, PollingConfig.builder()
+                .mode(mode)
+                .period(Duration.ofHours(1))
+                .build());
+        for (int s = 0; s < securityCount; s++) {
+            stockFeed.monitor("SYM" + s);
+        }
+        return stockFeed;
+    }
+}
@@ -0,0 +1,105 @@
+package com.acme.mytrader.price.impl;
+
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.TradingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Cost of handing a tick over from the PriceListener callback to the TradingStrategy, the book is empty so only the
+ * conversion is measured:
+ *
+ * - stringToStock: the String callback turned into a Stock, as StockPriceUpdateObserver did before the primitive path
+ * - stringToSecurityId: the String callback of the observer, the security is looked up in the SecurityRegistry
+ * - securityId: the primitive callback used by the feed, nothing to convert
+ *
+ * Run: gradlew jmh -PjmhArgs="ObserverConversionBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObserverConversionBenchmark {
+
+    @Param({"100"})
+    private int symbolCount;
+
+    private TradingStrategy tradingStrategy;
+    private StockPriceUpdateObserver observer;
+    private String[] securities;
+    private int[] securityIds;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tradingStrategy = new TradingStrategy(new NoOpExecutionService());
+        observer = new StockPriceUpdateObserver(new NoOpPriceSource(), tradingStrategy);
+        securities = new String[symbolCount];
+        securityIds = new int[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            securities[s] = "SYM" + s;
+            securityIds[s] = SecurityRegistry.intern(securities[s]);
+        }
+    }
+
+    @Benchmark
+    public void stringToStock() {
+        tradingStrategy.priceUpdate(new Stock(securities[nextSymbol()], 150.00));
+    }
+
+    @Benchmark
+    public void stringToSecurityId() {
+        observer.priceUpdate(securities[nextSymbol()], 150.00);
+    }
+
+    @Benchmark
+    public void securityId() {
+        observer.priceUpdate(securityIds[nextSymbol()], 150.00);
+    }
+
+    private int nextSymbol() {
+        int symbol = tick;
+        tick = ++tick == symbolCount ? 0 : tick;
+        return symbol;
+    }
+
+    private static class NoOpPriceSource implements PriceSource {
+        @Override
+        public void addPriceListener(PriceListener listener) {
+        }
+
+        @Override
+        public void removePriceListener(PriceListener listener) {
+        }
+    }
+
+    private static class NoOpExecutionService implements ExecutionService {
+        @Override
+        public void buy(String security, double price, int volume) {
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+        }
+    }
+}
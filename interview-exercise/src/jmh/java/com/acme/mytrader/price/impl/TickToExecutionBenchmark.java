@@ -0,0 +1,153 @@
+package com.acme.mytrader.price.impl;
+
+import com.acme.mytrader.client.impl.SimulatedStockClient;
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.price.ring.OverflowPolicy;
+import com.acme.mytrader.price.ring.RingBufferPriceSource;
+import com.acme.mytrader.price.ring.WaitStrategy;
+import com.acme.mytrader.strategy.TradingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * End to end latency from a price tick to the call of the ExecutionService, every operation places one order and
+ * sends a tick that fires it. The SampleTime mode gives the latency percentiles (p50 .. p99.99).
+ *
+ * - feedToExecution: StockFeedObservable poll (client without latency) -> StockPriceUpdateObserver -> TradingStrategy
+ *   -> ExecutionService, all on the benchmark thread
+ * - ringToExecution: tick published to the RingBufferPriceSource, the consumer thread runs the strategy and the
+ *   benchmark thread waits for the execution. The order placement and the tick are handed over through the ring and
+ *   the volatile execution count, so the strategy is never used by both threads at the same time
+ *
+ * orderCount resting orders of the same security are in the book and are never crossed, every call places one of two
+ * crossed orders (same trigger, other order number) in turn and the tick fires it.
+ * Run: gradlew jmh -PjmhArgs="TickToExecutionBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickToExecutionBenchmark {
+
+    private static final String SECURITY = "IBM";
+    private static final double TRIGGER_PRICE = 120.00;
+
+    @Param({"1000"})
+    private int orderCount;
+
+    private SimulatedStockClient stockClient;
+    private StockFeedObservable stockFeed;
+    private TradingStrategy feedStrategy;
+
+    private RingBufferPriceSource ringSource;
+    private TradingStrategy ringStrategy;
+    private CountingExecutionService ringExecutionService;
+
+    private Order[] crossedOrders;
+    private int crossed;
+    private int securityId;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        crossedOrders = new Order[]{order(orderCount, TRIGGER_PRICE), order(orderCount + 1, TRIGGER_PRICE)};
+        securityId = SecurityRegistry.intern(SECURITY);
+
+        stockClient = new SimulatedStockClient(0, TimeUnit.NANOSECONDS);
+        stockClient.setPrice(SECURITY, 150.00);
+        stockFeed = new StockFeedObservable(stockClient);
+        stockFeed.monitor(SECURITY);
+        feedStrategy = new TradingStrategy(stockFeed, new CountingExecutionService());
+        // the polling is driven by the benchmark thread
+        stockFeed.shutDown();
+        stockFeed.getLivePrices();
+
+        ringExecutionService = new CountingExecutionService();
+        ringSource = new RingBufferPriceSource(1024, 64, WaitStrategy.yielding(), OverflowPolicy.BLOCK);
+        ringStrategy = new TradingStrategy(ringSource, ringExecutionService);
+
+        for (int i = 0; i < orderCount; i++) {
+            feedStrategy.placeOrder(order(i, 50.00 + (i % 5000) / 100.00));
+            ringStrategy.placeOrder(order(i, 50.00 + (i % 5000) / 100.00));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ringSource.shutDown();
+    }
+
+    @Benchmark
+    public void feedToExecution() {
+        feedStrategy.placeOrder(nextCrossedOrder());
+        // the feed only publishes changes, alternate between two prices that both cross the trigger level
+        stockClient.setPrice(SECURITY, nextCrossingPrice());
+        stockFeed.getLivePrices();
+    }
+
+    @Benchmark
+    public long ringToExecution() {
+        long executed = ringExecutionService.executed;
+        ringStrategy.placeOrder(nextCrossedOrder());
+        ringSource.priceUpdate(securityId, nextCrossingPrice());
+        while (ringExecutionService.executed == executed) {
+            Thread.yield();
+        }
+        return executed;
+    }
+
+    private Order nextCrossedOrder() {
+        crossed ^= 1;
+        return crossedOrders[crossed];
+    }
+
+    private double nextCrossingPrice() {
+        flip = !flip;
+        return flip ? 110.00 : 109.99;
+    }
+
+    private static Order order(long orderNo, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .stock(new Stock(SECURITY, triggerPrice))
+                .volume(100)
+                .direction(Direction.BUY)
+                .build();
+    }
+
+    private static class CountingExecutionService implements ExecutionService {
+        private volatile long executed;
+
+        @Override
+        public void buy(String security, double price, int volume) {
+            executed++;
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+            executed++;
+        }
+    }
+}
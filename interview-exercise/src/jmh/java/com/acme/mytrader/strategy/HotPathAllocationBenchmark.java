@@ -0,0 +1,153 @@
+package com.acme.mytrader.strategy;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Tick path from the PriceListener to the ExecutionService: StockPriceUpdateObserver -> TradingStrategy -> book.
+ * Meant to be run with the GC profiler to check the allocation rate of the hot path (gc.alloc.rate.norm ~ 0 B/op):
+ *
+ * gradlew jmh -PjmhArgs="HotPathAllocationBenchmark"
+ *
+ * - *Quiet: the tick does not cross any trigger level
+ * - *TriggerOne: the tick fires one order, an order with the same trigger and another order number is placed so the
+ * book stays the same
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathAllocationBenchmark {
+
+    @Param({"10000"})
+    private int orderCount;
+
+    @Param({"100"})
+    private int symbolCount;
+
+    private SecurityPriceListener priceListener;
+    private TradingStrategy tradingStrategy;
+    private String[] securities;
+    private int[] securityIds;
+    private Order[] crossedOrders;
+    private Order[] spareOrders;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CapturingPriceSource priceSource = new CapturingPriceSource();
+        tradingStrategy = new TradingStrategy(priceSource, new NoOpExecutionService());
+        priceListener = (SecurityPriceListener) priceSource.listener;
+        securities = new String[symbolCount];
+        securityIds = new int[symbolCount];
+        crossedOrders = new Order[symbolCount];
+        spareOrders = new Order[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            securities[s] = "SYM" + s;
+            securityIds[s] = SecurityRegistry.intern(securities[s]);
+            crossedOrders[s] = order(orderCount + s, securities[s], 120.00);
+            spareOrders[s] = order(orderCount + symbolCount + s, securities[s], 120.00);
+            tradingStrategy.placeOrder(crossedOrders[s]);
+        }
+        for (int i = 0; i < orderCount; i++) {
+            tradingStrategy.placeOrder(order(i, securities[i % symbolCount], 50.00 + (i % 5000) / 100.00));
+        }
+    }
+
+    @Benchmark
+    public void stringListenerQuiet() {
+        priceListener.priceUpdate(securities[nextSymbol()], 150.00);
+    }
+
+    @Benchmark
+    public void primitiveListenerQuiet() {
+        priceListener.priceUpdate(securityIds[nextSymbol()], 150.00);
+    }
+
+    @Benchmark
+    public void primitiveListenerTriggerOne() {
+        int symbol = nextSymbol();
+        priceListener.priceUpdate(securityIds[symbol], 110.00);
+        tradingStrategy.placeOrder(replaceCrossedOrder(symbol));
+    }
+
+    private int nextSymbol() {
+        int symbol = tick;
+        tick = ++tick == symbolCount ? 0 : tick;
+        return symbol;
+    }
+
+    /**
+     * The crossed order of the symbol has fired, its spare (same trigger, another order number) takes its place
+     *
+     * @return the order to place
+     */
+    private Order replaceCrossedOrder(int symbol) {
+        Order replacement = spareOrders[symbol];
+        spareOrders[symbol] = crossedOrders[symbol];
+        crossedOrders[symbol] = replacement;
+        return replacement;
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .stock(new Stock(security, triggerPrice))
+                .volume(100)
+                .direction(orderNo % 2 == 0 ? Direction.BUY : Direction.SELL)
+                .build();
+    }
+
+    private static class CapturingPriceSource implements PriceSource {
+        private PriceListener listener;
+
+        @Override
+        public void addPriceListener(PriceListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void removePriceListener(PriceListener listener) {
+            this.listener = null;
+        }
+    }
+
+    private static class NoOpExecutionService implements ExecutionService {
+        private long executed;
+
+        @Override
+        public void buy(String security, double price, int volume) {
+            executed += volume;
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+            executed -= volume;
+        }
+    }
+}
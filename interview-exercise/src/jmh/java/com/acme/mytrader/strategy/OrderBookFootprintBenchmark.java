@@ -0,0 +1,106 @@
+package com.acme.mytrader.strategy;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.book.OrderTriggerBook;
+import com.acme.mytrader.strategy.book.TriggeredOrders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Heap footprint and tick cost of a book of millions of resting orders kept in the OffHeapOrderStore.
+ *
+ * The set up prints the heap retained by the book and by the same orders kept as Order objects (what the book held
+ * before the off heap store), the benchmark ticks the book with the GC profiler on: gc.count / gc.time must not grow
+ * with orderCount.
+ *
+ * gradlew jmh -PjmhArgs="OrderBookFootprintBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderBookFootprintBenchmark {
+
+    @Param({"100000", "1000000", "5000000"})
+    private int orderCount;
+
+    @Param({"1000"})
+    private int symbolCount;
+
+    private OrderTriggerBook orderBook;
+    private int[] securityIds;
+    private final TriggeredOrders triggered = new TriggeredOrders();
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        securityIds = new int[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            securityIds[s] = SecurityRegistry.intern("SYM" + s);
+        }
+        long before = usedHeap(memory);
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(order(i));
+        }
+        long objectHeap = usedHeap(memory) - before;
+        orders = null;
+
+        before = usedHeap(memory);
+        orderBook = new OrderTriggerBook();
+        for (int i = 0; i < orderCount; i++) {
+            orderBook.add(order(i));
+        }
+        long bookHeap = usedHeap(memory) - before;
+        System.out.printf("%n%d orders: Order objects %d MB heap, book %d MB heap + %d MB off heap%n", orderCount,
+                objectHeap >> 20, bookHeap >> 20, orderBook.getOffHeapBytes() >> 20);
+    }
+
+    @Benchmark
+    public void tickNoTrigger(Blackhole blackhole) {
+        int securityId = securityIds[tick];
+        tick = ++tick == symbolCount ? 0 : tick;
+        triggered.clear();
+        blackhole.consume(orderBook.drainTriggered(securityId, 150.00, triggered));
+    }
+
+    private Order order(int index) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(index))
+                .stock(new Stock(SecurityRegistry.securityOf(securityIds[index % symbolCount]), 50.00 + (index % 5000) / 100.00))
+                .volume(100)
+                .direction(index % 2 == 0 ? Direction.BUY : Direction.SELL)
+                .build();
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
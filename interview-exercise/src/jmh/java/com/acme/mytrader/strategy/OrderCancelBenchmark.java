@@ -0,0 +1,134 @@
+package com.acme.mytrader.strategy;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * TradingStrategy cancel / amend by order number for a growing order book (10 symbols), the cost must not depend on
+ * the number of resting orders. The gc profiler added by the jmh task shows that the cycles do not allocate beyond the
+ * Order views handed back by the book, the off heap store does not grow (see OrderTriggerBookTest).
+ *
+ * - cancelAndPlace: cancels a resting order by its number and places an order with the same trigger and another order
+ * number, the book stays the same
+ * - amendVolume: changes the volume of a resting order, applied in place
+ * - amendTrigger: moves a resting order to another trigger price and back (cancel + add in the book)
+ *
+ * Run: gradlew jmh -PjmhArgs="OrderCancelBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderCancelBenchmark {
+
+    private static final int CYCLE_ORDERS = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    private int orderCount;
+
+    private TradingStrategy tradingStrategy;
+    private Order[] orders;
+    private Order[] resizedOrders;
+    private Order[] movedOrders;
+    private Order[] replacementOrders;
+    private int next;
+    private boolean amended;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        tradingStrategy = new TradingStrategy(new CountingExecutionService());
+        orders = new Order[CYCLE_ORDERS];
+        resizedOrders = new Order[CYCLE_ORDERS];
+        movedOrders = new Order[CYCLE_ORDERS];
+        replacementOrders = new Order[CYCLE_ORDERS];
+        for (int i = 0; i < orderCount; i++) {
+            Order order = order(i, 50.00 + random.nextInt(5000) / 100.00, 100);
+            tradingStrategy.placeOrder(order);
+            if (i < CYCLE_ORDERS) {
+                orders[i] = order;
+                resizedOrders[i] = order(i, order.getStock().getPrice(), 200);
+                movedOrders[i] = order(i, order.getStock().getPrice() + 1.00, 100);
+                replacementOrders[i] = order(orderCount + i, order.getStock().getPrice(), 100);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean cancelAndPlace() {
+        int i = nextOrder();
+        // the orders of the cycle and their replacements take turns in the book
+        Order resting = amended ? replacementOrders[i] : orders[i];
+        boolean cancelled = tradingStrategy.cancelOrder(resting.getOrderNo());
+        tradingStrategy.placeOrder(amended ? orders[i] : replacementOrders[i]);
+        return cancelled;
+    }
+
+    @Benchmark
+    public boolean amendVolume() {
+        int i = nextOrder();
+        return tradingStrategy.amendOrder(amended ? orders[i] : resizedOrders[i]);
+    }
+
+    @Benchmark
+    public boolean amendTrigger() {
+        int i = nextOrder();
+        return tradingStrategy.amendOrder(amended ? orders[i] : movedOrders[i]);
+    }
+
+    /**
+     * Index of the next order of the cycle, amended flips once the whole cycle went through
+     */
+    private int nextOrder() {
+        if (next == CYCLE_ORDERS) {
+            next = 0;
+            amended = !amended;
+        }
+        return next++;
+    }
+
+    private static Order order(long orderNo, double triggerPrice, int volume) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .stock(new Stock("SYM" + orderNo % 10, triggerPrice))
+                .volume(volume)
+                .direction(orderNo % 2 == 0 ? Direction.BUY : Direction.SELL)
+                .build();
+    }
+
+    private static class CountingExecutionService implements ExecutionService {
+        private long executed;
+
+        @Override
+        public void buy(String security, double price, int volume) {
+            executed++;
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+            executed++;
+        }
+    }
+}
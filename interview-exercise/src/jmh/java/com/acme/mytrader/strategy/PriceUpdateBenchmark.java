@@ -0,0 +1,139 @@
+package com.acme.mytrader.strategy;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * TradingStrategy.priceUpdate for a growing order book spread over a growing number of symbols.
+ * Throughput and the latency percentiles (SampleTime) are reported, the gc profiler added by the jmh task gives the
+ * allocation rate.
+ *
+ * - stockQuiet: the Stock entry point (one Stock per tick, as created by the callers outside of the feed)
+ * - primitiveQuiet: the (security id, price) entry point used by the feed, the tick does not cross any level
+ * - primitiveTriggerOne: the tick fires one order, an order with the same trigger and another order number is placed
+ * so the book stays the same
+ *
+ * Run: gradlew jmh -PjmhArgs="PriceUpdateBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceUpdateBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int orderCount;
+
+    @Param({"1", "100", "1000"})
+    private int symbolCount;
+
+    private TradingStrategy tradingStrategy;
+    private Stock[] quietStocks;
+    private int[] securityIds;
+    private Order[] crossedOrders;
+    private Order[] spareOrders;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        tradingStrategy = new TradingStrategy(new CountingExecutionService());
+        quietStocks = new Stock[symbolCount];
+        securityIds = new int[symbolCount];
+        crossedOrders = new Order[symbolCount];
+        spareOrders = new Order[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            String security = "SYM" + s;
+            securityIds[s] = SecurityRegistry.intern(security);
+            quietStocks[s] = new Stock(security, 150.00);
+            crossedOrders[s] = order(orderCount + s, security, 120.00);
+            spareOrders[s] = order(orderCount + symbolCount + s, security, 120.00);
+            tradingStrategy.placeOrder(crossedOrders[s]);
+        }
+        for (int i = 0; i < orderCount; i++) {
+            tradingStrategy.placeOrder(order(i, quietStocks[i % symbolCount].getSecurity(), 50.00 + random.nextInt(5000) / 100.00));
+        }
+    }
+
+    @Benchmark
+    public void stockQuiet() {
+        Stock stock = quietStocks[nextSymbol()];
+        tradingStrategy.priceUpdate(new Stock(stock.getSecurity(), stock.getPrice()));
+    }
+
+    @Benchmark
+    public void primitiveQuiet() {
+        tradingStrategy.priceUpdate(securityIds[nextSymbol()], 150.00);
+    }
+
+    @Benchmark
+    public void primitiveTriggerOne() {
+        int symbol = nextSymbol();
+        tradingStrategy.priceUpdate(securityIds[symbol], 110.00);
+        tradingStrategy.placeOrder(replaceCrossedOrder(symbol));
+    }
+
+    private int nextSymbol() {
+        int symbol = tick;
+        tick = ++tick == symbolCount ? 0 : tick;
+        return symbol;
+    }
+
+    /**
+     * The crossed order of the symbol has fired, its spare (same trigger, another order number) takes its place
+     *
+     * @return the order to place
+     */
+    private Order replaceCrossedOrder(int symbol) {
+        Order replacement = spareOrders[symbol];
+        spareOrders[symbol] = crossedOrders[symbol];
+        crossedOrders[symbol] = replacement;
+        return replacement;
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .stock(new Stock(security, triggerPrice))
+                .volume(100)
+                .direction(orderNo % 2 == 0 ? Direction.BUY : Direction.SELL)
+                .build();
+    }
+
+    private static class CountingExecutionService implements ExecutionService {
+        private long executed;
+
+        @Override
+        public void buy(String security, double price, int volume) {
+            executed++;
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+            executed++;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.acme.mytrader.strategy;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.strategy.book.OrderTriggerBook;
+import com.acme.mytrader.strategy.book.TriggeredOrders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * <pre>
+ * Compares the per tick cost of the previous full order list scan (stream + filterOrderPredicate) with the
+ * OrderTriggerBook lookup used by TradingStrategy.
+ *
+ * - *NoTrigger: the tick is above every trigger level, which is the common case for resting orders
+ * - *TriggerOne: the tick crosses the level of a single order, an order with the same level and another order number
+ * is added to the book so the size stays flat
+ *
+ * Run: gradlew jmh -PjmhArgs="TriggerBookBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerBookBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int orderCount;
+
+    @Param({"100"})
+    private int symbolCount;
+
+    private List<Order> orderList;
+    private OrderTriggerBook orderBook;
+    private Stock[] quietTicks;
+    private Stock[] crossingTicks;
+    private Order[] crossedOrders;
+    private Order[] spareOrders;
+    private final TriggeredOrders triggered = new TriggeredOrders();
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        orderList = new ArrayList<>(orderCount);
+        orderBook = new OrderTriggerBook();
+        for (int i = 0; i < orderCount; i++) {
+            Order order = Order.builder()
+                    .orderNo(BigInteger.valueOf(i))
+                    .stock(new Stock(symbol(i % symbolCount), 50.00 + random.nextInt(5000) / 100.00))
+                    .volume(100)
+                    .direction(Direction.BUY)
+                    .build();
+            orderList.add(order);
+            orderBook.add(order);
+        }
+        quietTicks = new Stock[symbolCount];
+        crossingTicks = new Stock[symbolCount];
+        crossedOrders = new Order[symbolCount];
+        spareOrders = new Order[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            quietTicks[s] = new Stock(symbol(s), 150.00);
+            // a dedicated order with the highest level of the symbol, the crossing tick fires only that one
+            crossedOrders[s] = crossedOrder(orderCount + s, s);
+            spareOrders[s] = crossedOrder(orderCount + symbolCount + s, s);
+            orderList.add(crossedOrders[s]);
+            orderBook.add(crossedOrders[s]);
+            crossingTicks[s] = new Stock(symbol(s), 110.00);
+        }
+    }
+
+    @Benchmark
+    public void listScanNoTrigger(Blackhole blackhole) {
+        blackhole.consume(scan(quietTicks[nextSymbol()]));
+    }
+
+    @Benchmark
+    public void triggerBookNoTrigger(Blackhole blackhole) {
+        Stock stock = quietTicks[nextSymbol()];
+        triggered.clear();
+        blackhole.consume(orderBook.drainTriggered(stock.getSecurity(), stock.getPrice(), triggered));
+    }
+
+    @Benchmark
+    public void listScanTriggerOne(Blackhole blackhole) {
+        blackhole.consume(scan(crossingTicks[nextSymbol()]));
+    }
+
+    @Benchmark
+    public void triggerBookTriggerOne(Blackhole blackhole) {
+        int symbol = nextSymbol();
+        Stock stock = crossingTicks[symbol];
+        triggered.clear();
+        blackhole.consume(orderBook.drainTriggered(stock.getSecurity(), stock.getPrice(), triggered));
+        orderBook.add(replaceCrossedOrder(symbol));
+    }
+
+    /**
+     * The order selection as it was done by TradingStrategy.priceUpdate before the trigger book
+     */
+    private List<Order> scan(Stock liveStockPrice) {
+        Predicate<Order> predicate = o -> o.getStock().equals(liveStockPrice)
+                && (liveStockPrice.getPrice().compareTo(o.getStock().getPrice()) < 0);
+        return orderList.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    private int nextSymbol() {
+        int symbol = tick;
+        tick = ++tick == symbolCount ? 0 : tick;
+        return symbol;
+    }
+
+    /**
+     * The crossed order of the symbol has fired, its spare (same trigger, another order number) takes its place
+     *
+     * @return the order to add
+     */
+    private Order replaceCrossedOrder(int symbol) {
+        Order replacement = spareOrders[symbol];
+        spareOrders[symbol] = crossedOrders[symbol];
+        crossedOrders[symbol] = replacement;
+        return replacement;
+    }
+
+    private static Order crossedOrder(long orderNo, int symbol) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .stock(new Stock(symbol(symbol), 120.00))
+                .volume(100)
+                .direction(Direction.BUY)
+                .build();
+    }
+
+    private static String symbol(int index) {
+        return "SYM" + index;
+    }
+}
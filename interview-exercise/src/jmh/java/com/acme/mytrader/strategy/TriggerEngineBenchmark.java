@@ -0,0 +1,206 @@
+package com.acme.mytrader.strategy;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.book.OrderTriggerBook;
+import com.acme.mytrader.strategy.book.SingleLadderBook;
+import com.acme.mytrader.strategy.book.TriggeredOrders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Per tick cost of the OrderTriggerBook with the order types compiled into their trigger paths.
+ *
+ * - baseline*: the book before the order types (SingleLadderBook, one ladder of BELOW levels per security) with the
+ * orders of singleRule*
+ * - singleRule*: every order is BELOW (the original single rule), the score must be the one of baseline*
+ * - mixed*: the same number of orders, 60% BELOW and 10% each of ABOVE, STOP_LIMIT, TRAILING_STOP and PRICE_BAND
+ * - *NoTrigger: the tick meets no trigger rule
+ * - *TriggerOne: the tick crosses the level of a single BELOW order, an order with the same level and another order
+ * number is added so the book stays the same
+ *
+ * Run: gradlew jmh -PjmhArgs="TriggerEngineBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerEngineBenchmark {
+
+    private static final double QUIET_PRICE = 150.00;
+    private static final double CROSSING_PRICE = 150.25;
+
+    @Param({"10000", "50000"})
+    private int orderCount;
+
+    @Param({"100"})
+    private int symbolCount;
+
+    private SingleLadderBook baselineBook;
+    private OrderTriggerBook singleRuleBook;
+    private OrderTriggerBook mixedBook;
+    private int[] securityIds;
+    private Order[] crossedOrders;
+    private Order[] spareOrders;
+    private final TriggeredOrders triggered = new TriggeredOrders();
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        baselineBook = new SingleLadderBook();
+        singleRuleBook = new OrderTriggerBook();
+        mixedBook = new OrderTriggerBook();
+        for (int i = 0; i < orderCount; i++) {
+            String security = symbol(i % symbolCount);
+            double level = 50.00 + random.nextInt(5000) / 100.00;
+            baselineBook.add(order(i, security, level));
+            singleRuleBook.add(order(i, security, level));
+            mixedBook.add(mixedOrder(i, security, level));
+        }
+        securityIds = new int[symbolCount];
+        crossedOrders = new Order[symbolCount];
+        spareOrders = new Order[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            securityIds[s] = SecurityRegistry.intern(symbol(s));
+            // a dedicated order with the highest BELOW level of the symbol, the crossing tick fires only that one
+            crossedOrders[s] = order(orderCount + s, symbol(s), 150.50);
+            spareOrders[s] = order(orderCount + symbolCount + s, symbol(s), 150.50);
+            baselineBook.add(crossedOrders[s]);
+            singleRuleBook.add(crossedOrders[s]);
+            mixedBook.add(crossedOrders[s]);
+        }
+    }
+
+    @Benchmark
+    public void baselineNoTrigger(Blackhole blackhole) {
+        triggered.clear();
+        blackhole.consume(baselineBook.drainTriggered(securityIds[nextSymbol()], QUIET_PRICE, triggered));
+    }
+
+    @Benchmark
+    public void singleRuleNoTrigger(Blackhole blackhole) {
+        blackhole.consume(drain(singleRuleBook, QUIET_PRICE));
+    }
+
+    @Benchmark
+    public void mixedNoTrigger(Blackhole blackhole) {
+        blackhole.consume(drain(mixedBook, QUIET_PRICE));
+    }
+
+    @Benchmark
+    public void baselineTriggerOne(Blackhole blackhole) {
+        int symbol = nextSymbol();
+        triggered.clear();
+        blackhole.consume(baselineBook.drainTriggered(securityIds[symbol], CROSSING_PRICE, triggered));
+        baselineBook.add(replaceCrossedOrder(symbol));
+    }
+
+    @Benchmark
+    public void singleRuleTriggerOne(Blackhole blackhole) {
+        blackhole.consume(drainAndRestore(singleRuleBook));
+    }
+
+    @Benchmark
+    public void mixedTriggerOne(Blackhole blackhole) {
+        blackhole.consume(drainAndRestore(mixedBook));
+    }
+
+    private int drain(OrderTriggerBook book, double price) {
+        triggered.clear();
+        return book.drainTriggered(securityIds[nextSymbol()], price, triggered);
+    }
+
+    private int drainAndRestore(OrderTriggerBook book) {
+        int symbol = nextSymbol();
+        triggered.clear();
+        int fired = book.drainTriggered(securityIds[symbol], CROSSING_PRICE, triggered);
+        book.add(replaceCrossedOrder(symbol));
+        return fired;
+    }
+
+    private int nextSymbol() {
+        int symbol = tick;
+        tick = ++tick == symbolCount ? 0 : tick;
+        return symbol;
+    }
+
+    /**
+     * The crossed order of the symbol has fired, its spare (same trigger, another order number) takes its place
+     *
+     * @return the order to add
+     */
+    private Order replaceCrossedOrder(int symbol) {
+        Order replacement = spareOrders[symbol];
+        spareOrders[symbol] = crossedOrders[symbol];
+        crossedOrders[symbol] = replacement;
+        return replacement;
+    }
+
+    /**
+     * Orders none of which is triggered by the quiet and crossing prices
+     */
+    private static Order mixedOrder(long orderNo, String security, double level) {
+        Order order = order(orderNo, security, level);
+        switch ((int) (orderNo % 10)) {
+            case 0:
+                order.setType(OrderType.ABOVE);
+                order.getStock().setPrice(level + 150.00);
+                break;
+            case 1:
+                order.setType(OrderType.STOP_LIMIT);
+                order.getStock().setPrice(level + 150.00);
+                order.setLimitPrice(level + 151.00);
+                break;
+            case 2:
+                order.setType(OrderType.TRAILING_STOP);
+                order.getStock().setPrice(QUIET_PRICE);
+                order.setTrailAmount(20.00);
+                order.setDirection(orderNo % 20 == 2 ? Direction.SELL : Direction.BUY);
+                break;
+            case 3:
+                order.setType(OrderType.PRICE_BAND);
+                order.getStock().setPrice(level - 40.00);
+                order.setUpperPrice(level - 30.00);
+                break;
+            default:
+                break;
+        }
+        return order;
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .stock(new Stock(security, triggerPrice))
+                .volume(100)
+                .direction(Direction.BUY)
+                .build();
+    }
+
+    private static String symbol(int index) {
+        return "SYM" + index;
+    }
+}
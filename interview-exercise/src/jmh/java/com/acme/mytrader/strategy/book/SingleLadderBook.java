@@ -0,0 +1,52 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Baseline of the benchmarks: the trigger book as it was before the order types, one TriggerLadder of fall-below levels
+ * per security over the same OffHeapOrderStore and a tick drains the ladder of its security, there is no SecurityTriggers
+ * routing. Every order is taken as a BELOW order whatever its type.
+ *
+ * Note: this class is not thread safe, it is only meant for the benchmarks
+ * </pre>
+ */
+public final class SingleLadderBook {
+
+    private final OffHeapOrderStore store = new OffHeapOrderStore();
+    private TriggerLadder[] ladders = new TriggerLadder[16];
+
+    public void add(Order order) {
+        int securityId = SecurityRegistry.intern(order.getStock().getSecurity());
+        ladderOf(securityId).add(order.getStock().getPrice(), store.add(order, securityId));
+    }
+
+    /**
+     * @return number of orders triggered, they are drained into the given buffer
+     */
+    public int drainTriggered(int securityId, double livePrice, TriggeredOrders triggered) {
+        if (securityId < 0 || securityId >= ladders.length) {
+            return 0;
+        }
+        TriggerLadder ladder = ladders[securityId];
+        if (ladder == null || ladder.isEmpty()) {
+            return 0;
+        }
+        return ladder.drainAbove(livePrice, triggered);
+    }
+
+    private TriggerLadder ladderOf(int securityId) {
+        if (securityId >= ladders.length) {
+            ladders = Arrays.copyOf(ladders, Math.max(securityId + 1, ladders.length << 1));
+        }
+        TriggerLadder ladder = ladders[securityId];
+        if (ladder == null) {
+            ladder = new TriggerLadder(store);
+            ladders[securityId] = ladder;
+        }
+        return ladder;
+    }
+}
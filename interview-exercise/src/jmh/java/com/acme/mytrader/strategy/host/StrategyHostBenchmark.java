@@ -0,0 +1,106 @@
+package com.acme.mytrader.strategy.host;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.TradingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Cost of a tick with strategyCount strategies, each trading ordersPerStrategy securities out of symbolCount:
+ *
+ * - host: one StrategyHost listener, the tick only reaches the strategies subscribed to the security
+ * - everyStrategy: what one StockPriceUpdateObserver per strategy does, every strategy gets every tick
+ *
+ * The orders are far below the ticks so nothing fires and the subscriptions stay put.
+ *
+ * gradlew jmh -PjmhArgs="StrategyHostBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dmytrader.metrics.enabled=false")
+public class StrategyHostBenchmark {
+
+    private static final ExecutionService NO_EXECUTION = new ExecutionService() {
+        @Override
+        public void buy(String security, double price, int volume) {
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+        }
+    };
+
+    @Param({"100", "1000", "5000"})
+    private int strategyCount;
+
+    @Param({"5"})
+    private int ordersPerStrategy;
+
+    @Param({"1000"})
+    private int symbolCount;
+
+    private StrategyHost host;
+    private TradingStrategy[] strategies;
+    private int[] securityIds;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        securityIds = new int[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            securityIds[s] = SecurityRegistry.intern("SYM" + s);
+        }
+        host = new StrategyHost();
+        strategies = new TradingStrategy[strategyCount];
+        long orderNo = 0;
+        for (int i = 0; i < strategyCount; i++) {
+            strategies[i] = new TradingStrategy(NO_EXECUTION);
+            host.addStrategy(strategies[i]);
+            for (int o = 0; o < ordersPerStrategy; o++) {
+                String security = SecurityRegistry.securityOf(securityIds[(i * 31 + o * 7) % symbolCount]);
+                strategies[i].placeOrder(new Order(BigInteger.valueOf(orderNo++), new Stock(security, 10.00), 100, Direction.BUY));
+            }
+        }
+    }
+
+    @Benchmark
+    public void host() {
+        host.priceUpdate(nextSecurity(), 100.00);
+    }
+
+    @Benchmark
+    public void everyStrategy() {
+        int securityId = nextSecurity();
+        for (TradingStrategy strategy : strategies) {
+            strategy.priceUpdate(securityId, 100.00);
+        }
+    }
+
+    private int nextSecurity() {
+        int securityId = securityIds[tick];
+        tick = ++tick == symbolCount ? 0 : tick;
+        return securityId;
+    }
+}
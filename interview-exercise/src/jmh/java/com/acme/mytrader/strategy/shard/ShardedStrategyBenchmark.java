@@ -0,0 +1,112 @@
+package com.acme.mytrader.strategy.shard;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Tick throughput of the ShardedTradingStrategy with several producer threads. The inboxes are bounded so the
+ * producers are held back (backpressure) once the shards are saturated, the score is the sustained tick rate.
+ * Compare the shardCount values, on a machine with enough cores the throughput grows with the number of shards.
+ *
+ * Run: gradlew jmh -PjmhArgs="ShardedStrategyBenchmark"   (-t to change the number of producer threads)
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ShardedStrategyBenchmark {
+
+    @Param({"1", "2", "4"})
+    private int shardCount;
+
+    @Param({"1000"})
+    private int symbolCount;
+
+    @Param({"20"})
+    private int ordersPerSymbol;
+
+    private ShardedTradingStrategy tradingStrategy;
+    private int[] securityIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tradingStrategy = new ShardedTradingStrategy(new NoOpPriceSource(), new CountingExecutionService(), shardCount, 4096);
+        securityIds = new int[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            String security = "SHARD" + s;
+            securityIds[s] = SecurityRegistry.intern(security);
+            for (int o = 0; o < ordersPerSymbol; o++) {
+                tradingStrategy.placeOrder(Order.builder()
+                        .orderNo(BigInteger.valueOf((long) s * ordersPerSymbol + o))
+                        .stock(new Stock(security, 50.00 + o))
+                        .volume(100)
+                        .direction(Direction.BUY)
+                        .build());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tradingStrategy.shutDown();
+    }
+
+    @Benchmark
+    public void quietTick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        tradingStrategy.priceUpdate(securityIds[random.nextInt(symbolCount)], 100.00 + random.nextInt(100));
+    }
+
+    private static class NoOpPriceSource implements PriceSource {
+        @Override
+        public void addPriceListener(PriceListener listener) {
+        }
+
+        @Override
+        public void removePriceListener(PriceListener listener) {
+        }
+    }
+
+    private static class CountingExecutionService implements ExecutionService {
+        private final LongAdder executed = new LongAdder();
+
+        @Override
+        public void buy(String security, double price, int volume) {
+            executed.increment();
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+            executed.increment();
+        }
+    }
+}
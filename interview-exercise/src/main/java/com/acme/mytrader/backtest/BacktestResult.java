@@ -0,0 +1,26 @@
+package com.acme.mytrader.backtest;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.SortedMap;
+
+/**
+ * <pre>
+ * Outcome of a backtest run, the results are keyed and sorted by security so two runs over the same ticks and orders
+ * give equal results whatever the parallelism (the elapsed time is not part of the equality)
+ * </pre>
+ */
+@Value
+public class BacktestResult {
+    long ticks;
+    long fills;
+    SortedMap<String, SecurityResult> securityResults;
+    @EqualsAndHashCode.Exclude
+    Duration elapsed;
+
+    public double getTicksPerSecond() {
+        return elapsed.isZero() ? 0 : ticks * 1e9 / elapsed.toNanos();
+    }
+}
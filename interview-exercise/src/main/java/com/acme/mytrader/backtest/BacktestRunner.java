@@ -0,0 +1,162 @@
+package com.acme.mytrader.backtest;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.price.journal.TickJournalReader;
+import com.acme.mytrader.strategy.TradingStrategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * Replays historical tick journals (written by TickJournalWriter) through trading strategies, e.g.
+ *
+ *   BacktestResult result = new BacktestRunner(List.of(journalDirectory), security -> ordersOf(security), 8).run();
+ *
+ * 1. The journals are read once, in the given order, and the ticks are partitioned by security into primitive arrays
+ * 2. Every security is replayed by its own TradingStrategy (holding the orders returned for the security) and its own
+ * SimulatedExecutionService, one ForkJoinPool task per security, the securities with the most ticks are submitted first
+ * 3. The results are keyed by security, the securities do not share any state so the fills of a security are the same
+ * whatever the parallelism and the result of a run is deterministic
+ *
+ * Only the securities that tick in the journals are backtested. The replay of a security stops once its orders are all
+ * filled, the ticks of the results (and the ticks per second) only count the ticks replayed. The strategies record into TradingMetrics as the live
+ * ones do, -Dmytrader.metrics.enabled=false gives the fastest replay.
+ * </pre>
+ */
+public class BacktestRunner {
+
+    private final List<Path> journalDirectories;
+    private final Function<String, ? extends Collection<Order>> ordersOfSecurity;
+    private final int parallelism;
+
+    /**
+     * @param journalDirectories tick journals, read in this order (e.g. one per trading day)
+     * @param ordersOfSecurity   orders placed in the strategy of a security before its ticks are replayed, the orders
+     *                           of another security never fire
+     * @param parallelism        number of threads of the ForkJoinPool
+     */
+    public BacktestRunner(List<Path> journalDirectories, Function<String, ? extends Collection<Order>> ordersOfSecurity,
+                          int parallelism) {
+        assert Objects.nonNull(journalDirectories) && Objects.nonNull(ordersOfSecurity) && parallelism > 0;
+        this.journalDirectories = new ArrayList<>(journalDirectories);
+        this.ordersOfSecurity = ordersOfSecurity;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @throws IOException when a journal can not be read
+     */
+    public BacktestResult run() throws IOException {
+        long start = System.nanoTime();
+        List<SecurityTicks> partitions = partition();
+        partitions.sort(Comparator.comparingInt(SecurityTicks::size).reversed());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<SecurityResult>> tasks = new ArrayList<>(partitions.size());
+            for (SecurityTicks ticks : partitions) {
+                tasks.add(pool.submit(() -> replay(ticks)));
+            }
+            SortedMap<String, SecurityResult> results = new TreeMap<>();
+            long tickCount = 0;
+            long fillCount = 0;
+            for (ForkJoinTask<SecurityResult> task : tasks) {
+                SecurityResult result = task.join();
+                results.put(result.getSecurity(), result);
+                tickCount += result.getTicks();
+                fillCount += result.getFills().size();
+            }
+            return new BacktestResult(tickCount, fillCount, Collections.unmodifiableSortedMap(results),
+                    Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<SecurityTicks> partition() throws IOException {
+        TickPartitioner partitioner = new TickPartitioner();
+        for (Path directory : journalDirectories) {
+            new TickJournalReader(directory).read(partitioner);
+        }
+        return partitioner.partitions;
+    }
+
+    private SecurityResult replay(SecurityTicks ticks) {
+        String security = SecurityRegistry.securityOf(ticks.securityId());
+        SimulatedExecutionService executionService = new SimulatedExecutionService();
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        int securityId = ticks.securityId();
+        int size = ticks.size();
+        int replayed = 0;
+        int restingOrders;
+        try {
+            Collection<Order> orders = ordersOfSecurity.apply(security);
+            if (orders != null) {
+                orders.forEach(strategy::placeOrder);
+            }
+            // the remaining ticks can not fire anything once the book is empty
+            for (; replayed < size && strategy.getOrderCount() > 0; replayed++) {
+                executionService.onTick(replayed, ticks.timestamp(replayed));
+                strategy.priceUpdate(securityId, ticks.price(replayed));
+            }
+            restingOrders = strategy.getOrderCount();
+        } finally {
+            // one strategy per security, the off heap memory of its book is released once the security is replayed
+            strategy.close();
+        }
+        long boughtVolume = 0;
+        long soldVolume = 0;
+        double boughtNotional = 0;
+        double soldNotional = 0;
+        List<Fill> fills = executionService.getFills();
+        for (Fill fill : fills) {
+            if (fill.getDirection() == Direction.BUY) {
+                boughtVolume += fill.getVolume();
+                boughtNotional += fill.getPrice() * fill.getVolume();
+            } else {
+                soldVolume += fill.getVolume();
+                soldNotional += fill.getPrice() * fill.getVolume();
+            }
+        }
+        return new SecurityResult(security, replayed, fills, restingOrders, boughtVolume, soldVolume,
+                boughtNotional, soldNotional);
+    }
+
+    /**
+     * Appends the ticks to the SecurityTicks of their security, the partitions are looked up by SecurityRegistry id
+     */
+    private static final class TickPartitioner implements TickJournalReader.TickHandler {
+
+        private final List<SecurityTicks> partitions = new ArrayList<>();
+        private SecurityTicks[] bySecurity = new SecurityTicks[16];
+
+        @Override
+        public void onTick(int securityId, long timestamp, double price) {
+            if (securityId >= bySecurity.length) {
+                bySecurity = Arrays.copyOf(bySecurity, Math.max(securityId + 1, bySecurity.length << 1));
+            }
+            SecurityTicks ticks = bySecurity[securityId];
+            if (ticks == null) {
+                ticks = new SecurityTicks(securityId);
+                bySecurity[securityId] = ticks;
+                partitions.add(ticks);
+            }
+            ticks.add(timestamp, price);
+        }
+    }
+}
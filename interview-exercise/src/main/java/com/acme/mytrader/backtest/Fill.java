@@ -0,0 +1,18 @@
+package com.acme.mytrader.backtest;
+
+import com.acme.mytrader.entity.constants.Direction;
+import lombok.Value;
+
+/**
+ * Execution recorded by the SimulatedExecutionService of a backtest, with the tick that triggered it
+ * (tickIndex is the position of the tick among the ticks of its security)
+ */
+@Value
+public class Fill {
+    String security;
+    Direction direction;
+    double price;
+    int volume;
+    long tickIndex;
+    long tickTimestamp;
+}
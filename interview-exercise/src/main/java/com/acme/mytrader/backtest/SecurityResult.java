@@ -0,0 +1,21 @@
+package com.acme.mytrader.backtest;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of the backtest of one security: the ticks replayed (up to the last order filled), the fills in tick order,
+ * the orders still resting at the end and the volume / notional (price x volume) bought and sold
+ */
+@Value
+public class SecurityResult {
+    String security;
+    long ticks;
+    List<Fill> fills;
+    int restingOrders;
+    long boughtVolume;
+    long soldVolume;
+    double boughtNotional;
+    double soldNotional;
+}
@@ -0,0 +1,45 @@
+package com.acme.mytrader.backtest;
+
+import java.util.Arrays;
+
+/**
+ * Ticks of one security in journal order, kept in primitive arrays (16 bytes per tick)
+ */
+final class SecurityTicks {
+
+    private final int securityId;
+    private long[] timestamps = new long[1024];
+    private double[] prices = new double[1024];
+    private int size;
+
+    SecurityTicks(int securityId) {
+        this.securityId = securityId;
+    }
+
+    void add(long timestamp, double price) {
+        if (size == prices.length) {
+            int newCapacity = size << 1;
+            timestamps = Arrays.copyOf(timestamps, newCapacity);
+            prices = Arrays.copyOf(prices, newCapacity);
+        }
+        timestamps[size] = timestamp;
+        prices[size] = price;
+        size++;
+    }
+
+    int securityId() {
+        return securityId;
+    }
+
+    long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    double price(int index) {
+        return prices[index];
+    }
+
+    int size() {
+        return size;
+    }
+}
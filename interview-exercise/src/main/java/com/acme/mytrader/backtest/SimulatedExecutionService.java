@@ -0,0 +1,48 @@
+package com.acme.mytrader.backtest;
+
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <pre>
+ * ExecutionService of a backtest: every order is filled at once at the price it is sent with and recorded as a Fill of
+ * the tick being replayed (set by the runner before the tick is handed to the strategy).
+ *
+ * Note: this class is not thread safe, a backtest uses one instance per security on the thread replaying it
+ * </pre>
+ */
+public class SimulatedExecutionService implements ExecutionService {
+
+    private final List<Fill> fills = new ArrayList<>();
+    private long tickIndex;
+    private long tickTimestamp;
+
+    @Override
+    public void buy(String security, double price, int volume) {
+        fills.add(new Fill(security, Direction.BUY, price, volume, tickIndex, tickTimestamp));
+    }
+
+    @Override
+    public void sell(String security, double price, int volume) {
+        fills.add(new Fill(security, Direction.SELL, price, volume, tickIndex, tickTimestamp));
+    }
+
+    /**
+     * The tick the next fills belong to
+     */
+    void onTick(long tickIndex, long tickTimestamp) {
+        this.tickIndex = tickIndex;
+        this.tickTimestamp = tickTimestamp;
+    }
+
+    /**
+     * @return the fills in the order they were executed
+     */
+    public List<Fill> getFills() {
+        return Collections.unmodifiableList(fills);
+    }
+}
@@ -2,12 +2,33 @@ package com.acme.mytrader.client;
 
 import com.acme.mytrader.entity.Stock;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * There is no implementation for this interface however it is mocked in the test and the invocation is ensured
+ * (see SimulatedStockClient for an in memory implementation)
  */
 
 public interface StockClient {
 
     Stock getLiveStockPrice(String security);
 
+    /**
+     * Fetches the live price of all the given securities in one round trip, the securities without a quote are not in
+     * the returned map. The default implementation is for the clients without a bulk call and invokes
+     * getLiveStockPrice for every security
+     */
+    default Map<String, Stock> getLiveStockPrices(Collection<String> securities) {
+        Map<String, Stock> liveStocks = new HashMap<>();
+        for (String security : securities) {
+            Stock liveStock = getLiveStockPrice(security);
+            if (liveStock != null) {
+                liveStocks.put(security, liveStock);
+            }
+        }
+        return liveStocks;
+    }
+
 }
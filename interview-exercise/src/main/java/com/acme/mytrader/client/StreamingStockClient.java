@@ -0,0 +1,21 @@
+package com.acme.mytrader.client;
+
+import java.io.Closeable;
+
+/**
+ * <pre>
+ * StockClient of a feed that pushes the quotes instead of being polled, a quote reaches the price pipeline as soon as
+ * it is received instead of up to one polling period later.
+ *
+ * 1. subscribe asks the feed for the quotes of a security, they are handed to the quote listener given to the client
+ * (a SecurityPriceListener, e.g. a RingBufferPriceSource or a TradingStrategy) on the reader thread of the client
+ * 2. getLiveStockPrice stays available for the polling users, it answers the last pushed price of the security
+ * </pre>
+ */
+public interface StreamingStockClient extends StockClient, Closeable {
+
+    void subscribe(String security);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,205 @@
+package com.acme.mytrader.client.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * Stand-in quote feed on the loopback interface to run the NioStockClient without an exchange (tests, benchmarks)
+ *
+ * 1. Listens on an ephemeral port of the loopback address (see getAddress), every accepted client gets its own thread
+ * that reads its SUBSCRIBE messages and answers the SYMBOL message of the security
+ * 2. publish sends a QUOTE to every client that subscribed to the security, a burst of prices is written at once
+ * 3. The sockets are blocking, this is a test double and not a feed handler
+ * </pre>
+ */
+public class LoopbackQuoteServer implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(LoopbackQuoteServer.class.getName());
+
+    private final ServerSocketChannel serverChannel;
+    private final Map<String, Integer> feedIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextFeedId = new AtomicInteger();
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    public LoopbackQuoteServer() {
+        try {
+            this.serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Not able to open the loopback quote server", e);
+        }
+        Thread acceptor = new Thread(this::accept, "loopback-quote-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void publish(String security, double price) {
+        publish(security, new double[]{price});
+    }
+
+    /**
+     * Sends the prices of the security, in order, to every subscribed client
+     */
+    public void publish(String security, double[] prices) {
+        assert Objects.nonNull(security) && Objects.nonNull(prices);
+        Integer feedId = feedIds.get(security);
+        if (feedId == null) {
+            return;
+        }
+        ByteBuffer quotes = ByteBuffer.allocate(prices.length * QuoteProtocol.QUOTE_LENGTH);
+        for (double price : prices) {
+            QuoteProtocol.putQuote(quotes, feedId, price);
+        }
+        quotes.flip();
+        for (Connection connection : connections) {
+            if (connection.subscriptions.contains(feedId)) {
+                connection.send(quotes.duplicate());
+            }
+        }
+    }
+
+    /**
+     * Waits until a client subscribed to the security
+     *
+     * @return false when no client did within the timeout
+     */
+    public boolean awaitSubscription(String security, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isSubscribed(security)) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        return true;
+    }
+
+    public boolean isSubscribed(String security) {
+        Integer feedId = feedIds.get(security);
+        return feedId != null && connections.stream().anyMatch(connection -> connection.subscriptions.contains(feedId));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(serverChannel);
+        connections.forEach(connection -> closeQuietly(connection.channel));
+        connections.clear();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(channel);
+                connections.add(connection);
+                Thread thread = new Thread(connection::readSubscriptions, "loopback-quote-connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.log(Level.WARNING, "Loopback quote server stopped accepting", e);
+                }
+                return;
+            }
+        }
+    }
+
+    private int feedIdOf(String security) {
+        return feedIds.computeIfAbsent(security, s -> nextFeedId.getAndIncrement());
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Not able to close " + closeable, e);
+        }
+    }
+
+    private class Connection {
+        private final SocketChannel channel;
+        private final Set<Integer> subscriptions = ConcurrentHashMap.newKeySet();
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void readSubscriptions() {
+            ByteBuffer buffer = ByteBuffer.allocate(4 * 1024);
+            try {
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    while (buffer.remaining() >= QuoteProtocol.SUBSCRIBE_HEADER_LENGTH
+                            && buffer.remaining() >= QuoteProtocol.SUBSCRIBE_HEADER_LENGTH + (buffer.get(buffer.position() + 1) & 0xFF)) {
+                        byte type = buffer.get();
+                        byte[] security = new byte[buffer.get() & 0xFF];
+                        buffer.get(security);
+                        if (type != QuoteProtocol.SUBSCRIBE) {
+                            throw new IOException("Unknown client message type " + type);
+                        }
+                        subscribe(new String(security, StandardCharsets.US_ASCII));
+                    }
+                    buffer.compact();
+                }
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.log(Level.FINE, "Loopback quote connection closed", e);
+                }
+            } finally {
+                connections.remove(this);
+                closeQuietly(channel);
+            }
+        }
+
+        /**
+         * The SYMBOL message is written before the security is added, a client never gets a quote it cannot decode
+         */
+        private void subscribe(String security) {
+            int feedId = feedIdOf(security);
+            ByteBuffer symbol = ByteBuffer.allocate(QuoteProtocol.SYMBOL_HEADER_LENGTH + security.length());
+            QuoteProtocol.putSymbol(symbol, feedId, security);
+            send(symbol.flip());
+            subscriptions.add(feedId);
+        }
+
+        synchronized void send(ByteBuffer message) {
+            try {
+                while (message.hasRemaining()) {
+                    channel.write(message);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Not able to send to the loopback quote client", e);
+                closeQuietly(channel);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.acme.mytrader.client.impl;
+
+import com.acme.mytrader.client.StreamingStockClient;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * StreamingStockClient reading the QuoteProtocol from a non blocking socket
+ *
+ *   feed -> socket -> (direct buffer, QuoteDecoder, reader thread) -> quote listener -> price pipeline
+ *
+ * 1. One reader thread selects on the socket, reads into a preallocated direct buffer and decodes the quotes in place,
+ * a quote is handed to the quote listener without any intermediate object (no String, Stock or boxed price)
+ * 2. The subscriptions are queued by the caller and written by the reader thread, a write the socket does not take at
+ * once is completed when the socket is writable again
+ * 3. The last price of every quoted security is kept in a primitive array for getLiveStockPrice, a security asked
+ * for the first time is subscribed and has no price (null) until its first quote
+ * 4. When the feed closes the connection the reader stops, the last prices are kept
+ * 5. A quote listener that throws is logged and the reader goes on with the next quote, the connection is only dropped
+ * by socket errors
+ * </pre>
+ */
+public class NioStockClient implements StreamingStockClient, SecurityPriceListener {
+
+    private static final Logger LOGGER = Logger.getLogger(NioStockClient.class.getName());
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 4 * 1024;
+    private static final long NO_PRICE = Double.doubleToRawLongBits(Double.NaN);
+    private static final SecurityPriceListener NO_LISTENER = (securityId, price) -> {
+    };
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+    private final SecurityPriceListener quoteListener;
+    private final QuoteDecoder decoder = new QuoteDecoder(this);
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Queue<String> pendingSubscriptions = new ConcurrentLinkedQueue<>();
+    private final Consumer<SelectionKey> selectedKeyHandler = this::handle;
+    private final Thread reader;
+    private volatile AtomicLongArray lastPrices = new AtomicLongArray(0);
+    private volatile boolean running = true;
+    private volatile long quotes;
+
+    public NioStockClient(InetSocketAddress address) {
+        this(address, NO_LISTENER);
+    }
+
+    public NioStockClient(InetSocketAddress address, SecurityPriceListener quoteListener) {
+        assert Objects.nonNull(address) && Objects.nonNull(quoteListener);
+        this.quoteListener = quoteListener;
+        try {
+            this.channel = SocketChannel.open(address);
+            this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.channel.configureBlocking(false);
+            this.selector = Selector.open();
+            this.key = channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Not able to connect to the quote feed " + address, e);
+        }
+        writeBuffer.flip();
+        this.reader = new Thread(this::read, "stock-stream-reader-" + address.getPort());
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    @Override
+    public void subscribe(String security) {
+        assert Objects.nonNull(security);
+        if (subscriptions.add(security)) {
+            pendingSubscriptions.add(security);
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public Stock getLiveStockPrice(String security) {
+        int securityId = SecurityRegistry.idOf(security);
+        AtomicLongArray prices = lastPrices;
+        long price = securityId >= 0 && securityId < prices.length() ? prices.get(securityId) : NO_PRICE;
+        if (price == NO_PRICE) {
+            subscribe(security);
+            return null;
+        }
+        return new Stock(security, Double.longBitsToDouble(price));
+    }
+
+    /**
+     * Reader thread, a decoded quote
+     */
+    @Override
+    public void priceUpdate(int securityId, double price) {
+        AtomicLongArray prices = lastPrices;
+        if (securityId >= prices.length()) {
+            prices = grow(prices, securityId);
+        }
+        prices.lazySet(securityId, Double.doubleToRawLongBits(price));
+        quotes++;
+        try {
+            quoteListener.priceUpdate(securityId, price);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Quote listener failed on the quote of " + SecurityRegistry.securityOf(securityId), e);
+        }
+    }
+
+    /**
+     * Number of quotes received (only written by the reader thread)
+     */
+    public long getQuotes() {
+        return quotes;
+    }
+
+    public boolean isConnected() {
+        return running && channel.isOpen();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        if (Thread.currentThread() != reader) {
+            try {
+                reader.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void read() {
+        try {
+            while (running) {
+                writeSubscriptions();
+                selector.select(selectedKeyHandler);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (running) {
+                LOGGER.log(Level.WARNING, "Quote feed reader stopped", e);
+            }
+        } finally {
+            running = false;
+            closeQuietly();
+        }
+    }
+
+    private void handle(SelectionKey selected) {
+        try {
+            if (selected.isReadable()) {
+                readQuotes();
+            }
+            if (selected.isValid() && selected.isWritable()) {
+                writeSubscriptions();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readQuotes() throws IOException {
+        if (channel.read(readBuffer) < 0) {
+            LOGGER.info("Quote feed closed the connection");
+            running = false;
+            return;
+        }
+        readBuffer.flip();
+        decoder.decode(readBuffer);
+        readBuffer.compact();
+    }
+
+    private void writeSubscriptions() throws IOException {
+        if (!writeBuffer.hasRemaining()) {
+            writeBuffer.clear();
+            String security;
+            while ((security = pendingSubscriptions.peek()) != null
+                    && writeBuffer.remaining() >= QuoteProtocol.subscribeLength(security)) {
+                QuoteProtocol.putSubscribe(writeBuffer, pendingSubscriptions.poll());
+            }
+            writeBuffer.flip();
+        }
+        if (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        boolean pending = writeBuffer.hasRemaining() || !pendingSubscriptions.isEmpty();
+        key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private AtomicLongArray grow(AtomicLongArray prices, int securityId) {
+        AtomicLongArray grown = new AtomicLongArray(Math.max(securityId + 1, prices.length() << 1));
+        for (int i = 0; i < grown.length(); i++) {
+            grown.lazySet(i, i < prices.length() ? prices.get(i) : NO_PRICE);
+        }
+        lastPrices = grown;
+        return grown;
+    }
+
+    private void closeQuietly() {
+        try {
+            selector.close();
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Not able to close the quote feed connection", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.acme.mytrader.client.impl;
+
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <pre>
+ * Decoder of the feed side of the QuoteProtocol
+ *
+ * 1. The messages are read in place from the buffer (typically the direct buffer the socket is read into), a QUOTE is
+ * handed to the listener with the SecurityRegistry id of its security, nothing is allocated per quote
+ * 2. A SYMBOL message maps the feed id to the SecurityRegistry id once per security
+ * 3. A message cut by the end of the buffer is left in it, it is decoded once the rest is read (compact the buffer)
+ *
+ * Note: this class is not thread safe, it belongs to the reader thread
+ * </pre>
+ */
+public final class QuoteDecoder {
+
+    private final SecurityPriceListener listener;
+    private final byte[] securityBytes = new byte[QuoteProtocol.MAX_SECURITY_LENGTH];
+    private int[] securityIds = new int[0];
+
+    public QuoteDecoder(SecurityPriceListener listener) {
+        assert Objects.nonNull(listener);
+        this.listener = listener;
+    }
+
+    /**
+     * Decodes the complete messages between the position and the limit of the buffer
+     *
+     * @return number of quotes handed to the listener
+     */
+    public int decode(ByteBuffer buffer) {
+        int quotes = 0;
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            byte type = buffer.get(start);
+            if (type == QuoteProtocol.QUOTE) {
+                if (buffer.remaining() < QuoteProtocol.QUOTE_LENGTH) {
+                    break;
+                }
+                int securityId = securityIdOf(buffer.getInt(start + 1));
+                double price = buffer.getDouble(start + 5);
+                buffer.position(start + QuoteProtocol.QUOTE_LENGTH);
+                listener.priceUpdate(securityId, price);
+                quotes++;
+            } else if (type == QuoteProtocol.SYMBOL) {
+                if (buffer.remaining() < QuoteProtocol.SYMBOL_HEADER_LENGTH
+                        || buffer.remaining() < QuoteProtocol.SYMBOL_HEADER_LENGTH + (buffer.get(start + 5) & 0xFF)) {
+                    break;
+                }
+                int feedId = buffer.getInt(start + 1);
+                int length = buffer.get(start + 5) & 0xFF;
+                buffer.position(start + QuoteProtocol.SYMBOL_HEADER_LENGTH);
+                buffer.get(securityBytes, 0, length);
+                define(feedId, new String(securityBytes, 0, length, StandardCharsets.US_ASCII));
+            } else {
+                throw new IllegalStateException("Unknown quote message type " + type + " at " + start);
+            }
+        }
+        return quotes;
+    }
+
+    private void define(int feedId, String security) {
+        if (feedId >= securityIds.length) {
+            int length = securityIds.length;
+            securityIds = Arrays.copyOf(securityIds, Math.max(feedId + 1, length << 1));
+            Arrays.fill(securityIds, length, securityIds.length, SecurityRegistry.UNKNOWN);
+        }
+        securityIds[feedId] = SecurityRegistry.intern(security);
+    }
+
+    private int securityIdOf(int feedId) {
+        if (feedId < 0 || feedId >= securityIds.length || securityIds[feedId] == SecurityRegistry.UNKNOWN) {
+            throw new IllegalStateException("Quote of the feed id " + feedId + " before its symbol");
+        }
+        return securityIds[feedId];
+    }
+}
@@ -0,0 +1,56 @@
+package com.acme.mytrader.client.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <pre>
+ * Compact binary quote protocol of the streaming feed (big endian, no framing other than the message type):
+ *
+ *   SUBSCRIBE  client -> feed   type (1) | length (1) | security (length ASCII bytes)
+ *   SYMBOL     feed -> client   type (1) | feed id (4) | length (1) | security (length ASCII bytes)
+ *   QUOTE      feed -> client   type (1) | feed id (4) | price (8, IEEE 754 double)
+ *
+ * The feed assigns a dense feed id to every security and sends its SYMBOL message once, before its first QUOTE,
+ * so a quote is 13 bytes and is decoded without any String.
+ * </pre>
+ */
+public final class QuoteProtocol {
+
+    public static final byte SUBSCRIBE = 1;
+    public static final byte SYMBOL = 2;
+    public static final byte QUOTE = 3;
+    public static final int QUOTE_LENGTH = 13;
+    public static final int SYMBOL_HEADER_LENGTH = 6;
+    public static final int SUBSCRIBE_HEADER_LENGTH = 2;
+    public static final int MAX_SECURITY_LENGTH = 255;
+
+    private QuoteProtocol() {
+    }
+
+    public static void putSubscribe(ByteBuffer buffer, String security) {
+        byte[] ascii = ascii(security);
+        buffer.put(SUBSCRIBE).put((byte) ascii.length).put(ascii);
+    }
+
+    public static void putSymbol(ByteBuffer buffer, int feedId, String security) {
+        byte[] ascii = ascii(security);
+        buffer.put(SYMBOL).putInt(feedId).put((byte) ascii.length).put(ascii);
+    }
+
+    public static void putQuote(ByteBuffer buffer, int feedId, double price) {
+        buffer.put(QUOTE).putInt(feedId).putDouble(price);
+    }
+
+    public static int subscribeLength(String security) {
+        return SUBSCRIBE_HEADER_LENGTH + security.length();
+    }
+
+    private static byte[] ascii(String security) {
+        byte[] ascii = security.getBytes(StandardCharsets.US_ASCII);
+        if (ascii.length > MAX_SECURITY_LENGTH) {
+            throw new IllegalArgumentException("Security longer than " + MAX_SECURITY_LENGTH + " bytes: " + security);
+        }
+        return ascii;
+    }
+}
@@ -0,0 +1,109 @@
+package com.acme.mytrader.client.impl;
+
+import com.acme.mytrader.client.StockClient;
+import com.acme.mytrader.entity.Stock;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <pre>
+ * In memory StockClient to run the feed locally without an exchange connection (benchmarks, local runs)
+ *
+ * 1. Every call (single or bulk) waits for the configured latency to simulate the round trip to the exchange,
+ * so the cost of polling one security at a time against the bulk call can be measured
+ * 2. Prices are either set explicitly or, when random walk is enabled, moved by one tick up / down on every quote
+ * 3. The number of calls and quotes served are counted
+ * </pre>
+ */
+public class SimulatedStockClient implements StockClient {
+
+    private static final double TICK_SIZE = 0.01;
+    private static final double INITIAL_PRICE = 100.00;
+
+    private final long latencyNanos;
+    private final Random random;
+    private final Map<String, Double> prices = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong quotes = new AtomicLong();
+
+    /**
+     * Fixed prices (see setPrice), unknown securities are quoted at the initial price
+     */
+    public SimulatedStockClient(long latency, TimeUnit unit) {
+        this(latency, unit, null);
+    }
+
+    /**
+     * Random walk prices that are reproducible for the given seed
+     */
+    public SimulatedStockClient(long latency, TimeUnit unit, long seed) {
+        this(latency, unit, new Random(seed));
+    }
+
+    private SimulatedStockClient(long latency, TimeUnit unit, Random random) {
+        assert latency >= 0 && Objects.nonNull(unit);
+        this.latencyNanos = unit.toNanos(latency);
+        this.random = random;
+    }
+
+    public void setPrice(String security, double price) {
+        this.prices.put(security, price);
+    }
+
+    @Override
+    public Stock getLiveStockPrice(String security) {
+        roundTrip();
+        return quote(security);
+    }
+
+    @Override
+    public Map<String, Stock> getLiveStockPrices(Collection<String> securities) {
+        roundTrip();
+        Map<String, Stock> liveStocks = new HashMap<>(securities.size() * 2);
+        for (String security : securities) {
+            liveStocks.put(security, quote(security));
+        }
+        return liveStocks;
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getQuotes() {
+        return quotes.get();
+    }
+
+    private Stock quote(String security) {
+        quotes.incrementAndGet();
+        double price = prices.compute(security, (s, last) -> nextPrice(last));
+        return new Stock(security, price);
+    }
+
+    private double nextPrice(Double last) {
+        double price = last == null ? INITIAL_PRICE : last;
+        if (random == null) {
+            return price;
+        }
+        synchronized (random) {
+            price += random.nextBoolean() ? TICK_SIZE : -TICK_SIZE;
+        }
+        return Math.max(TICK_SIZE, Math.round(price * 100) / 100.0);
+    }
+
+    private void roundTrip() {
+        calls.incrementAndGet();
+        long deadline = System.nanoTime() + latencyNanos;
+        for (long remaining = latencyNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.acme.mytrader.entity;
+
+import com.acme.mytrader.entity.constants.Direction;
+import lombok.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@ToString
+@NoArgsConstructor
+public class Execution {
+    @NonNull
+    private String security;
+    @NonNull
+    private Direction direction;
+    @NonNull
+    private Double price;
+    @NonNull
+    private Integer volume;
+}
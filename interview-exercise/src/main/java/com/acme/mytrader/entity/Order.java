@@ -1,10 +1,15 @@
 package com.acme.mytrader.entity;
 
 import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
 import lombok.*;
 
 import java.math.BigInteger;
 
+/**
+ * Order with a trigger rule (OrderType, BELOW when not set), limitPrice / upperPrice / trailAmount are only used by the
+ * STOP_LIMIT / PRICE_BAND / TRAILING_STOP types
+ */
 @Data
 @Builder
 @AllArgsConstructor
@@ -19,4 +24,16 @@ public class Order {
     private Integer volume;
     @NonNull
     private Direction direction;
+    private OrderType type;
+    private Double limitPrice;
+    private Double upperPrice;
+    private Double trailAmount;
+
+    public Order(BigInteger orderNo, Stock stock, Integer volume, Direction direction) {
+        this(orderNo, stock, volume, direction, null, null, null, null);
+    }
+
+    public OrderType getType() {
+        return type == null ? OrderType.BELOW : type;
+    }
 }
@@ -0,0 +1,19 @@
+package com.acme.mytrader.entity.constants;
+
+/**
+ * <pre>
+ * Trigger rule of an order, the trigger price is the price of the order's Stock
+ *
+ * BELOW: fires when the live price is below the trigger price, sent at the trigger price (the original trade rule)
+ * ABOVE: fires when the live price is above the trigger price, sent at the trigger price
+ * STOP_LIMIT: the trigger price is a stop, a BUY fires when the live price rises above it and a SELL when it falls
+ * below it, sent at the limitPrice
+ * TRAILING_STOP: the stop trails the best price seen since the placement (starting at the trigger price) by trailAmount,
+ * a SELL fires when the live price falls below highest - trailAmount and a BUY when it rises above lowest + trailAmount,
+ * sent at the live price
+ * PRICE_BAND: fires when the live price is inside the band (trigger price, upperPrice), sent at the live price
+ * </pre>
+ */
+public enum OrderType {
+    BELOW, ABOVE, STOP_LIMIT, TRAILING_STOP, PRICE_BAND
+}
@@ -0,0 +1,14 @@
+package com.acme.mytrader.execution;
+
+import com.acme.mytrader.entity.Execution;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non blocking variant of the ExecutionService, the call only queues the order and the returned future completes
+ * once the venue has executed it (or completes exceptionally when it was rejected)
+ */
+public interface AsyncExecutionService {
+    CompletableFuture<Execution> buyAsync(String security, double price, int volume);
+    CompletableFuture<Execution> sellAsync(String security, double price, int volume);
+}
@@ -0,0 +1,15 @@
+package com.acme.mytrader.execution;
+
+import com.acme.mytrader.entity.Execution;
+import com.acme.mytrader.entity.constants.Direction;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The venue the orders are sent to in batches, all the executions of a batch have the same security and direction.
+ * There is no implementation for a real venue, SimulatedVenue is the local stand in
+ */
+public interface ExecutionVenue {
+    CompletionStage<Void> execute(String security, Direction direction, List<Execution> executions);
+}
@@ -0,0 +1,216 @@
+package com.acme.mytrader.execution.impl;
+
+import com.acme.mytrader.entity.Execution;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.AsyncExecutionService;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.execution.ExecutionVenue;
+import com.acme.mytrader.metrics.TradingMetrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * Order submission pipeline in front of an ExecutionVenue.
+ *
+ * 1. buy / sell (ExecutionService) and buyAsync / sellAsync only queue the order and return, the TradingStrategy tick
+ * loop does not wait for the venue round trip anymore
+ * 2. A submitter thread takes the queued orders, groups them per security and direction and sends every group to the
+ * venue as one batch of at most maxBatchSize orders
+ * 3. At most maxInFlight orders are sent and not yet acknowledged, the submitter waits for acknowledgements when the
+ * window is full and the orders keep queueing (up to queueCapacity, after that they are rejected)
+ * 4. The future of every order completes when the venue acknowledges its batch, the orders sent with buy / sell have
+ * no future to look at so their failures (venue errors, full queue, shut down) are logged
+ * 5. The time from queueing an order to its acknowledgement is recorded in the TradingMetrics (executionAck)
+ * </pre>
+ */
+public class BatchingExecutionService implements ExecutionService, AsyncExecutionService {
+
+    private static final Logger LOGGER = Logger.getLogger(BatchingExecutionService.class.getName());
+
+    private final ExecutionVenue venue;
+    private final int maxBatchSize;
+    private final Semaphore inFlight;
+    private final BlockingQueue<PendingExecution> pendingExecutions;
+    private final Thread submitter;
+    private volatile boolean running = true;
+
+    /**
+     * @throws IllegalArgumentException when maxInFlight is below maxBatchSize, a full batch could never be sent
+     */
+    public BatchingExecutionService(ExecutionVenue venue, int maxBatchSize, int maxInFlight, int queueCapacity) {
+        assert Objects.nonNull(venue) && maxBatchSize > 0 && queueCapacity > 0;
+        if (maxInFlight < maxBatchSize) {
+            throw new IllegalArgumentException("In flight window " + maxInFlight + " is below the batch size " + maxBatchSize);
+        }
+        this.venue = venue;
+        this.maxBatchSize = maxBatchSize;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.pendingExecutions = new ArrayBlockingQueue<>(queueCapacity);
+        this.submitter = new Thread(this::submitPendingExecutions, "execution-submitter");
+        this.submitter.setDaemon(true);
+        this.submitter.start();
+    }
+
+    @Override
+    public void buy(String security, double price, int volume) {
+        submitLoggingFailure(new Execution(security, Direction.BUY, price, volume));
+    }
+
+    @Override
+    public void sell(String security, double price, int volume) {
+        submitLoggingFailure(new Execution(security, Direction.SELL, price, volume));
+    }
+
+    @Override
+    public CompletableFuture<Execution> buyAsync(String security, double price, int volume) {
+        return submit(new Execution(security, Direction.BUY, price, volume));
+    }
+
+    @Override
+    public CompletableFuture<Execution> sellAsync(String security, double price, int volume) {
+        return submit(new Execution(security, Direction.SELL, price, volume));
+    }
+
+    /**
+     * Number of orders that can still be sent before the in flight window is full
+     */
+    public int getAvailableWindow() {
+        return inFlight.availablePermits();
+    }
+
+    /**
+     * Stops the submitter, the orders that are still queued or taken but not sent yet are completed exceptionally, the
+     * batches already sent complete with their acknowledgement
+     */
+    public void shutDown() {
+        running = false;
+        submitter.interrupt();
+    }
+
+    /**
+     * Note: an order queued while shutDown runs may miss the last drain of the submitter, it is then taken back out of
+     * the queue and rejected here (the submitter or this thread rejects it, whichever removes it from the queue first)
+     */
+    private CompletableFuture<Execution> submit(Execution execution) {
+        PendingExecution pendingExecution = new PendingExecution(execution);
+        if (!running) {
+            pendingExecution.reject();
+        } else if (!pendingExecutions.offer(pendingExecution)) {
+            pendingExecution.future.completeExceptionally(new RejectedExecutionException("Execution queue is full"));
+        } else if (!running && pendingExecutions.remove(pendingExecution)) {
+            pendingExecution.reject();
+        }
+        return pendingExecution.future;
+    }
+
+    private void submitLoggingFailure(Execution execution) {
+        submit(execution).whenComplete((acknowledged, failure) -> {
+            if (failure != null) {
+                LOGGER.log(Level.WARNING, "Order failed: " + execution, failure);
+            }
+        });
+    }
+
+    private void submitPendingExecutions() {
+        List<PendingExecution> taken = new ArrayList<>();
+        try {
+            while (running) {
+                PendingExecution first = pendingExecutions.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                taken.add(first);
+                pendingExecutions.drainTo(taken);
+                for (List<PendingExecution> group : groupBySecurityAndDirection(taken).values()) {
+                    for (int from = 0; from < group.size(); from += maxBatchSize) {
+                        send(group.subList(from, Math.min(group.size(), from + maxBatchSize)));
+                    }
+                }
+                taken.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (PendingExecution pendingExecution : taken) {
+                if (!pendingExecution.submitted) {
+                    pendingExecution.reject();
+                }
+            }
+            for (PendingExecution pendingExecution; (pendingExecution = pendingExecutions.poll()) != null; ) {
+                pendingExecution.reject();
+            }
+        }
+    }
+
+    private static Map<String, List<PendingExecution>> groupBySecurityAndDirection(List<PendingExecution> taken) {
+        Map<String, List<PendingExecution>> groups = new LinkedHashMap<>();
+        for (PendingExecution pendingExecution : taken) {
+            Execution execution = pendingExecution.execution;
+            groups.computeIfAbsent(execution.getSecurity() + '/' + execution.getDirection(), key -> new ArrayList<>())
+                    .add(pendingExecution);
+        }
+        return groups;
+    }
+
+    private void send(List<PendingExecution> batch) throws InterruptedException {
+        inFlight.acquire(batch.size());
+        List<PendingExecution> sent = new ArrayList<>(batch);
+        sent.forEach(pendingExecution -> pendingExecution.submitted = true);
+        List<Execution> executions = new ArrayList<>(sent.size());
+        sent.forEach(pendingExecution -> executions.add(pendingExecution.execution));
+        Execution first = executions.get(0);
+        try {
+            venue.execute(first.getSecurity(), first.getDirection(), executions).whenComplete((ack, failure) -> {
+                inFlight.release(sent.size());
+                sent.forEach(pendingExecution -> pendingExecution.complete(failure));
+            });
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Venue rejected the batch of " + first.getSecurity(), e);
+            inFlight.release(sent.size());
+            sent.forEach(pendingExecution -> pendingExecution.complete(e));
+        }
+    }
+
+    private static class PendingExecution {
+        private static final TradingMetrics METRICS = TradingMetrics.get();
+
+        private final Execution execution;
+        private final CompletableFuture<Execution> future = new CompletableFuture<>();
+        private final long queuedAt;
+        // set by the submitter once the batch of the execution is handed to the venue, a shut down must not reject it
+        private boolean submitted;
+
+        PendingExecution(Execution execution) {
+            this.execution = execution;
+            this.queuedAt = METRICS.isEnabled() ? System.nanoTime() : 0L;
+        }
+
+        void complete(Throwable failure) {
+            if (failure == null) {
+                if (queuedAt != 0L && METRICS.isEnabled()) {
+                    METRICS.recordExecutionAck(System.nanoTime() - queuedAt);
+                }
+                future.complete(execution);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        }
+
+        void reject() {
+            future.completeExceptionally(new RejectedExecutionException("Execution service is shut down"));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.acme.mytrader.execution.impl;
+
+import com.acme.mytrader.entity.Execution;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionVenue;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Local stand in for an execution venue (tests and benchmarks).
+ * Every batch is acknowledged after the configured latency (one round trip per batch whatever its size), the
+ * executions are recorded and the batches and the highest number of orders in flight are counted.
+ * </pre>
+ */
+public class SimulatedVenue implements ExecutionVenue {
+
+    private final long latencyNanos;
+    private final ScheduledExecutorService acknowledger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "simulated-venue");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Queue<Execution> executions = new ConcurrentLinkedQueue<>();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public SimulatedVenue(long latency, TimeUnit unit) {
+        this.latencyNanos = unit.toNanos(latency);
+    }
+
+    @Override
+    public CompletionStage<Void> execute(String security, Direction direction, List<Execution> batch) {
+        batches.incrementAndGet();
+        int current = inFlight.addAndGet(batch.size());
+        maxInFlight.accumulateAndGet(current, Math::max);
+        CompletableFuture<Void> acknowledgement = new CompletableFuture<>();
+        acknowledger.schedule(() -> {
+            executions.addAll(batch);
+            inFlight.addAndGet(-batch.size());
+            acknowledgement.complete(null);
+        }, latencyNanos, TimeUnit.NANOSECONDS);
+        return acknowledgement;
+    }
+
+    public Queue<Execution> getExecutions() {
+        return executions;
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public void shutDown() {
+        acknowledger.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package com.acme.mytrader.execution.risk;
+
+/**
+ * The checks of the RiskGateExecutionService, in the order they are made
+ */
+public enum RiskCheck {
+    /**
+     * The SecurityRegistry id of the security is not below RiskLimits.maxSecurities
+     */
+    SECURITY_CAPACITY,
+    /**
+     * maxPosition of the security or maxGrossPosition
+     */
+    POSITION,
+    /**
+     * maxNotional of the security or maxGrossNotional
+     */
+    NOTIONAL,
+    /**
+     * maxOrdersPerSecond of the security or maxGlobalOrdersPerSecond
+     */
+    ORDER_RATE
+}
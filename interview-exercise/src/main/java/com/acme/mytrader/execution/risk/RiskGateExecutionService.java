@@ -0,0 +1,294 @@
+package com.acme.mytrader.execution.risk;
+
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * <pre>
+ * Pre trade gate in front of an ExecutionService, an order is only passed on when it keeps the position, the notional
+ * and the order rate of its security and of the whole book within the RiskLimits, e.g.
+ *
+ *   ExecutionService gate = new RiskGateExecutionService(executionService, limits);
+ *   TradingStrategy strategy = new TradingStrategy(priceSource, gate);
+ *
+ * 1. The position (net volume, buys positive) and the notional (absolute position x price of the last order passed on)
+ * of every security are counters in AtomicLongArray(s) indexed by SecurityRegistry id, the gross position / notional
+ * (sum over the securities) are AtomicLong(s), an order reserves its share with CAS loops and gives back exactly the
+ * share it reserved when a later check fails (the notional is not valued again at the price of the rejected order)
+ * 2. The order rates are TokenBuckets (one long per bucket), the security bucket is tried before the global one
+ * 3. An order that reduces the absolute position of its security is not held back by these limits, the notional is
+ * the exposure of the position and not the cash flow of the orders so a round trip back to flat always frees it
+ * 4. A rejected order is not passed on, it is counted per RiskCheck and handed to the RejectionListener; the gate does
+ * not throw on a rejection so the other orders triggered by the same tick still go through
+ * 5. The counters follow the orders passed on, an order the ExecutionService throws on gives its share back
+ *
+ * No lock and no allocation per order: a check is a few CAS on counters that are only contended by the orders of the
+ * same security (and the gross counters by all of them).
+ * Note: the concurrent orders of a security may see the share of an order that is being given back, the check is then
+ * stricter than needed, never looser
+ * </pre>
+ */
+public class RiskGateExecutionService implements ExecutionService {
+
+    private static final long REJECTED = Long.MIN_VALUE;
+
+    private final ExecutionService executionService;
+    private final RiskLimits limits;
+    private final RejectionListener rejectionListener;
+    private final LongSupplier nanoClock;
+    private final AtomicLongArray positions;
+    private final AtomicLongArray notionals;
+    private final AtomicLong grossPosition = new AtomicLong();
+    private final AtomicLong grossNotional = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    private final TokenBuckets securityOrderRates;
+    private final TokenBuckets globalOrderRate;
+    private final LongAdder[] rejections = new LongAdder[RiskCheck.values().length];
+
+    public RiskGateExecutionService(ExecutionService executionService, RiskLimits limits) {
+        this(executionService, limits, null);
+    }
+
+    /**
+     * @param rejectionListener told about every rejected order, null for none
+     */
+    public RiskGateExecutionService(ExecutionService executionService, RiskLimits limits, RejectionListener rejectionListener) {
+        this(executionService, limits, rejectionListener, System::nanoTime);
+    }
+
+    RiskGateExecutionService(ExecutionService executionService, RiskLimits limits, RejectionListener rejectionListener,
+                             LongSupplier nanoClock) {
+        assert Objects.nonNull(executionService) && Objects.nonNull(limits) && Objects.nonNull(nanoClock)
+                && limits.getMaxSecurities() > 0;
+        this.executionService = executionService;
+        this.limits = limits;
+        this.rejectionListener = rejectionListener;
+        this.nanoClock = nanoClock;
+        this.positions = new AtomicLongArray(limits.getMaxSecurities());
+        this.notionals = new AtomicLongArray(limits.getMaxSecurities());
+        for (int i = 0; i < limits.getMaxSecurities(); i++) {
+            this.notionals.lazySet(i, Double.doubleToRawLongBits(0.0));
+        }
+        this.securityOrderRates = Double.isInfinite(limits.getMaxOrdersPerSecond()) ? null
+                : new TokenBuckets(limits.getMaxSecurities(), limits.getMaxOrdersPerSecond(), limits.getOrderBurst());
+        this.globalOrderRate = Double.isInfinite(limits.getMaxGlobalOrdersPerSecond()) ? null
+                : new TokenBuckets(1, limits.getMaxGlobalOrdersPerSecond(), limits.getGlobalOrderBurst());
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void buy(String security, double price, int volume) {
+        execute(security, Direction.BUY, price, volume);
+    }
+
+    @Override
+    public void sell(String security, double price, int volume) {
+        execute(security, Direction.SELL, price, volume);
+    }
+
+    /**
+     * Net volume of the orders of the security passed on (buys positive)
+     */
+    public long getPosition(String security) {
+        int securityId = SecurityRegistry.idOf(security);
+        return securityId < 0 || securityId >= positions.length() ? 0L : positions.get(securityId);
+    }
+
+    /**
+     * Absolute position of the security x price of its last order passed on
+     */
+    public double getNotional(String security) {
+        int securityId = SecurityRegistry.idOf(security);
+        return securityId < 0 || securityId >= notionals.length() ? 0.0 : Double.longBitsToDouble(notionals.get(securityId));
+    }
+
+    public long getGrossPosition() {
+        return grossPosition.get();
+    }
+
+    public double getGrossNotional() {
+        return Double.longBitsToDouble(grossNotional.get());
+    }
+
+    /**
+     * Number of orders rejected by the check
+     */
+    public long getRejections(RiskCheck check) {
+        return rejections[check.ordinal()].sum();
+    }
+
+    private void execute(String security, Direction direction, double price, int volume) {
+        int securityId = SecurityRegistry.intern(security);
+        long volumeChange = direction == Direction.BUY ? volume : -volume;
+        if (securityId >= positions.length()) {
+            reject(security, direction, price, volume, RiskCheck.SECURITY_CAPACITY);
+            return;
+        }
+        long position = reservePosition(securityId, volumeChange);
+        if (position == REJECTED) {
+            reject(security, direction, price, volume, RiskCheck.POSITION);
+            return;
+        }
+        double reservedNotional = reserveNotional(securityId, position, volumeChange, price);
+        if (Double.isNaN(reservedNotional)) {
+            releasePosition(securityId, volumeChange);
+            reject(security, direction, price, volume, RiskCheck.NOTIONAL);
+            return;
+        }
+        if (!takeOrderTokens(securityId)) {
+            release(securityId, volumeChange, reservedNotional);
+            reject(security, direction, price, volume, RiskCheck.ORDER_RATE);
+            return;
+        }
+        try {
+            if (direction == Direction.BUY) {
+                executionService.buy(security, price, volume);
+            } else {
+                executionService.sell(security, price, volume);
+            }
+        } catch (RuntimeException e) {
+            release(securityId, volumeChange, reservedNotional);
+            throw e;
+        }
+    }
+
+    private void reject(String security, Direction direction, double price, int volume, RiskCheck failed) {
+        rejections[failed.ordinal()].increment();
+        if (rejectionListener != null) {
+            rejectionListener.rejected(security, direction, price, volume, failed);
+        }
+    }
+
+    private void release(int securityId, long volumeChange, double reservedNotional) {
+        releasePosition(securityId, volumeChange);
+        releaseNotional(securityId, reservedNotional);
+    }
+
+    /**
+     * @return the position of the security with the order, REJECTED when it would exceed the limits
+     */
+    private long reservePosition(int securityId, long change) {
+        long position = addPosition(securityId, change, limits.getMaxPosition());
+        if (position == REJECTED) {
+            return REJECTED;
+        }
+        long grossChange = Math.abs(position) - Math.abs(position - change);
+        long gross = grossPosition.addAndGet(grossChange);
+        if (grossChange > 0 && gross > limits.getMaxGrossPosition()) {
+            releasePosition(securityId, change);
+            return REJECTED;
+        }
+        return position;
+    }
+
+    private void releasePosition(int securityId, long change) {
+        long position = addPosition(securityId, -change, Long.MAX_VALUE);
+        grossPosition.addAndGet(Math.abs(position) - Math.abs(position + change));
+    }
+
+    /**
+     * @return the position of the security with the change, REJECTED when it would exceed the limit
+     */
+    private long addPosition(int securityId, long change, long limit) {
+        while (true) {
+            long position = positions.get(securityId);
+            long updated = position + change;
+            if (Math.abs(updated) > limit && Math.abs(updated) > Math.abs(position)) {
+                return REJECTED;
+            }
+            if (positions.compareAndSet(securityId, position, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * @param position the position of the security with the order
+     * @return the change of the notional of the security reserved by the order, NaN (nothing reserved) when the order
+     * increases the absolute position and the notional would exceed the limits
+     */
+    private double reserveNotional(int securityId, long position, long change, double price) {
+        boolean increasing = Math.abs(position) > Math.abs(position - change);
+        if (increasing && Math.abs(position) * price > limits.getMaxNotional()) {
+            return Double.NaN;
+        }
+        double reserved = markNotional(securityId, price);
+        double gross = addGrossNotional(reserved);
+        if (increasing && gross > limits.getMaxGrossNotional()) {
+            releaseNotional(securityId, reserved);
+            return Double.NaN;
+        }
+        return reserved;
+    }
+
+    /**
+     * Sets the notional of the security to its current absolute position x price
+     *
+     * @return the change of the notional of the security
+     */
+    private double markNotional(int securityId, double price) {
+        while (true) {
+            long bits = notionals.get(securityId);
+            double updated = Math.abs(positions.get(securityId)) * price;
+            if (notionals.compareAndSet(securityId, bits, Double.doubleToRawLongBits(updated))) {
+                return updated - Double.longBitsToDouble(bits);
+            }
+        }
+    }
+
+    /**
+     * Takes back the change of the notional of the security reserved by an order (and its share of the gross notional)
+     */
+    private void releaseNotional(int securityId, double reserved) {
+        while (true) {
+            long bits = notionals.get(securityId);
+            double updated = Double.longBitsToDouble(bits) - reserved;
+            if (notionals.compareAndSet(securityId, bits, Double.doubleToRawLongBits(updated))) {
+                addGrossNotional(-reserved);
+                return;
+            }
+        }
+    }
+
+    private double addGrossNotional(double change) {
+        while (true) {
+            long bits = grossNotional.get();
+            double updated = Double.longBitsToDouble(bits) + change;
+            if (grossNotional.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+                return updated;
+            }
+        }
+    }
+
+    private boolean takeOrderTokens(int securityId) {
+        if (securityOrderRates == null && globalOrderRate == null) {
+            return true;
+        }
+        long now = nanoClock.getAsLong();
+        if (securityOrderRates != null && !securityOrderRates.tryAcquire(securityId, now)) {
+            return false;
+        }
+        if (globalOrderRate != null && !globalOrderRate.tryAcquire(0, now)) {
+            if (securityOrderRates != null) {
+                securityOrderRates.release(securityId);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Told about the orders the gate does not pass on, called on the thread that sent the order
+     */
+    public interface RejectionListener {
+        void rejected(String security, Direction direction, double price, int volume, RiskCheck failedCheck);
+    }
+}
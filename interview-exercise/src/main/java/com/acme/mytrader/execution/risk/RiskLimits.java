@@ -0,0 +1,49 @@
+package com.acme.mytrader.execution.risk;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * <pre>
+ * Pre trade limits of a RiskGateExecutionService, e.g.
+ *
+ *   RiskLimits.builder()
+ *       .maxPosition(10_000)
+ *       .maxNotional(1_000_000)
+ *       .maxOrdersPerSecond(50).orderBurst(10)
+ *       .maxGrossNotional(20_000_000)
+ *       .maxGlobalOrdersPerSecond(1_000).globalOrderBurst(100)
+ *       .build();
+ *
+ * 1. maxPosition / maxNotional: largest absolute net volume / notional (absolute net volume x order price) of a security
+ * 2. maxGrossPosition / maxGrossNotional: largest sum over the securities of their absolute net volume / notional
+ * 3. maxOrdersPerSecond / orderBurst: sustained order rate of a security and the orders that can be sent at once after
+ * a quiet period, maxGlobalOrdersPerSecond / globalOrderBurst: the same for all the securities together
+ * 4. maxSecurities: the per security counters are preallocated for the SecurityRegistry ids below it, the orders of
+ * the other securities are rejected
+ *
+ * Every limit is off (unlimited) by default.
+ * </pre>
+ */
+@Value
+@Builder
+public class RiskLimits {
+    @Builder.Default
+    long maxPosition = Long.MAX_VALUE;
+    @Builder.Default
+    double maxNotional = Double.MAX_VALUE;
+    @Builder.Default
+    double maxOrdersPerSecond = Double.POSITIVE_INFINITY;
+    @Builder.Default
+    int orderBurst = 1;
+    @Builder.Default
+    long maxGrossPosition = Long.MAX_VALUE;
+    @Builder.Default
+    double maxGrossNotional = Double.MAX_VALUE;
+    @Builder.Default
+    double maxGlobalOrdersPerSecond = Double.POSITIVE_INFINITY;
+    @Builder.Default
+    int globalOrderBurst = 1;
+    @Builder.Default
+    int maxSecurities = 4096;
+}
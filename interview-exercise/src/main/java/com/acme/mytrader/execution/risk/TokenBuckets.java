@@ -0,0 +1,56 @@
+package com.acme.mytrader.execution.risk;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <pre>
+ * Lock free rate limiters, one token bucket per index, kept as the generic cell rate algorithm: a bucket is a single
+ * long, the theoretical arrival time (TAT) of the next order. An order is let through when the TAT is not more than
+ * the burst tolerance ahead of now and pushes the TAT one emission interval (1 / rate) further, the same as a bucket of
+ * burst tokens refilled at rate tokens per second, without a refill task or a lock.
+ * A try is one CAS on the bucket, retried only when another thread took a token of the same bucket in between.
+ * </pre>
+ */
+final class TokenBuckets {
+
+    private final AtomicLongArray arrivalTimes;
+    private final long interval;
+    private final long tolerance;
+
+    /**
+     * @param ratePerSecond tokens refilled per second
+     * @param burst         tokens of a full bucket
+     */
+    TokenBuckets(int buckets, double ratePerSecond, int burst) {
+        assert buckets > 0 && ratePerSecond > 0 && burst > 0;
+        this.arrivalTimes = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.arrivalTimes.lazySet(i, Long.MIN_VALUE);
+        }
+        this.interval = Math.max(1L, Math.round(1_000_000_000d / ratePerSecond));
+        this.tolerance = interval * (burst - 1);
+    }
+
+    /**
+     * @return true when a token was taken from the bucket
+     */
+    boolean tryAcquire(int bucket, long nowNanos) {
+        while (true) {
+            long arrivalTime = arrivalTimes.get(bucket);
+            long next = Math.max(arrivalTime, nowNanos);
+            if (next - nowNanos > tolerance) {
+                return false;
+            }
+            if (arrivalTimes.compareAndSet(bucket, arrivalTime, next + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by an order that was rejected by a later check
+     */
+    void release(int bucket) {
+        arrivalTimes.addAndGet(bucket, -interval);
+    }
+}
@@ -0,0 +1,98 @@
+package com.acme.mytrader.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <pre>
+ * HdrHistogram style latency histogram of non negative values (nanoseconds), log linear buckets with 2 significant
+ * digits: the values below 128 have a bucket each, above that every power of two is split in 64 buckets (< 1.6% error).
+ *
+ * 1. record is one index computation and one atomic increment of a preallocated counter, it does not allocate and does
+ * not lock, any number of threads can record concurrently
+ * 2. snapshot reads the counters one by one, a value recorded during the snapshot may or may not be in it
+ * 3. The percentiles are reported as the highest value of their bucket, same as HdrHistogram
+ * </pre>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int MAX_MAGNITUDE = Long.SIZE - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKET_HALF_COUNT * (MAX_MAGNITUDE + 1) + SUB_BUCKET_HALF_COUNT);
+
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(value));
+    }
+
+    /**
+     * Records the same value count times, e.g. the latency of a batch for every order of the batch
+     */
+    public void record(long value, int count) {
+        counts.addAndGet(indexOf(value), count);
+    }
+
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long total = 0;
+        long sum = 0;
+        int highest = -1;
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            if (copy[i] != 0) {
+                total += copy[i];
+                sum += copy[i] * lowestValueOf(i);
+                highest = i;
+            }
+        }
+        if (total == 0) {
+            return LatencySnapshot.EMPTY;
+        }
+        return new LatencySnapshot(total, sum / total,
+                percentile(copy, total, 50.0), percentile(copy, total, 90.0), percentile(copy, total, 99.0),
+                percentile(copy, total, 99.9), highestValueOf(highest));
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int magnitude = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (magnitude << (SUB_BUCKET_BITS - 1)) + (int) (value >>> magnitude);
+    }
+
+    static long lowestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int magnitude = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        return (long) (index - (magnitude << (SUB_BUCKET_BITS - 1))) << magnitude;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int magnitude = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        return lowestValueOf(index) + (1L << magnitude) - 1;
+    }
+
+    private static long percentile(long[] counts, long total, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.acme.mytrader.metrics;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * Dumps the TradingMetrics report to the log (INFO) every period from its own daemon thread, e.g.
+ *
+ *   MetricsLogReporter reporter = new MetricsLogReporter(TradingMetrics.get(), Duration.ofSeconds(10));
+ *   reporter.start();
+ *
+ * The metrics are cumulative, they are not reset by the dump
+ * </pre>
+ */
+public class MetricsLogReporter {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsLogReporter.class.getName());
+
+    private final TradingMetrics metrics;
+    private final Duration period;
+    private ScheduledExecutorService reporterService;
+
+    public MetricsLogReporter(TradingMetrics metrics, Duration period) {
+        assert Objects.nonNull(metrics) && Objects.nonNull(period) && !period.isNegative() && !period.isZero();
+        this.metrics = metrics;
+        this.period = period;
+    }
+
+    public synchronized void start() {
+        if (reporterService == null) {
+            reporterService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-log-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long periodNanos = period.toNanos();
+            reporterService.scheduleAtFixedRate(this::report, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (reporterService != null) {
+            reporterService.shutdownNow();
+            reporterService = null;
+        }
+    }
+
+    void report() {
+        try {
+            LOGGER.info("Trading metrics" + System.lineSeparator() + metrics.report());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Not able to report the trading metrics", e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.acme.mytrader.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * JVM wide metrics of the hot path: price feed -> strategy -> execution (same as the SecurityRegistry there is one
+ * instance per JVM, the components record into it without being wired to it).
+ *
+ * Counters
+ * - ticks: price updates evaluated by the trading strategies
+ * - ordersScanned: resting orders of the ticking security the ticks were evaluated against
+ * - ordersFired: orders triggered by a tick and handed to the ExecutionService
+ * - listenerDispatches: price listener calls made by the feeds
+ * - executionsAcknowledged: orders acknowledged by the venue (BatchingExecutionService)
+ *
+ * Latencies (LatencyHistogram, nanoseconds)
+ * - livePrice: one client call of the feed (bulk or single security)
+ * - tickToTrigger: from the price update reaching the strategy to the order being triggered
+ * - triggerToExecution: from the order being triggered to the ExecutionService call returning
+ * - executionAck: from the order being queued in the BatchingExecutionService to the venue acknowledgement
+ *
+ * 1. The counters are LongAdder(s) and the histograms are lock free, recording never blocks the hot path and does not
+ * allocate; the components check isEnabled (one volatile read) and skip the System.nanoTime calls when it is off
+ * 2. Recording is on by default, -Dmytrader.metrics.enabled=false or setEnabled(false) (also through JMX) turns it off
+ * 3. registerMBean publishes the metrics through JMX, MetricsLogReporter dumps them to the log periodically
+ * </pre>
+ */
+public final class TradingMetrics implements TradingMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.acme.mytrader:type=TradingMetrics";
+
+    private static final Logger LOGGER = Logger.getLogger(TradingMetrics.class.getName());
+    private static final TradingMetrics INSTANCE = new TradingMetrics(
+            Boolean.parseBoolean(System.getProperty("mytrader.metrics.enabled", "true")));
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder ordersScanned = new LongAdder();
+    private final LongAdder ordersFired = new LongAdder();
+    private final LongAdder listenerDispatches = new LongAdder();
+    private final LongAdder executionsAcknowledged = new LongAdder();
+    private final LatencyHistogram livePriceLatency = new LatencyHistogram();
+    private final LatencyHistogram tickToTriggerLatency = new LatencyHistogram();
+    private final LatencyHistogram triggerToExecutionLatency = new LatencyHistogram();
+    private final LatencyHistogram executionAckLatency = new LatencyHistogram();
+    private volatile boolean enabled;
+
+    private TradingMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static TradingMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, a second call does nothing
+     */
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName());
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Not able to register the trading metrics MBean", e);
+        }
+    }
+
+    public static ObjectName objectName() throws MalformedObjectNameException {
+        return new ObjectName(OBJECT_NAME);
+    }
+
+    public void recordLivePrice(long nanos) {
+        livePriceLatency.record(nanos);
+    }
+
+    public void recordListenerDispatches(int count) {
+        listenerDispatches.add(count);
+    }
+
+    public void recordTick(int ordersScanned) {
+        ticks.increment();
+        this.ordersScanned.add(ordersScanned);
+    }
+
+    public void recordFired(long tickToTriggerNanos, long triggerToExecutionNanos) {
+        ordersFired.increment();
+        tickToTriggerLatency.record(tickToTriggerNanos);
+        triggerToExecutionLatency.record(triggerToExecutionNanos);
+    }
+
+    public void recordExecutionAck(long nanos) {
+        executionsAcknowledged.increment();
+        executionAckLatency.record(nanos);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    @Override
+    public long getOrdersScanned() {
+        return ordersScanned.sum();
+    }
+
+    @Override
+    public long getOrdersFired() {
+        return ordersFired.sum();
+    }
+
+    @Override
+    public long getListenerDispatches() {
+        return listenerDispatches.sum();
+    }
+
+    @Override
+    public long getExecutionsAcknowledged() {
+        return executionsAcknowledged.sum();
+    }
+
+    @Override
+    public LatencySnapshot getLivePriceLatency() {
+        return livePriceLatency.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getTickToTriggerLatency() {
+        return tickToTriggerLatency.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getTriggerToExecutionLatency() {
+        return triggerToExecutionLatency.snapshot();
+    }
+
+    @Override
+    public LatencySnapshot getExecutionAckLatency() {
+        return executionAckLatency.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        ticks.reset();
+        ordersScanned.reset();
+        ordersFired.reset();
+        listenerDispatches.reset();
+        executionsAcknowledged.reset();
+        livePriceLatency.reset();
+        tickToTriggerLatency.reset();
+        triggerToExecutionLatency.reset();
+        executionAckLatency.reset();
+    }
+
+    /**
+     * One line per metric, as dumped by the MetricsLogReporter
+     */
+    public String report() {
+        return "ticks=" + getTicks()
+                + " ordersScanned=" + getOrdersScanned()
+                + " ordersFired=" + getOrdersFired()
+                + " listenerDispatches=" + getListenerDispatches()
+                + " executionsAcknowledged=" + getExecutionsAcknowledged()
+                + System.lineSeparator() + "livePrice: " + getLivePriceLatency()
+                + System.lineSeparator() + "tickToTrigger: " + getTickToTriggerLatency()
+                + System.lineSeparator() + "triggerToExecution: " + getTriggerToExecutionLatency()
+                + System.lineSeparator() + "executionAck: " + getExecutionAckLatency();
+    }
+}
@@ -0,0 +1,31 @@
+package com.acme.mytrader.metrics;
+
+/**
+ * JMX view of the TradingMetrics, registered as com.acme.mytrader:type=TradingMetrics
+ */
+public interface TradingMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getTicks();
+
+    long getOrdersScanned();
+
+    long getOrdersFired();
+
+    long getListenerDispatches();
+
+    long getExecutionsAcknowledged();
+
+    LatencySnapshot getLivePriceLatency();
+
+    LatencySnapshot getTickToTriggerLatency();
+
+    LatencySnapshot getTriggerToExecutionLatency();
+
+    LatencySnapshot getExecutionAckLatency();
+
+    void reset();
+}
@@ -0,0 +1,18 @@
+package com.acme.mytrader.price;
+
+/**
+ * <pre>
+ * PriceListener of the primitive hot path, the security is given as its SecurityRegistry id.
+ * Price sources that know the id of the security call priceUpdate(int, double) directly, the String
+ * variant interns the name and delegates so the listener can still be used with any PriceSource.
+ * </pre>
+ */
+public interface SecurityPriceListener extends PriceListener {
+
+    void priceUpdate(int securityId, double price);
+
+    @Override
+    default void priceUpdate(String security, double price) {
+        priceUpdate(SecurityRegistry.intern(security), price);
+    }
+}
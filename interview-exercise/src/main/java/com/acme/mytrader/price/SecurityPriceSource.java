@@ -0,0 +1,13 @@
+package com.acme.mytrader.price;
+
+/**
+ * <pre>
+ * PriceSource that lets a listener subscribe to the price changes of a single security only.
+ * Listeners added through PriceSource.addPriceListener receive the changes of every security of the source and
+ * PriceSource.removePriceListener unsubscribes the listener from everything it is subscribed to.
+ * </pre>
+ */
+public interface SecurityPriceSource extends PriceSource {
+    void addPriceListener(String security, PriceListener listener);
+    void removePriceListener(String security, PriceListener listener);
+}
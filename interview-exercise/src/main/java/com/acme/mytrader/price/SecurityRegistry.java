@@ -0,0 +1,75 @@
+package com.acme.mytrader.price;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * JVM wide registry that interns the security names into dense int ids (0, 1, 2 ...) so that the hot path
+ * (price listeners, order book) works with primitive ids and arrays indexed by id instead of Strings and maps.
+ *
+ * 1. intern is thread safe, an id once given is never changed or reused
+ * 2. lookups (idOf, securityOf) do not allocate and do not lock
+ * </pre>
+ */
+public final class SecurityRegistry {
+
+    public static final int UNKNOWN = -1;
+
+    private static final Object LOCK = new Object();
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] securities = new String[64];
+    private static volatile int size;
+
+    private SecurityRegistry() {
+
+    }
+
+    public static int intern(String security) {
+        Integer id = IDS.get(security);
+        if (id != null) {
+            return id;
+        }
+        assert Objects.nonNull(security);
+        synchronized (LOCK) {
+            id = IDS.get(security);
+            if (id == null) {
+                id = size;
+                String[] names = securities;
+                if (id == names.length) {
+                    names = Arrays.copyOf(names, names.length << 1);
+                }
+                names[id] = security;
+                securities = names;
+                // the name is published before the id, readers that get the id always find the name
+                size = id + 1;
+                IDS.put(security, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * @return the id of the security or UNKNOWN when it was never interned
+     */
+    public static int idOf(String security) {
+        Integer id = IDS.get(security);
+        return id == null ? UNKNOWN : id;
+    }
+
+    public static String securityOf(int securityId) {
+        if (securityId < 0 || securityId >= size) {
+            throw new IllegalArgumentException("Unknown security id " + securityId);
+        }
+        return securities[securityId];
+    }
+
+    /**
+     * Number of interned securities, the ids are 0 until size - 1
+     */
+    public static int size() {
+        return size;
+    }
+}
@@ -0,0 +1,147 @@
+package com.acme.mytrader.price.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <pre>
+ * Prices of the securities monitored by a StockFeedObservable, indexed by SecurityRegistry id. Two primitive slots per
+ * security (no boxing, no map entry):
+ *
+ * - latest: the last polled price, served to the readers (strategies) without calling the StockClient
+ * - published: the last price dispatched to the listeners, a polled price is only published when it moved away from it
+ * by at least the tick size and the basis point threshold, so sub tick noise is not dispatched and a slow drift is
+ * published once it adds up
+ *
+ * The slots are kept in chunks of CHUNK_SIZE securities, a chunk is created when a security of its range is monitored
+ * and never moved, so a writer never updates a slot that is being copied. The ids are dense (SecurityRegistry) so the
+ * id is the slot, there is no hashing or probing.
+ *
+ * Writes of a security are expected from one thread at a time (the feed serializes the dispatch), the reads are lock
+ * free from any thread.
+ * </pre>
+ */
+final class LastPriceCache {
+
+    // NaN payload that is not produced by arithmetic (canonical NaN is 0x7ff8000000000000L), marks a security that is not monitored
+    private static final long NOT_MONITORED = 0x7ff8_dead_0000_0002L;
+    // the prices are decimal quotes held in doubles, a move of exactly one tick or exactly the threshold can come out a
+    // few ulps short (100.05 - 100.00 = 0.04999999999999716), the comparisons allow that relative error
+    private static final double TOLERANCE = 1e-9;
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[4];
+
+    /**
+     * Starts caching the security with the given baseline (NaN for none: the first polled price is published)
+     *
+     * @param replace true to replace the prices of a security that is already monitored
+     */
+    void monitor(int securityId, double baseline, boolean replace) {
+        AtomicLongArray chunk = chunkOrCreate(securityId);
+        int published = publishedSlot(securityId);
+        long baselineBits = Double.doubleToRawLongBits(baseline);
+        if (replace) {
+            chunk.set(published, baselineBits);
+        } else if (!chunk.compareAndSet(published, NOT_MONITORED, baselineBits)) {
+            return;
+        }
+        chunk.set(latestSlot(securityId), baselineBits);
+    }
+
+    /**
+     * Stops caching the security, its prices are dropped and a polled price is ignored until it is monitored again
+     */
+    void unmonitor(int securityId) {
+        AtomicLongArray chunk = chunkOf(securityId);
+        if (chunk != null) {
+            chunk.set(publishedSlot(securityId), NOT_MONITORED);
+            chunk.set(latestSlot(securityId), NOT_MONITORED);
+        }
+    }
+
+    /**
+     * Records a polled price
+     *
+     * @return true when the price is to be published: the security is monitored and the price moved away from the
+     * published one by at least the tick size and the threshold (in basis points of the published price)
+     */
+    boolean update(int securityId, double price, double tickSize, double thresholdBps) {
+        AtomicLongArray chunk = chunkOf(securityId);
+        if (chunk == null) {
+            return false;
+        }
+        int published = publishedSlot(securityId);
+        long publishedBits = chunk.get(published);
+        if (publishedBits == NOT_MONITORED) {
+            return false;
+        }
+        chunk.set(latestSlot(securityId), Double.doubleToRawLongBits(price));
+        if (!isSignificant(Double.longBitsToDouble(publishedBits), price, tickSize, thresholdBps)) {
+            return false;
+        }
+        chunk.set(published, Double.doubleToRawLongBits(price));
+        return true;
+    }
+
+    /**
+     * @return the last polled price of the security, its baseline before the first poll, NaN when it is not monitored
+     * or has no price yet
+     */
+    double lastPrice(int securityId) {
+        AtomicLongArray chunk = chunkOf(securityId);
+        if (chunk == null) {
+            return Double.NaN;
+        }
+        long bits = chunk.get(latestSlot(securityId));
+        return bits == NOT_MONITORED ? Double.NaN : Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * The basis point threshold is taken of the last published price, not of the polled one: a move away from 100.05
+     * needs 0.050025 at 5 bps, so going back to 100.00 is not significant
+     */
+    static boolean isSignificant(double published, double price, double tickSize, double thresholdBps) {
+        if (Double.isNaN(published)) {
+            return true;
+        }
+        double change = Math.abs(price - published);
+        return change > 0 && change >= tickSize * (1 - TOLERANCE)
+                && change * 10_000 >= thresholdBps * Math.abs(published) * (1 - TOLERANCE);
+    }
+
+    private AtomicLongArray chunkOf(int securityId) {
+        AtomicLongArray[] current = chunks;
+        int index = securityId >>> CHUNK_BITS;
+        return securityId < 0 || index >= current.length ? null : current[index];
+    }
+
+    private synchronized AtomicLongArray chunkOrCreate(int securityId) {
+        int index = securityId >>> CHUNK_BITS;
+        AtomicLongArray[] current = chunks;
+        if (index >= current.length) {
+            current = Arrays.copyOf(current, Math.max(index + 1, current.length << 1));
+        }
+        AtomicLongArray chunk = current[index];
+        if (chunk == null) {
+            chunk = new AtomicLongArray(CHUNK_SIZE << 1);
+            for (int i = 0; i < chunk.length(); i++) {
+                chunk.lazySet(i, NOT_MONITORED);
+            }
+            current[index] = chunk;
+        }
+        // the chunk is published with the array that holds it
+        chunks = current;
+        return chunk;
+    }
+
+    private static int latestSlot(int securityId) {
+        return (securityId & CHUNK_MASK) << 1;
+    }
+
+    private static int publishedSlot(int securityId) {
+        return ((securityId & CHUNK_MASK) << 1) + 1;
+    }
+}
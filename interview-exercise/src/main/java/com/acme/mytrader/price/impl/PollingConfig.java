@@ -0,0 +1,54 @@
+package com.acme.mytrader.price.impl;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Polling settings of a StockFeedObservable, e.g.
+ *
+ *   PollingConfig.builder()
+ *       .mode(PollingMode.VIRTUAL_THREAD_PER_SECURITY)
+ *       .period(Duration.ofMillis(500))
+ *       .securityPeriod("IBM", Duration.ofMillis(100))
+ *       .timeout(Duration.ofMillis(200))
+ *       .tickSize(0.01)
+ *       .changeThresholdBps(5)
+ *       .build();
+ *
+ * 1. period: time between two polls, securityPeriods overrides it per security (VIRTUAL_THREAD_PER_SECURITY only)
+ * 2. timeout: longest wait for one client call of a security, the poll is skipped when it is exceeded
+ * (VIRTUAL_THREAD_PER_SECURITY only, the shared scheduler waits for the bulk call)
+ * 3. maxBatchSize: most securities per bulk call (SHARED_SCHEDULER)
+ * 4. tickSize / changeThresholdBps: smallest change from the last published price (absolute / in basis points of that
+ * price) that is dispatched to the listeners, 0 (the default) dispatches every change
+ * </pre>
+ */
+@Value
+@Builder
+public class PollingConfig {
+    @NonNull
+    @Builder.Default
+    PollingMode mode = PollingMode.SHARED_SCHEDULER;
+    @NonNull
+    @Builder.Default
+    Duration period = Duration.ofSeconds(1);
+    @NonNull
+    @Builder.Default
+    Duration timeout = Duration.ofSeconds(1);
+    @Builder.Default
+    int maxBatchSize = 100;
+    double tickSize;
+    double changeThresholdBps;
+    @Singular
+    Map<String, Duration> securityPeriods;
+
+    public Duration periodOf(String security) {
+        return securityPeriods.getOrDefault(security, period);
+    }
+}
@@ -0,0 +1,16 @@
+package com.acme.mytrader.price.impl;
+
+/**
+ * How the StockFeedObservable polls the StockClient
+ */
+public enum PollingMode {
+    /**
+     * One task on the shared scheduler polls every monitored security with the bulk call, in batches
+     */
+    SHARED_SCHEDULER,
+    /**
+     * Every monitored security is polled by its own virtual thread with its own period, a slow or blocked client call
+     * of one security does not delay the others
+     */
+    VIRTUAL_THREAD_PER_SECURITY
+}
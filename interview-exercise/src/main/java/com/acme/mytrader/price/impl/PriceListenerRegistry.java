@@ -0,0 +1,174 @@
+package com.acme.mytrader.price.impl;
+
+import com.acme.mytrader.price.PriceListener;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <pre>
+ * Copy on write registry of the price listeners of a feed, the listeners of every security (wildcard) and the
+ * listeners of a single security indexed by the SecurityRegistry id.
+ *
+ * 1. The registrations are kept in an immutable snapshot, the dispatch reads the current snapshot (one volatile read)
+ * and iterates a listener array that is never modified, so it never takes a lock and never sees a half done change
+ * 2. add / remove copy the affected array into a new snapshot and swap it with a CAS, a concurrent change retries on
+ * the new snapshot, nothing is lost and no lock is taken
+ * 3. A listener removed during a dispatch may still get the price being dispatched, the next price is not delivered
+ *
+ * Registrations are expected to be rare compared to the ticks, every change copies the listener array of one security
+ * and the index of the per security arrays (one reference per security).
+ * </pre>
+ */
+public class PriceListenerRegistry {
+
+    private static final PriceListener[] NO_LISTENERS = new PriceListener[0];
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(NO_LISTENERS, new PriceListener[0][], 0));
+
+    /**
+     * Registers a listener for the price changes of every security
+     */
+    public void add(PriceListener listener) {
+        assert Objects.nonNull(listener);
+        Snapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current, current.withWildcard(append(current.wildcard, listener))));
+    }
+
+    /**
+     * Registers a listener for the price changes of the given security only
+     */
+    public void add(int securityId, PriceListener listener) {
+        assert securityId >= 0 && Objects.nonNull(listener);
+        Snapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current, current.withSecurity(securityId, append(current.listenersOf(securityId), listener))));
+    }
+
+    /**
+     * Removes one registration of the listener for every security
+     *
+     * @return true if the listener was registered
+     */
+    public boolean remove(PriceListener listener) {
+        Snapshot current;
+        PriceListener[] updated;
+        do {
+            current = snapshot.get();
+            updated = removeFrom(current.wildcard, listener);
+            if (updated == current.wildcard) {
+                return false;
+            }
+        } while (!snapshot.compareAndSet(current, current.withWildcard(updated)));
+        return true;
+    }
+
+    /**
+     * Removes one registration of the listener for the given security
+     *
+     * @return true if the listener was registered for the security
+     */
+    public boolean remove(int securityId, PriceListener listener) {
+        Snapshot current;
+        PriceListener[] listeners;
+        PriceListener[] updated;
+        do {
+            current = snapshot.get();
+            listeners = current.listenersOf(securityId);
+            updated = removeFrom(listeners, listener);
+            if (updated == listeners) {
+                return false;
+            }
+        } while (!snapshot.compareAndSet(current, current.withSecurity(securityId, updated)));
+        return true;
+    }
+
+    /**
+     * Removes one registration of the listener from each of the securities it is registered for
+     */
+    public void removeFromAllSecurities(PriceListener listener) {
+        int securityCount = snapshot.get().bySecurity.length;
+        for (int securityId = 0; securityId < securityCount; securityId++) {
+            remove(securityId, listener);
+        }
+    }
+
+    /**
+     * @return the listeners of every security, the array must not be modified
+     */
+    public PriceListener[] wildcardListeners() {
+        return snapshot.get().wildcard;
+    }
+
+    /**
+     * @return the listeners of the given security only, the array must not be modified
+     */
+    public PriceListener[] listenersOf(int securityId) {
+        return snapshot.get().listenersOf(securityId);
+    }
+
+    /**
+     * @return true when no listener is registered, neither for every security nor for a single one
+     */
+    public boolean isEmpty() {
+        return snapshot.get().size == 0;
+    }
+
+    private static PriceListener[] append(PriceListener[] listeners, PriceListener listener) {
+        PriceListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        return updated;
+    }
+
+    /**
+     * @return the array without the first occurrence of the listener, the same array when it is not there
+     */
+    private static PriceListener[] removeFrom(PriceListener[] listeners, PriceListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                if (listeners.length == 1) {
+                    return NO_LISTENERS;
+                }
+                PriceListener[] updated = new PriceListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+                return updated;
+            }
+        }
+        return listeners;
+    }
+
+    private static final class Snapshot {
+        private final PriceListener[] wildcard;
+        private final PriceListener[][] bySecurity;
+        private final int size;
+
+        private Snapshot(PriceListener[] wildcard, PriceListener[][] bySecurity, int size) {
+            this.wildcard = wildcard;
+            this.bySecurity = bySecurity;
+            this.size = size;
+        }
+
+        private PriceListener[] listenersOf(int securityId) {
+            if (securityId < 0 || securityId >= bySecurity.length || bySecurity[securityId] == null) {
+                return NO_LISTENERS;
+            }
+            return bySecurity[securityId];
+        }
+
+        private Snapshot withWildcard(PriceListener[] listeners) {
+            return new Snapshot(listeners, bySecurity, size - wildcard.length + listeners.length);
+        }
+
+        private Snapshot withSecurity(int securityId, PriceListener[] listeners) {
+            int removed = listenersOf(securityId).length;
+            PriceListener[][] updated = Arrays.copyOf(bySecurity, Math.max(bySecurity.length, securityId + 1));
+            updated[securityId] = listeners;
+            return new Snapshot(wildcard, updated, size - removed + listeners.length);
+        }
+    }
+}
@@ -2,100 +2,398 @@ package com.acme.mytrader.price.impl;
 
 import com.acme.mytrader.client.StockClient;
 import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.metrics.TradingMetrics;
 import com.acme.mytrader.price.PriceListener;
 import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityPriceSource;
+import com.acme.mytrader.price.SecurityRegistry;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * <pre>
- * This is the singleton Observable class and it privies the double lock check to ensure that not more than one instance is available.
- * It has ScheduledExecutorService, ScheduledFuture to fetch the price change by invoking the Stock client
+ * This is the Observable class, one instance watches any number of securities and keeps polling them until it is shut down.
+ * It uses one ScheduledFuture on the shared ScheduledExecutorService (one poller thread for all the feeds of the JVM,
+ * created when the first feed starts) to fetch the price of every monitored security by invoking the bulk call of the
+ * Stock client
  * Stock client will be mocked to provide the data and there is no implementation for the same
- * Thread safe is given the list collection however there is a better way of doing this using stamped lock however
- * the focus is to get the basis flow and approach hence it is not used
- * Note: Just to make this flow work for every 1 sec the polling will happen by invoking the StockClient
- *
- * When the first listener it registered, it will start the monitory to fetch the price change
- *
+ * Note: the polling happens every PollingConfig period (1 sec by default) by invoking the StockClient
  *
+ * 1. A security is monitored either explicitly (monitor) or as soon as a listener subscribes to it. A security that was
+ * not monitored explicitly is unmonitored (no longer polled, no last price) when its last listener is removed
+ * 2. The last polled and the last published price of every security are kept in a primitive LastPriceCache, a polled
+ * price is dispatched when it moved away from the published one by at least the PollingConfig tick size and basis point
+ * threshold (any change by default). getLastPrice serves the cached prices without calling the client
+ * 3. Listeners added with addPriceListener(listener) get the changes of every monitored security, listeners added with
+ * addPriceListener(security, listener) get the changes of that security only
+ * 4. Listeners stay registered until they are removed through removePriceListener
+ * 5. The polling starts when the first listener is registered (or start is called) and stops when the last one is
+ * removed (or shutDown is called), start and shutDown are idempotent and a stopped feed starts again with the next
+ * listener. A feed that is created but not started costs no thread and no scheduled task, whatever the number of
+ * listeners there is one scheduled task (SHARED_SCHEDULER) or one poller per monitored security
+ * (VIRTUAL_THREAD_PER_SECURITY). A failing client call or listener is logged and does not stop the polling of the other
+ * securities
+ * 6. On every poll the monitored securities are fetched in batches of at most maxBatchSize securities per client call,
+ * a security is monitored once whatever the number of listeners so it is requested only once per poll
+ * 7. SecurityPriceListener(s) are notified with the SecurityRegistry id of the security
+ * 8. The listeners are kept in a copy on write PriceListenerRegistry, the dispatch iterates a snapshot and never blocks
+ * on (or is broken by) a listener added or removed concurrently
+ * 9. With PollingMode.VIRTUAL_THREAD_PER_SECURITY every monitored security is polled by its own virtual thread with its
+ * own period and a timeout per client call, so a blocked call only delays its own security. The fetches run in
+ * parallel but the dispatch is serialized, the listeners are still notified by one thread at a time
+ * 10. The latency of every client call and the number of listener calls are recorded in the TradingMetrics
  * </pre>
  */
 
-public class StockFeedObservable implements PriceSource {
+public class StockFeedObservable implements SecurityPriceSource {
+
+    private static final Logger LOGGER = Logger.getLogger(StockFeedObservable.class.getName());
 
-    private static volatile StockFeedObservable stockFeedReceiver = null;
     private final StockClient client;
-    private final Stock stockToMonitor;
-    private final ScheduledExecutorService timerService = Executors.newSingleThreadScheduledExecutor();
+    private final ScheduledExecutorService timerService;
+    private final PollingConfig config;
+    private final int maxBatchSize;
+    private final Set<String> monitoredSecurities = ConcurrentHashMap.newKeySet();
+    private final Set<String> explicitlyMonitored = ConcurrentHashMap.newKeySet();
+    private final LastPriceCache lastPrices = new LastPriceCache();
+    private final PriceListenerRegistry listenerRegistry = new PriceListenerRegistry();
+    private final Map<String, Thread> securityPollers = new ConcurrentHashMap<>();
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private final TradingMetrics metrics = TradingMetrics.get();
+    private volatile ExecutorService fetchExecutor;
+    private volatile boolean pollingSecurities;
     ScheduledFuture<?> scheduledFuture = null;
-    private List<PriceListener> priceChangeListeners = Collections.synchronizedList(new ArrayList<PriceListener>());
-    private Integer period = 1;
 
-    private StockFeedObservable(StockClient client, Stock stockToMonitor) {
-        assert Objects.nonNull(client) && Objects.nonNull(stockToMonitor);
+    public StockFeedObservable(StockClient client) {
+        this(client, PollingConfig.builder().build());
+    }
+
+    public StockFeedObservable(StockClient client, int maxBatchSize) {
+        this(client, PollingConfig.builder().maxBatchSize(maxBatchSize).build());
+    }
+
+    public StockFeedObservable(StockClient client, PollingConfig config) {
+        this(client, (ScheduledExecutorService) null, config);
+    }
+
+    StockFeedObservable(StockClient client, ScheduledExecutorService timerService, int maxBatchSize) {
+        this(client, timerService, PollingConfig.builder().maxBatchSize(maxBatchSize).build());
+    }
+
+    /**
+     * @param timerService scheduler of the SHARED_SCHEDULER polls, null for the shared poller thread of the JVM
+     */
+    StockFeedObservable(StockClient client, ScheduledExecutorService timerService, PollingConfig config) {
+        assert Objects.nonNull(client) && Objects.nonNull(config) && config.getMaxBatchSize() > 0
+                && config.getTickSize() >= 0 && config.getChangeThresholdBps() >= 0;
         this.client = client;
-        this.stockToMonitor = stockToMonitor;
+        this.timerService = timerService;
+        this.config = config;
+        this.maxBatchSize = config.getMaxBatchSize();
     }
 
+    /**
+     * Creates a feed that monitors the given stock, the price of the stock is the baseline for the first change
+     */
     public static PriceSource getPriceSource(StockClient client, Stock stockToMonitor) {
-        if (stockFeedReceiver == null) {
-            synchronized (StockFeedObservable.class) {
-                if (stockFeedReceiver == null) {
-                    stockFeedReceiver = new StockFeedObservable(client, stockToMonitor);
-                }
-            }
+        StockFeedObservable stockFeed = new StockFeedObservable(client);
+        stockFeed.monitor(stockToMonitor);
+        return stockFeed;
+    }
+
+    public void monitor(Stock stock) {
+        assert Objects.nonNull(stock);
+        monitor(stock.getSecurity(), stock.getPrice(), true, true);
+    }
+
+    public void monitor(String security) {
+        assert Objects.nonNull(security);
+        monitor(security, Double.NaN, false, true);
+    }
+
+    /**
+     * @param explicit false when the security is monitored for its listeners only, it is then unmonitored with the last
+     * one
+     */
+    private synchronized void monitor(String security, double baseline, boolean replace, boolean explicit) {
+        if (explicit) {
+            this.explicitlyMonitored.add(security);
         }
-        return stockFeedReceiver;
+        this.lastPrices.monitor(SecurityRegistry.intern(security), baseline, replace);
+        this.monitoredSecurities.add(security);
+        startSecurityPollerIfPolling(security);
+    }
+
+    /**
+     * @return the last polled price of the security (its baseline before the first poll), NaN when it is not monitored
+     * or has no price yet; the StockClient is not called
+     */
+    public double getLastPrice(String security) {
+        return getLastPrice(SecurityRegistry.idOf(security));
+    }
+
+    public double getLastPrice(int securityId) {
+        return this.lastPrices.lastPrice(securityId);
     }
 
     @Override
     public void addPriceListener(PriceListener listener) {
-        this.priceChangeListeners.add(listener);
-        monitor();
+        this.listenerRegistry.add(listener);
+        start();
+    }
+
+    @Override
+    public void addPriceListener(String security, PriceListener listener) {
+        assert Objects.nonNull(security);
+        // under the lock so a concurrent removal of the last listener does not unmonitor the security after this one
+        synchronized (this) {
+            monitor(security, Double.NaN, false, false);
+            this.listenerRegistry.add(SecurityRegistry.intern(security), listener);
+        }
+        start();
     }
 
     @Override
     public void removePriceListener(PriceListener listener) {
-        this.priceChangeListeners.remove(listener);
+        this.listenerRegistry.remove(listener);
+        this.listenerRegistry.removeFromAllSecurities(listener);
+        monitoredSecurities.forEach(this::unmonitorIfNoListener);
+        shutDownIfNoListener();
     }
 
-    public void shutDown() {
-        scheduledFuture.cancel(true);
-        timerService.shutdown();
+    @Override
+    public void removePriceListener(String security, PriceListener listener) {
+        int securityId = SecurityRegistry.idOf(security);
+        if (securityId != SecurityRegistry.UNKNOWN && this.listenerRegistry.remove(securityId, listener)) {
+            unmonitorIfNoListener(security);
+            shutDownIfNoListener();
+        }
     }
 
+    /**
+     * Starts polling the monitored securities, a running feed is left as it is
+     */
+    public synchronized void start() {
+        if (config.getMode() == PollingMode.VIRTUAL_THREAD_PER_SECURITY) {
+            if (!pollingSecurities) {
+                pollingSecurities = true;
+                fetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                monitoredSecurities.forEach(this::startSecurityPoller);
+            }
+        } else if (scheduledFuture == null) {
+            long period = config.getPeriod().toNanos();
+            ScheduledExecutorService timer = timerService != null ? timerService : SharedTimer.SERVICE;
+            scheduledFuture = timer.scheduleAtFixedRate(this::getLivePrices, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
 
-    private void monitor() {
-        scheduledFuture = timerService.scheduleAtFixedRate(this::getLivePrice, 0, period, TimeUnit.SECONDS);
+    public synchronized boolean isRunning() {
+        return scheduledFuture != null || pollingSecurities;
     }
 
-    private void getLivePrice() {
-        String security = stockToMonitor.getSecurity();
-        Double stockPrice = stockToMonitor.getPrice();
-        Stock liveStock = this.client.getLiveStockPrice(security);
-        assert Objects.nonNull(liveStock);
-        Double liveStockPrice = liveStock.getPrice();
-        if (liveStockPrice.compareTo(stockPrice) != 0) {
-            notifyObservers(security, liveStockPrice);
+    /**
+     * Stops polling, the listeners and the monitored securities are kept, a stopped feed is left as it is
+     */
+    public synchronized void shutDown() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+        if (pollingSecurities) {
+            pollingSecurities = false;
+            securityPollers.values().forEach(Thread::interrupt);
+            securityPollers.clear();
+            fetchExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * The registry is checked under the lock: a listener added concurrently either is seen here or starts the feed again
+     * after this method returns
+     */
+    private synchronized void shutDownIfNoListener() {
+        if (listenerRegistry.isEmpty()) {
             shutDown();
         }
     }
 
-    private void notifyObservers(String security, Double liveStockPrice) {
-        this.priceChangeListeners.forEach(priceListener -> notifyAndRemoveListener(security, liveStockPrice, priceListener));
+    /**
+     * Stops polling a security that was monitored for its listeners only once the last one is removed, the poller of
+     * the security is stopped and it is left out of the next bulk polls
+     */
+    private synchronized void unmonitorIfNoListener(String security) {
+        int securityId = SecurityRegistry.idOf(security);
+        if (explicitlyMonitored.contains(security) || listenerRegistry.listenersOf(securityId).length > 0
+                || !monitoredSecurities.remove(security)) {
+            return;
+        }
+        Thread poller = securityPollers.remove(security);
+        if (poller != null) {
+            poller.interrupt();
+        }
+        lastPrices.unmonitor(securityId);
     }
 
-    private void notifyAndRemoveListener(String security, Double liveStockPrice, PriceListener priceListener) {
-        priceListener.priceUpdate(security, liveStockPrice);
-        this.priceChangeListeners.remove(priceListener);
+    private void startSecurityPollerIfPolling(String security) {
+        if (pollingSecurities) {
+            synchronized (this) {
+                if (pollingSecurities) {
+                    startSecurityPoller(security);
+                }
+            }
+        }
+    }
+
+    private void startSecurityPoller(String security) {
+        securityPollers.computeIfAbsent(security, s -> Thread.ofVirtual()
+                .name("stock-feed-" + s)
+                .start(() -> pollSecurity(s)));
+    }
+
+    /**
+     * Poll loop of one security (VIRTUAL_THREAD_PER_SECURITY), the first poll is after one period like the shared
+     * scheduler, a poll that is late is done at once but the missed ones are not caught up
+     */
+    private void pollSecurity(String security) {
+        long period = config.periodOf(security).toNanos();
+        long nextPoll = System.nanoTime() + period;
+        try {
+            while (pollingSecurities && monitoredSecurities.contains(security)) {
+                TimeUnit.NANOSECONDS.sleep(nextPoll - System.nanoTime());
+                Stock liveStock = fetch(security);
+                if (Objects.nonNull(liveStock)) {
+                    dispatchLock.lock();
+                    try {
+                        publishIfChanged(security, liveStock.getPrice());
+                    } finally {
+                        dispatchLock.unlock();
+                    }
+                }
+                nextPoll = Math.max(nextPoll + period, System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            // shut down or unmonitored
+        }
+    }
+
+    private Stock fetch(String security) throws InterruptedException {
+        Future<Stock> call;
+        try {
+            call = fetchExecutor.submit(() -> client.getLiveStockPrice(security));
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        boolean recording = metrics.isEnabled();
+        long start = recording ? System.nanoTime() : 0L;
+        try {
+            Stock liveStock = call.get(config.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            if (recording) {
+                metrics.recordLivePrice(System.nanoTime() - start);
+            }
+            return liveStock;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            LOGGER.warning("No live stock price of " + security + " within " + config.getTimeout());
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.WARNING, "Not able to get the live stock price of " + security, e.getCause());
+        }
+        return null;
+    }
+
+    void getLivePrices() {
+        List<String> batch = new ArrayList<>(Math.min(maxBatchSize, monitoredSecurities.size()));
+        for (String security : monitoredSecurities) {
+            batch.add(security);
+            if (batch.size() == maxBatchSize) {
+                getLivePrices(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            getLivePrices(batch);
+        }
     }
 
+    private void getLivePrices(Collection<String> securities) {
+        Map<String, Stock> liveStocks;
+        boolean recording = metrics.isEnabled();
+        long start = recording ? System.nanoTime() : 0L;
+        try {
+            liveStocks = this.client.getLiveStockPrices(securities);
+            if (recording) {
+                metrics.recordLivePrice(System.nanoTime() - start);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Not able to get live stock prices of " + securities, e);
+            return;
+        }
+        if (Objects.isNull(liveStocks)) {
+            return;
+        }
+        for (Map.Entry<String, Stock> liveStock : liveStocks.entrySet()) {
+            if (Objects.nonNull(liveStock.getValue())) {
+                publishIfChanged(liveStock.getKey(), liveStock.getValue().getPrice());
+            }
+        }
+    }
+
+    private void publishIfChanged(String security, double liveStockPrice) {
+        int securityId = SecurityRegistry.idOf(security);
+        // false when the client quotes a security that is not monitored
+        if (this.lastPrices.update(securityId, liveStockPrice, config.getTickSize(), config.getChangeThresholdBps())) {
+            notifyObservers(security, securityId, liveStockPrice);
+        }
+    }
+
+    private void notifyObservers(String security, int securityId, double liveStockPrice) {
+        notifyListeners(this.listenerRegistry.listenersOf(securityId), security, securityId, liveStockPrice);
+        notifyListeners(this.listenerRegistry.wildcardListeners(), security, securityId, liveStockPrice);
+    }
+
+    private void notifyListeners(PriceListener[] listeners, String security, int securityId, double liveStockPrice) {
+        for (PriceListener priceListener : listeners) {
+            try {
+                if (priceListener instanceof SecurityPriceListener) {
+                    ((SecurityPriceListener) priceListener).priceUpdate(securityId, liveStockPrice);
+                } else {
+                    priceListener.priceUpdate(security, liveStockPrice);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Price listener failed on the update of " + security, e);
+            }
+        }
+        if (listeners.length > 0 && metrics.isEnabled()) {
+            metrics.recordListenerDispatches(listeners.length);
+        }
+    }
+
+    /**
+     * Poller thread shared by the feeds of the JVM, it is created when the first feed starts polling
+     */
+    private static final class SharedTimer {
+        private static final ScheduledExecutorService SERVICE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-feed-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 }
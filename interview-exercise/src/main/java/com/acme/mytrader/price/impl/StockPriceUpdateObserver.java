@@ -1,8 +1,7 @@
 package com.acme.mytrader.price.impl;
 
-import com.acme.mytrader.entity.Stock;
-import com.acme.mytrader.price.PriceListener;
 import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceListener;
 import com.acme.mytrader.strategy.TradingStrategy;
 
 import java.util.Objects;
@@ -12,6 +11,8 @@ import java.util.Objects;
  * This class is an Observer and hence it needs to be registered with Observable, as soon as it registers,
  * the price source starts the monitor the list of products and updates the price change, this class will delegate to the
  * TradingStrategy class which stores the orders the executes based on the condition
+ * It is a SecurityPriceListener, the price update is handed over as SecurityRegistry id and primitive price
+ * (no Stock is created per tick)
  *
  *
  * Note: The unit test for this class is not done by mocking the same in the Observable however end to end test will cover the actual test
@@ -20,7 +21,7 @@ import java.util.Objects;
  * </pre>
  */
 
-public class StockPriceUpdateObserver implements PriceListener {
+public class StockPriceUpdateObserver implements SecurityPriceListener {
 
     private final PriceSource priceSource;
     private final TradingStrategy tradingStrategy;
@@ -33,11 +34,8 @@ public class StockPriceUpdateObserver implements PriceListener {
     }
 
     @Override
-    public void priceUpdate(String security, double price) {
-        tradingStrategy.priceUpdate(Stock.builder()
-                .security(security)
-                .price(price)
-                .build());
+    public void priceUpdate(int securityId, double price) {
+        tradingStrategy.priceUpdate(securityId, price);
     }
 
     private void registerToPriceSource() {
@@ -0,0 +1,61 @@
+package com.acme.mytrader.price.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <pre>
+ * Layout of a tick journal directory
+ *
+ * 1. securities.txt: the securities of the journal, one per line, the line number (from 0) is the journal security id.
+ * SecurityRegistry ids are only valid in the running JVM, so the records refer to the journal id
+ * 2. ticks-00000000.journal, ticks-00000001.journal, ...: the segments, each one a fixed size file of fixed width
+ * little endian records:
+ *
+ *   offset 0  int    journal security id + 1 (0 = record not written yet, the end of the journal)
+ *   offset 4  long   timestamp, nanoseconds since the epoch
+ *   offset 12 double price
+ *
+ * The security id is written last, a reader never sees a record whose timestamp / price are not written.
+ * </pre>
+ */
+final class JournalFormat {
+
+    static final int RECORD_SIZE = 20;
+    static final int TIMESTAMP_OFFSET = 4;
+    static final int PRICE_OFFSET = 12;
+    static final String SECURITIES_FILE = "securities.txt";
+
+    private static final String SEGMENT_PREFIX = "ticks-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private JournalFormat() {
+    }
+
+    static Path segmentPath(Path directory, int segmentIndex) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * @return the segments of the journal in write order
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalFormat::isSegment).sorted().collect(Collectors.toList());
+        }
+    }
+
+    static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+}
@@ -0,0 +1,15 @@
+package com.acme.mytrader.price.journal;
+
+/**
+ * Pace at which the ReplayPriceSource hands the recorded ticks over to its listeners
+ */
+public enum ReplayMode {
+    /**
+     * The ticks are delivered with the time gaps they were recorded with
+     */
+    RECORDED_SPEED,
+    /**
+     * The ticks are delivered one after the other without waiting, e.g. to load test the strategy
+     */
+    AS_FAST_AS_POSSIBLE
+}
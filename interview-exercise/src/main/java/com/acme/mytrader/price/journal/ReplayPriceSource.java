@@ -0,0 +1,128 @@
+package com.acme.mytrader.price.journal;
+
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.price.impl.PriceListenerRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * PriceSource that streams a tick journal (see TickJournalWriter) back to its listeners, to reproduce an incident or
+ * to load test the strategy with recorded ticks without a live feed
+ *
+ * 1. Every recorded tick is delivered, in journal order, there is no change detection (the journal has the ticks as
+ * they were published)
+ * 2. RECORDED_SPEED keeps the time gaps between the ticks, AS_FAST_AS_POSSIBLE delivers them without waiting
+ * 3. replay() runs on the calling thread, start() on a "tick-replay" daemon thread
+ * 4. SecurityPriceListener(s) are notified with the SecurityRegistry id, nothing is allocated per tick
+ * </pre>
+ */
+public class ReplayPriceSource implements PriceSource {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplayPriceSource.class.getName());
+
+    private final Path directory;
+    private final ReplayMode mode;
+    private final PriceListenerRegistry listenerRegistry = new PriceListenerRegistry();
+
+    public ReplayPriceSource(Path directory, ReplayMode mode) {
+        assert Objects.nonNull(directory) && Objects.nonNull(mode);
+        this.directory = directory;
+        this.mode = mode;
+    }
+
+    @Override
+    public void addPriceListener(PriceListener listener) {
+        listenerRegistry.add(listener);
+    }
+
+    @Override
+    public void removePriceListener(PriceListener listener) {
+        listenerRegistry.remove(listener);
+    }
+
+    /**
+     * Replays the whole journal on the calling thread
+     *
+     * @return number of ticks replayed
+     */
+    public long replay() throws IOException {
+        return new TickJournalReader(directory).read(new Replay());
+    }
+
+    /**
+     * Replays the whole journal on a new daemon thread
+     *
+     * @return completed with the number of ticks replayed
+     */
+    public CompletableFuture<Long> start() {
+        CompletableFuture<Long> replayed = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                replayed.complete(replay());
+            } catch (IOException e) {
+                replayed.completeExceptionally(new UncheckedIOException("Not able to replay the journal " + directory, e));
+            } catch (RuntimeException e) {
+                replayed.completeExceptionally(e);
+            }
+        }, "tick-replay");
+        thread.setDaemon(true);
+        thread.start();
+        return replayed;
+    }
+
+    private void deliver(int securityId, double price) {
+        for (PriceListener listener : listenerRegistry.wildcardListeners()) {
+            try {
+                if (listener instanceof SecurityPriceListener) {
+                    ((SecurityPriceListener) listener).priceUpdate(securityId, price);
+                } else {
+                    listener.priceUpdate(SecurityRegistry.securityOf(securityId), price);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Price listener failed on the replay of security id " + securityId, e);
+            }
+        }
+    }
+
+    /**
+     * One replay run, the first tick is delivered at once and the next ones relative to it
+     */
+    private class Replay implements TickJournalReader.TickHandler {
+        private long firstTimestamp;
+        private long startNanos;
+        private boolean started;
+
+        @Override
+        public void onTick(int securityId, long timestamp, double price) {
+            if (mode == ReplayMode.RECORDED_SPEED) {
+                awaitRecordedTime(timestamp);
+            }
+            deliver(securityId, price);
+        }
+
+        private void awaitRecordedTime(long timestamp) {
+            if (!started) {
+                started = true;
+                firstTimestamp = timestamp;
+                startNanos = System.nanoTime();
+                return;
+            }
+            long due = startNanos + (timestamp - firstTimestamp);
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
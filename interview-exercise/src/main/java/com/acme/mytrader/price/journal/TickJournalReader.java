@@ -0,0 +1,97 @@
+package com.acme.mytrader.price.journal;
+
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <pre>
+ * Sequential reader of a tick journal written by TickJournalWriter
+ *
+ * The segments are mapped read only one after the other and every record is handed over to the TickHandler with the
+ * SecurityRegistry id of the security, the reading stops at the first record that is not written.
+ * Nothing is allocated per tick.
+ * </pre>
+ */
+public class TickJournalReader {
+
+    private final Path directory;
+    private int[] securityIds = new int[0];
+    private int securityCount;
+
+    public TickJournalReader(Path directory) {
+        assert Objects.nonNull(directory);
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the journal from the first record
+     *
+     * @return number of ticks read
+     */
+    public long read(TickHandler handler) throws IOException {
+        long ticks = 0;
+        for (Path segment : JournalFormat.segments(directory)) {
+            MappedByteBuffer mapped = map(segment);
+            int end = mapped.capacity() - JournalFormat.RECORD_SIZE;
+            for (int position = 0; position <= end; position += JournalFormat.RECORD_SIZE) {
+                int journalId = mapped.getInt(position) - 1;
+                if (journalId < 0) {
+                    return ticks;
+                }
+                handler.onTick(securityIdOf(journalId), mapped.getLong(position + JournalFormat.TIMESTAMP_OFFSET),
+                        mapped.getDouble(position + JournalFormat.PRICE_OFFSET));
+                ticks++;
+            }
+        }
+        return ticks;
+    }
+
+    private int securityIdOf(int journalId) throws IOException {
+        if (journalId >= securityCount) {
+            loadSecurities();
+            if (journalId >= securityCount) {
+                throw new IOException("Unknown security " + journalId + " in the journal " + directory);
+            }
+        }
+        return securityIds[journalId];
+    }
+
+    /**
+     * The writer appends the new securities while the ticks are written, the table is reloaded when an unknown journal
+     * id is read
+     */
+    private void loadSecurities() throws IOException {
+        List<String> securities = Files.readAllLines(directory.resolve(JournalFormat.SECURITIES_FILE), StandardCharsets.UTF_8);
+        securityIds = Arrays.copyOf(securityIds, securities.size());
+        for (int journalId = securityCount; journalId < securities.size(); journalId++) {
+            securityIds[journalId] = SecurityRegistry.intern(securities.get(journalId));
+        }
+        securityCount = securities.size();
+    }
+
+    private static MappedByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return mapped;
+        }
+    }
+
+    /**
+     * Callback of the reader, one call per tick in journal order
+     */
+    public interface TickHandler {
+        void onTick(int securityId, long timestamp, double price);
+    }
+}
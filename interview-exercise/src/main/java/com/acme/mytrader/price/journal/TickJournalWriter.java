@@ -0,0 +1,201 @@
+package com.acme.mytrader.price.journal;
+
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * <pre>
+ * Append only tick journal written through memory mapped segments (see JournalFormat for the layout)
+ *
+ * 1. It is a SecurityPriceListener, registered with a PriceSource it records every tick it is notified of
+ * 2. A record is a few puts into the mapped segment, nothing is allocated and there is no system call per tick, the
+ * operating system writes the pages back (flush forces it)
+ * 3. When a segment is full the next one is created and mapped (segment rolling), the segments have a fixed size
+ * 4. A journal directory that already has ticks is continued after its last record
+ *
+ * Note: this class is not thread safe, it must be notified by a single thread (e.g. the poller of the feed)
+ * </pre>
+ */
+public class TickJournalWriter implements SecurityPriceListener, Closeable {
+
+    private static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final LongSupplier clock;
+    private int[] journalIds = new int[0];
+    private int securityCount;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private long recordCount;
+
+    public TickJournalWriter(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    public TickJournalWriter(Path directory, int recordsPerSegment) throws IOException {
+        this(directory, recordsPerSegment, epochNanos());
+    }
+
+    TickJournalWriter(Path directory, int recordsPerSegment, LongSupplier clock) throws IOException {
+        assert Objects.nonNull(directory) && Objects.nonNull(clock);
+        assert recordsPerSegment > 0 && (long) recordsPerSegment * JournalFormat.RECORD_SIZE <= Integer.MAX_VALUE;
+        this.directory = Files.createDirectories(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        this.clock = clock;
+        loadSecurities();
+        openLastSegment();
+    }
+
+    @Override
+    public void priceUpdate(int securityId, double price) {
+        append(securityId, clock.getAsLong(), price);
+    }
+
+    /**
+     * Appends a tick with the given timestamp (nanoseconds since the epoch)
+     */
+    public void append(int securityId, long timestamp, double price) {
+        int journalId = journalIdOf(securityId);
+        if (!segment.hasRemaining()) {
+            roll();
+        }
+        int position = segment.position();
+        segment.putLong(position + JournalFormat.TIMESTAMP_OFFSET, timestamp);
+        segment.putDouble(position + JournalFormat.PRICE_OFFSET, price);
+        segment.putInt(position, journalId + 1);
+        segment.position(position + JournalFormat.RECORD_SIZE);
+        recordCount++;
+    }
+
+    /**
+     * Number of ticks appended by this writer
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * Forces the written records of the current segment to the storage device
+     */
+    public void flush() {
+        segment.force();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private int journalIdOf(int securityId) {
+        ensureCapacity(securityId);
+        int journalId = journalIds[securityId];
+        if (journalId < 0) {
+            journalId = addSecurity(SecurityRegistry.securityOf(securityId));
+        }
+        return journalId;
+    }
+
+    private int addSecurity(String security) {
+        try {
+            // written before the first record of the security, a reader always knows the securities it reads
+            Files.write(directory.resolve(JournalFormat.SECURITIES_FILE), (security + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Not able to add " + security + " to the journal " + directory, e);
+        }
+        return register(security);
+    }
+
+    private int register(String security) {
+        int securityId = SecurityRegistry.intern(security);
+        ensureCapacity(securityId);
+        journalIds[securityId] = securityCount;
+        return securityCount++;
+    }
+
+    private void ensureCapacity(int securityId) {
+        if (securityId >= journalIds.length) {
+            int length = journalIds.length;
+            journalIds = Arrays.copyOf(journalIds, Math.max(securityId + 1, length << 1));
+            Arrays.fill(journalIds, length, journalIds.length, -1);
+        }
+    }
+
+    private void loadSecurities() throws IOException {
+        Path securities = directory.resolve(JournalFormat.SECURITIES_FILE);
+        if (Files.exists(securities)) {
+            for (String security : Files.readAllLines(securities, StandardCharsets.UTF_8)) {
+                register(security);
+            }
+        }
+    }
+
+    private void openLastSegment() throws IOException {
+        List<Path> segments = JournalFormat.segments(directory);
+        segmentIndex = segments.isEmpty() ? 0 : JournalFormat.segmentIndex(segments.get(segments.size() - 1));
+        segment = map(segmentIndex);
+        segment.position(endOfRecords(segment));
+    }
+
+    private void roll() {
+        segment.force();
+        try {
+            segment = map(++segmentIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Not able to roll the journal " + directory + " to segment " + segmentIndex, e);
+        }
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(JournalFormat.segmentPath(directory, index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid once the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * JournalFormat.RECORD_SIZE);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return mapped;
+        }
+    }
+
+    /**
+     * Records are written one after the other, binary search of the first record that is not written
+     */
+    private static int endOfRecords(MappedByteBuffer mapped) {
+        int low = 0;
+        int high = mapped.capacity() / JournalFormat.RECORD_SIZE;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mapped.getInt(mid * JournalFormat.RECORD_SIZE) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low * JournalFormat.RECORD_SIZE;
+    }
+
+    private static LongSupplier epochNanos() {
+        long offset = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+        return () -> offset + System.nanoTime();
+    }
+}
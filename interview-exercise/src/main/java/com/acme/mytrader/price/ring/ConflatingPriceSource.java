@@ -0,0 +1,165 @@
+package com.acme.mytrader.price.ring;
+
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * Opt-in conflation stage between a PriceSource and its listeners, the listeners only see the latest price of a security.
+ *
+ *   StockFeedObservable -> ConflatingPriceSource -> (latest price slots, consumer thread) -> TradingStrategy
+ *
+ * 1. There is one slot per security (LatestPriceSlots), a tick that arrives while the previous price of the security
+ * is still waiting for the consumer overwrites it in place, the stale price is never evaluated
+ * 2. The consumer thread hands the newest price of every updated security to the listeners, so during bursts the
+ * listeners get at most one price per security per round however many ticks were received
+ * 3. The ticks received, conflated (overwritten before delivery) and delivered are counted
+ * 4. priceUpdate must be called from a single thread (single producer) and does not allocate
+ * 5. The consumer thread is started by start, or with the first listener (same as the consumers of the
+ * RingBufferPriceSource), and stopped for good by shutDown
+ * 6. Same as RingBufferPriceSource with OverflowPolicy.CONFLATE, the securities with a SecurityRegistry id above the
+ * slots are not rejected, they fall back to BLOCK: their prices go through a bounded ring in order and the producer
+ * waits when it is full. Before start and after shutDown the producer does not wait, the prices that do not fit the
+ * ring are dropped
+ * </pre>
+ */
+public class ConflatingPriceSource implements PriceSource, SecurityPriceListener, Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(ConflatingPriceSource.class.getName());
+    private static final int DEFAULT_MAX_SECURITIES = 16384;
+    private static final int OVERFLOW_RING_CAPACITY = 1024;
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private final LatestPriceSlots latestPrices;
+    private final PriceRingBuffer overflowRing = new PriceRingBuffer(OVERFLOW_RING_CAPACITY);
+    private final WaitStrategy waitStrategy;
+    private final PriceRingBuffer.PriceEventHandler deliverHandler = this::deliver;
+    private Thread thread;
+    private boolean shutDown;
+    private volatile PriceListener[] listeners = new PriceListener[0];
+    private volatile boolean running;
+    // single writer counters, the producer updates the received / conflated ones and the consumer the delivered one
+    private volatile long ticksReceived;
+    private volatile long ticksConflated;
+    private volatile long ticksDelivered;
+
+    public ConflatingPriceSource() {
+        this(DEFAULT_MAX_SECURITIES, WaitStrategy.parking(50, TimeUnit.MICROSECONDS));
+    }
+
+    /**
+     * @param maxSecurities number of slots, the securities with a higher SecurityRegistry id are not conflated
+     */
+    public ConflatingPriceSource(int maxSecurities, WaitStrategy waitStrategy) {
+        assert maxSecurities > 0 && Objects.nonNull(waitStrategy);
+        this.latestPrices = new LatestPriceSlots(maxSecurities);
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Starts the consumer thread, a started or shut down source is left as it is
+     */
+    public synchronized void start() {
+        if (thread == null && !shutDown) {
+            running = true;
+            thread = new Thread(this, "price-conflation");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public synchronized void addPriceListener(PriceListener listener) {
+        assert Objects.nonNull(listener);
+        PriceListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+        start();
+    }
+
+    @Override
+    public synchronized void removePriceListener(PriceListener listener) {
+        PriceListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                PriceListener[] updated = new PriceListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void priceUpdate(int securityId, double price) {
+        ticksReceived++;
+        if (!latestPrices.accepts(securityId)) {
+            int attempt = 0;
+            while (!overflowRing.offer(securityId, price)) {
+                if (!running) {
+                    return;
+                }
+                waitStrategy.idle(attempt++);
+            }
+        } else if (latestPrices.put(securityId, price)) {
+            ticksConflated++;
+        }
+    }
+
+    @Override
+    public void run() {
+        int attempt = 0;
+        while (running) {
+            int delivered = overflowRing.drain(deliverHandler, MAX_BATCH_SIZE) + latestPrices.drain(deliverHandler);
+            if (delivered == 0) {
+                waitStrategy.idle(attempt++);
+            } else {
+                ticksDelivered += delivered;
+                attempt = 0;
+            }
+        }
+    }
+
+    public long getTicksReceived() {
+        return ticksReceived;
+    }
+
+    public long getTicksConflated() {
+        return ticksConflated;
+    }
+
+    public long getTicksDelivered() {
+        return ticksDelivered;
+    }
+
+    /**
+     * Stops the consumer thread, the source is not started again
+     */
+    public synchronized void shutDown() {
+        shutDown = true;
+        running = false;
+    }
+
+    private void deliver(int securityId, double price) {
+        for (PriceListener listener : listeners) {
+            try {
+                if (listener instanceof SecurityPriceListener) {
+                    ((SecurityPriceListener) listener).priceUpdate(securityId, price);
+                } else {
+                    listener.priceUpdate(SecurityRegistry.securityOf(securityId), price);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Price listener failed on the update of security id " + securityId, e);
+            }
+        }
+    }
+}
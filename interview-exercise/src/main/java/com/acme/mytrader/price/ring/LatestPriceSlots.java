@@ -0,0 +1,106 @@
+package com.acme.mytrader.price.ring;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <pre>
+ * One slot per security (indexed by SecurityRegistry id) holding the latest price that is not consumed yet.
+ * A new price overwrites the pending one in place, the consumer only ever gets the newest price of a security.
+ *
+ * Single producer / single consumer: the ids of the pending securities are queued in a preallocated ring, a security
+ * is queued at most once while it is pending so the queue never holds more than maxSecurities ids.
+ * The consumer takes the price out of the slot (the slot is left empty), a security queued again by a concurrent put
+ * whose price was already taken finds an empty slot and is skipped, so a price is handed out once and never an older
+ * price after a newer one.
+ * </pre>
+ */
+final class LatestPriceSlots {
+
+    // NaN payload that is not produced by arithmetic (canonical NaN is 0x7ff8000000000000L)
+    private static final long EMPTY = 0x7ff8_dead_0000_0001L;
+
+    private final AtomicLongArray prices;
+    private final AtomicIntegerArray pending;
+    private final int[] pendingIds;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    LatestPriceSlots(int maxSecurities) {
+        this.prices = new AtomicLongArray(maxSecurities);
+        for (int i = 0; i < maxSecurities; i++) {
+            this.prices.lazySet(i, EMPTY);
+        }
+        this.pending = new AtomicIntegerArray(maxSecurities);
+        this.pendingIds = new int[maxSecurities];
+    }
+
+    boolean accepts(int securityId) {
+        return securityId >= 0 && securityId < pendingIds.length;
+    }
+
+    /**
+     * Producer side
+     */
+    boolean isPending(int securityId) {
+        return accepts(securityId) && pending.get(securityId) != 0;
+    }
+
+    /**
+     * Producer side, stores the price and queues the security unless it is already pending
+     *
+     * @return true when the price replaced a pending one (conflated)
+     */
+    boolean put(int securityId, double price) {
+        prices.set(securityId, Double.doubleToRawLongBits(price));
+        if (pending.getAndSet(securityId, 1) != 0) {
+            return true;
+        }
+        long position = tail.get();
+        pendingIds[(int) (position % pendingIds.length)] = securityId;
+        tail.lazySet(position + 1);
+        return false;
+    }
+
+    /**
+     * Consumer side, hands the latest price of every pending security to the handler
+     *
+     * @return number of prices handed out
+     */
+    int drain(PriceRingBuffer.PriceEventHandler handler) {
+        return drain(handler, tail.get());
+    }
+
+    /**
+     * Consumer side, drains only if the ring is empty once the pending securities are read: they were queued after the
+     * events the ring held, a newer price of a security is never handed out before an older one still in the ring
+     *
+     * @return number of prices handed out
+     */
+    int drainAfter(PriceRingBuffer ring, PriceRingBuffer.PriceEventHandler handler) {
+        long end = tail.get();
+        return ring.isEmpty() ? drain(handler, end) : 0;
+    }
+
+    private int drain(PriceRingBuffer.PriceEventHandler handler, long end) {
+        long position = head.get();
+        int handedOut = 0;
+        for (long p = position; p < end; p++) {
+            int securityId = pendingIds[(int) (p % pendingIds.length)];
+            // the slot is released before the price is taken, a concurrent put is either taken now or queued again
+            pending.set(securityId, 0);
+            head.lazySet(p + 1);
+            long price = prices.getAndSet(securityId, EMPTY);
+            if (price != EMPTY) {
+                handler.onPrice(securityId, Double.longBitsToDouble(price));
+                handedOut++;
+            }
+        }
+        return handedOut;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
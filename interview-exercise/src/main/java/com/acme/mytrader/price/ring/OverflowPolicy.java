@@ -0,0 +1,16 @@
+package com.acme.mytrader.price.ring;
+
+/**
+ * What the producer does when the ring of a consumer is full
+ */
+public enum OverflowPolicy {
+    /**
+     * The producer waits (see WaitStrategy) until the consumer frees a slot, the price source is slowed down
+     */
+    BLOCK,
+    /**
+     * The producer does not wait, the prices that do not fit are conflated into one latest price per security
+     * and delivered once the consumer catches up
+     */
+    CONFLATE
+}
@@ -0,0 +1,118 @@
+package com.acme.mytrader.price.ring;
+
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * Dedicated consumer thread of one downstream listener of the RingBufferPriceSource.
+ *
+ * The producer (price source thread) publishes into the ring of the consumer, the consumer thread drains the ring in
+ * batches of at most maxBatchSize events and calls the listener. With OverflowPolicy.CONFLATE the producer switches to
+ * the latest price slots when the ring is full, every price goes to the slots until the consumer has emptied the ring
+ * so the prices of a security are always delivered in order.
+ * </pre>
+ */
+final class PriceEventConsumer implements Runnable, PriceRingBuffer.PriceEventHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(PriceEventConsumer.class.getName());
+
+    private final PriceListener listener;
+    private final PriceRingBuffer ring;
+    private final LatestPriceSlots latestPrices;
+    private final WaitStrategy waitStrategy;
+    private final int maxBatchSize;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean conflating;
+    // single writer counter (producer), read by the other threads through getConflated
+    private volatile long conflated;
+
+    PriceEventConsumer(PriceListener listener, int ringCapacity, int maxBatchSize, WaitStrategy waitStrategy,
+                       OverflowPolicy overflowPolicy, int maxSecurities, String threadName) {
+        this.listener = listener;
+        this.ring = new PriceRingBuffer(ringCapacity);
+        this.latestPrices = overflowPolicy == OverflowPolicy.CONFLATE ? new LatestPriceSlots(maxSecurities) : null;
+        this.waitStrategy = waitStrategy;
+        this.maxBatchSize = maxBatchSize;
+        this.thread = new Thread(this, threadName);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    PriceListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Number of prices overwritten in the latest price slots before the consumer got them (producer side counter)
+     */
+    long getConflated() {
+        return conflated;
+    }
+
+    /**
+     * Producer side, must be called from a single thread
+     */
+    void publish(int securityId, double price) {
+        if (latestPrices != null && latestPrices.accepts(securityId)) {
+            if (conflating || latestPrices.isPending(securityId) || !ring.offer(securityId, price)) {
+                conflating = true;
+                if (latestPrices.put(securityId, price)) {
+                    conflated++;
+                }
+            }
+            return;
+        }
+        int attempt = 0;
+        while (!ring.offer(securityId, price)) {
+            if (!running) {
+                return;
+            }
+            waitStrategy.idle(attempt++);
+        }
+    }
+
+    @Override
+    public void run() {
+        int attempt = 0;
+        while (running) {
+            int consumed = ring.drain(this, maxBatchSize);
+            if (consumed == 0 && latestPrices != null) {
+                consumed = latestPrices.drainAfter(ring, this);
+                if (consumed == 0 && conflating && ring.isEmpty()) {
+                    conflating = false;
+                }
+            }
+            if (consumed == 0) {
+                waitStrategy.idle(attempt++);
+            } else {
+                attempt = 0;
+            }
+        }
+    }
+
+    @Override
+    public void onPrice(int securityId, double price) {
+        try {
+            if (listener instanceof SecurityPriceListener) {
+                ((SecurityPriceListener) listener).priceUpdate(securityId, price);
+            } else {
+                listener.priceUpdate(SecurityRegistry.securityOf(securityId), price);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Price listener failed on the update of security id " + securityId, e);
+        }
+    }
+}
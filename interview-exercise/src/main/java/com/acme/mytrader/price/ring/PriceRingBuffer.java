@@ -0,0 +1,85 @@
+package com.acme.mytrader.price.ring;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Bounded single producer / single consumer ring of (security id, price) events.
+ * The slots are preallocated primitive arrays (capacity is rounded up to a power of two) so publishing and
+ * consuming do not allocate. Each side caches the last seen position of the other side to touch the shared
+ * counters only when it looks full / empty.
+ * </pre>
+ */
+final class PriceRingBuffer {
+
+    private final int mask;
+    private final int[] securityIds;
+    private final double[] prices;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // producer side
+    private long cachedHead;
+    // consumer side
+    private long cachedTail;
+
+    PriceRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.securityIds = new int[size];
+        this.prices = new double[size];
+    }
+
+    /**
+     * Producer side
+     *
+     * @return false when the ring is full
+     */
+    boolean offer(int securityId, double price) {
+        long position = tail.get();
+        if (position - cachedHead > mask) {
+            cachedHead = head.get();
+            if (position - cachedHead > mask) {
+                return false;
+            }
+        }
+        int index = (int) position & mask;
+        securityIds[index] = securityId;
+        prices[index] = price;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side, hands at most maxBatch events to the handler
+     *
+     * @return number of events consumed
+     */
+    int drain(PriceEventHandler handler, int maxBatch) {
+        long position = head.get();
+        if (position >= cachedTail) {
+            cachedTail = tail.get();
+            if (position >= cachedTail) {
+                return 0;
+            }
+        }
+        int count = (int) Math.min(maxBatch, cachedTail - position);
+        for (int i = 0; i < count; i++) {
+            int index = (int) (position + i) & mask;
+            handler.onPrice(securityIds[index], prices[index]);
+        }
+        head.lazySet(position + count);
+        return count;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    interface PriceEventHandler {
+        void onPrice(int securityId, double price);
+    }
+}
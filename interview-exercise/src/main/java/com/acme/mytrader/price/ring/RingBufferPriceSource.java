@@ -0,0 +1,114 @@
+package com.acme.mytrader.price.ring;
+
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceListener;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Ring buffer stage between a PriceSource and its listeners (e.g. TradingStrategy), LMAX disruptor style.
+ *
+ * It is registered as listener of the upstream price source and is itself the PriceSource of the downstream listeners:
+ *
+ *   StockFeedObservable -> RingBufferPriceSource -> (ring, consumer thread) -> StockPriceUpdateObserver -> TradingStrategy
+ *
+ * 1. Every downstream listener gets its own bounded, preallocated ring and a dedicated consumer thread that drains it in
+ * batches, so a slow listener (e.g. a slow ExecutionService) does not stall the price source or the other listeners
+ * 2. The upstream thread only copies (security id, price) into the rings, this is the single producer: priceUpdate
+ * must always be called from the same thread (the StockFeedObservable poller thread is)
+ * 3. When a consumer falls behind, the OverflowPolicy either blocks the producer or conflates to the latest price per
+ * security, the idle / waiting behaviour of both sides is the WaitStrategy
+ * 4. Nothing is allocated per price update
+ * </pre>
+ */
+public class RingBufferPriceSource implements PriceSource, SecurityPriceListener {
+
+    private static final int DEFAULT_MAX_SECURITIES = 16384;
+    private static final AtomicInteger CONSUMER_COUNT = new AtomicInteger();
+
+    private final int ringCapacity;
+    private final int maxBatchSize;
+    private final WaitStrategy waitStrategy;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxSecurities;
+    private volatile PriceEventConsumer[] consumers = new PriceEventConsumer[0];
+
+    public RingBufferPriceSource() {
+        this(1024, 64, WaitStrategy.parking(50, TimeUnit.MICROSECONDS), OverflowPolicy.BLOCK);
+    }
+
+    public RingBufferPriceSource(int ringCapacity, int maxBatchSize, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+        this(ringCapacity, maxBatchSize, waitStrategy, overflowPolicy, DEFAULT_MAX_SECURITIES);
+    }
+
+    /**
+     * @param maxSecurities number of latest price slots of the CONFLATE policy, the securities with a higher id fall
+     *                      back to BLOCK
+     */
+    public RingBufferPriceSource(int ringCapacity, int maxBatchSize, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy,
+                                 int maxSecurities) {
+        assert ringCapacity > 0 && maxBatchSize > 0 && Objects.nonNull(waitStrategy) && Objects.nonNull(overflowPolicy);
+        this.ringCapacity = ringCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.maxSecurities = maxSecurities;
+    }
+
+    @Override
+    public synchronized void addPriceListener(PriceListener listener) {
+        assert Objects.nonNull(listener);
+        PriceEventConsumer consumer = new PriceEventConsumer(listener, ringCapacity, maxBatchSize, waitStrategy,
+                overflowPolicy, maxSecurities, "price-ring-consumer-" + CONSUMER_COUNT.incrementAndGet());
+        PriceEventConsumer[] updated = Arrays.copyOf(consumers, consumers.length + 1);
+        updated[consumers.length] = consumer;
+        consumer.start();
+        consumers = updated;
+    }
+
+    @Override
+    public synchronized void removePriceListener(PriceListener listener) {
+        PriceEventConsumer[] current = consumers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].getListener() == listener) {
+                PriceEventConsumer[] updated = new PriceEventConsumer[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                consumers = updated;
+                current[i].stop();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void priceUpdate(int securityId, double price) {
+        PriceEventConsumer[] current = consumers;
+        for (int i = 0; i < current.length; i++) {
+            current[i].publish(securityId, price);
+        }
+    }
+
+    /**
+     * Number of prices conflated (replaced before being consumed) over all the consumers
+     */
+    public long getConflated() {
+        long conflated = 0;
+        for (PriceEventConsumer consumer : consumers) {
+            conflated += consumer.getConflated();
+        }
+        return conflated;
+    }
+
+    public synchronized void shutDown() {
+        for (PriceEventConsumer consumer : consumers) {
+            consumer.stop();
+        }
+        consumers = new PriceEventConsumer[0];
+    }
+}
@@ -0,0 +1,36 @@
+package com.acme.mytrader.price.ring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <pre>
+ * What a thread of the ring buffer pipeline does while it has nothing to do, the consumer when the ring is empty
+ * and the producer when the ring is full (backpressure).
+ *
+ * - busySpin: lowest latency, burns a core per waiting thread
+ * - yielding: spins but gives the core to other runnable threads
+ * - parking: sleeps for the given time, lowest CPU usage and highest wake up latency
+ * </pre>
+ */
+public interface WaitStrategy {
+
+    /**
+     * Called on every unsuccessful attempt, the attempt count restarts from 0 once there is progress
+     */
+    void idle(int attempt);
+
+    static WaitStrategy busySpin() {
+        return attempt -> {
+        };
+    }
+
+    static WaitStrategy yielding() {
+        return attempt -> Thread.yield();
+    }
+
+    static WaitStrategy parking(long time, TimeUnit unit) {
+        long parkNanos = unit.toNanos(time);
+        return attempt -> LockSupport.parkNanos(parkNanos);
+    }
+}
@@ -0,0 +1,74 @@
+package com.acme.mytrader.soak;
+
+import com.acme.mytrader.metrics.LatencyHistogram;
+import com.acme.mytrader.metrics.LatencySnapshot;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Records the duration of every garbage collection pause between start and stop into a LatencyHistogram, from the
+ * notifications of the GarbageCollectorMXBeans (millisecond resolution, as reported by the JVM).
+ *
+ * The collectors that report their concurrent cycles next to their pauses (e.g. "G1 Concurrent GC", "ZGC Major
+ * Cycles") are left out, their cycles run next to the application threads.
+ * The collections forced by System.gc() (the heap baselines of SoakRunner) are left out too: the notifications are
+ * delivered asynchronously, the one of the baseline collection can arrive after start.
+ * </pre>
+ */
+final class GcMonitor implements NotificationListener {
+
+    private static final String SYSTEM_GC = "System.gc()";
+
+    private final LatencyHistogram pauses = new LatencyHistogram();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+    void start() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter && !isConcurrent(collector.getName())) {
+                NotificationEmitter emitter = (NotificationEmitter) collector;
+                emitter.addNotificationListener(this, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    void stop() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                // already removed
+            }
+        }
+        emitters.clear();
+    }
+
+    LatencySnapshot snapshot() {
+        return pauses.snapshot();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            if (!SYSTEM_GC.equals(info.getGcCause())) {
+                pauses.record(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration()));
+            }
+        }
+    }
+
+    private static boolean isConcurrent(String collectorName) {
+        return collectorName.contains("Concurrent") || collectorName.contains("Cycles");
+    }
+}
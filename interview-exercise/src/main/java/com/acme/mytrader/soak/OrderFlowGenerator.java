@@ -0,0 +1,132 @@
+package com.acme.mytrader.soak;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.TradingStrategy;
+
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * <pre>
+ * Seeded order flow of a TradingStrategy, it is run on the thread that ticks the strategy just before every tick:
+ *
+ * 1. While the ticking security has less than restingOrdersPerSymbol resting orders one order is placed, its trigger
+ * is drawn around the live price (BELOW 40%, ABOVE 40%, TRAILING_STOP 10%, PRICE_BAND 10%, random direction and
+ * volume) so the random walk keeps firing orders and the order flow keeps replacing them
+ * 2. With the probability cancelRatio one of the last placed orders is cancelled by its order number
+ * 3. With the probability amendRatio one of the last placed orders is amended, its volume or its trigger price
+ * 4. The last RECENT_ORDERS placed orders are kept to pick the orders to cancel / amend, they may have fired already
+ * (the cancellation / amendment is then refused by the strategy and not counted)
+ *
+ * The flow only depends on the seed and on the ticks, so the same ticks give the same orders.
+ * Note: this class is not thread safe, it must be run by the thread that ticks the strategy
+ * </pre>
+ */
+public class OrderFlowGenerator {
+
+    private static final int RECENT_ORDERS = 8192;
+    private static final double TRIGGER_RANGE = 0.005;
+
+    private final SplittableRandom random;
+    private final int restingOrdersPerSymbol;
+    private final double cancelRatio;
+    private final double amendRatio;
+    private final Order[] recentOrders = new Order[RECENT_ORDERS];
+    private long nextOrderNo = 1;
+    private long placed;
+    private long cancelled;
+    private long amended;
+
+    public OrderFlowGenerator(long seed, int restingOrdersPerSymbol, double cancelRatio, double amendRatio) {
+        assert restingOrdersPerSymbol >= 0 && cancelRatio >= 0 && amendRatio >= 0 && cancelRatio + amendRatio <= 1;
+        this.random = new SplittableRandom(seed);
+        this.restingOrdersPerSymbol = restingOrdersPerSymbol;
+        this.cancelRatio = cancelRatio;
+        this.amendRatio = amendRatio;
+    }
+
+    /**
+     * Places / cancels / amends the orders due before the tick of the security
+     */
+    public void onTick(TradingStrategy strategy, int securityId, double price) {
+        assert Objects.nonNull(strategy);
+        if (strategy.getOrderCount(securityId) < restingOrdersPerSymbol) {
+            place(strategy, SecurityRegistry.securityOf(securityId), price);
+        }
+        double event = random.nextDouble();
+        if (event < cancelRatio) {
+            cancel(strategy);
+        } else if (event < cancelRatio + amendRatio) {
+            amend(strategy, price);
+        }
+    }
+
+    public long getPlaced() {
+        return placed;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public long getAmended() {
+        return amended;
+    }
+
+    private void place(TradingStrategy strategy, String security, double price) {
+        long orderNo = nextOrderNo++;
+        Order order = new Order(BigInteger.valueOf(orderNo), new Stock(security, price), 1 + random.nextInt(1000),
+                random.nextBoolean() ? Direction.BUY : Direction.SELL);
+        double offset = price * TRIGGER_RANGE * random.nextDouble();
+        int kind = random.nextInt(10);
+        if (kind < 4) {
+            order.getStock().setPrice(price - offset);
+        } else if (kind < 8) {
+            order.setType(OrderType.ABOVE);
+            order.getStock().setPrice(price + offset);
+        } else if (kind < 9) {
+            order.setType(OrderType.TRAILING_STOP);
+            order.setTrailAmount(Math.max(0.01, offset));
+        } else {
+            order.setType(OrderType.PRICE_BAND);
+            order.getStock().setPrice(price + offset);
+            order.setUpperPrice(price + offset + price * TRIGGER_RANGE);
+        }
+        strategy.placeOrder(order);
+        recentOrders[(int) (orderNo % RECENT_ORDERS)] = order;
+        placed++;
+    }
+
+    private void cancel(TradingStrategy strategy) {
+        Order order = recentOrders[random.nextInt(RECENT_ORDERS)];
+        if (order != null && strategy.cancelOrder(order.getOrderNo())) {
+            cancelled++;
+        }
+    }
+
+    private void amend(TradingStrategy strategy, double price) {
+        int index = random.nextInt(RECENT_ORDERS);
+        Order order = recentOrders[index];
+        if (order == null) {
+            return;
+        }
+        Order amendment = new Order(order.getOrderNo(), new Stock(order.getStock().getSecurity(), order.getStock().getPrice()),
+                order.getVolume(), order.getDirection(), order.getType(), order.getLimitPrice(), order.getUpperPrice(),
+                order.getTrailAmount());
+        if (random.nextBoolean() || order.getType() != OrderType.BELOW && order.getType() != OrderType.ABOVE) {
+            amendment.setVolume(1 + random.nextInt(1000));
+        } else {
+            double offset = price * TRIGGER_RANGE * random.nextDouble();
+            amendment.getStock().setPrice(order.getType() == OrderType.BELOW ? price - offset : price + offset);
+        }
+        if (strategy.amendOrder(amendment)) {
+            recentOrders[index] = amendment;
+            amended++;
+        }
+    }
+}
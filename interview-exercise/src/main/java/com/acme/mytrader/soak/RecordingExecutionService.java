@@ -0,0 +1,48 @@
+package com.acme.mytrader.soak;
+
+import com.acme.mytrader.execution.ExecutionService;
+
+/**
+ * <pre>
+ * ExecutionService of a soak run, it only counts the executions, their volume and notional (price x volume) so a run
+ * of any length keeps the same footprint. The totals are the fingerprint of the run, the same ticks and order flow give
+ * the same totals.
+ *
+ * Note: this class is not thread safe, it is called by the thread that ticks the strategy and read once the pipeline
+ * is drained
+ * </pre>
+ */
+public class RecordingExecutionService implements ExecutionService {
+
+    private long executions;
+    private long volume;
+    private double notional;
+
+    @Override
+    public void buy(String security, double price, int volume) {
+        record(price, volume);
+    }
+
+    @Override
+    public void sell(String security, double price, int volume) {
+        record(price, volume);
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    public double getNotional() {
+        return notional;
+    }
+
+    private void record(double price, int volume) {
+        this.executions++;
+        this.volume += volume;
+        this.notional += price * volume;
+    }
+}
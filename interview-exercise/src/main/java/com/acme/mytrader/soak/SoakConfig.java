@@ -0,0 +1,51 @@
+package com.acme.mytrader.soak;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * <pre>
+ * Load of a SoakRunner run, e.g.
+ *
+ *   SoakConfig.builder()
+ *       .symbolCount(1_000).ticksPerSecond(200_000)
+ *       .restingOrdersPerSymbol(500).cancelRatio(0.05).amendRatio(0.05)
+ *       .warmUp(Duration.ofSeconds(30)).duration(Duration.ofMinutes(10))
+ *       .build();
+ *
+ * 1. seed: seed of the SyntheticMarket and of the OrderFlowGenerator, two runs with the same seed and the same
+ * maxTicks place, cancel, amend and execute the same orders
+ * 2. symbolCount / ticksPerSecond / volatility: securities of the market, ticks published per second (0 for as fast as
+ * the pipeline goes) and standard deviation of the relative price move of a tick
+ * 3. restingOrdersPerSymbol / cancelRatio / amendRatio: order book depth kept per security by the order flow and
+ * probability that a tick is preceded by a cancellation / an amendment (see OrderFlowGenerator)
+ * 4. warmUp / duration / maxTicks: the run stops after duration or maxTicks ticks, whichever comes first; the latency,
+ * throughput, heap and GC figures leave the warm up out
+ * </pre>
+ */
+@Value
+@Builder
+public class SoakConfig {
+    @Builder.Default
+    long seed = 42L;
+    @Builder.Default
+    int symbolCount = 100;
+    @Builder.Default
+    int ticksPerSecond = 100_000;
+    @Builder.Default
+    double volatility = 0.0005;
+    @Builder.Default
+    int restingOrdersPerSymbol = 100;
+    @Builder.Default
+    double cancelRatio = 0.05;
+    @Builder.Default
+    double amendRatio = 0.05;
+    @Builder.Default
+    Duration warmUp = Duration.ofSeconds(10);
+    @Builder.Default
+    Duration duration = Duration.ofMinutes(1);
+    @Builder.Default
+    long maxTicks = Long.MAX_VALUE;
+}
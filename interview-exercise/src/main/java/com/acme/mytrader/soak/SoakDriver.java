@@ -0,0 +1,79 @@
+package com.acme.mytrader.soak;
+
+import com.acme.mytrader.metrics.LatencyHistogram;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.strategy.TradingStrategy;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <pre>
+ * Listener of the RingBufferPriceSource of a soak run, it runs on the consumer thread of the ring:
+ *
+ * 1. the OrderFlowGenerator places / cancels / amends the orders due before the tick
+ * 2. the TradingStrategy is ticked, the fired orders go to its ExecutionService
+ * 3. the latency from the publication of the tick to the end of its evaluation is recorded
+ *
+ * With OverflowPolicy.BLOCK the ring delivers every tick in publication order, so the n-th tick received is the n-th
+ * tick published and its publication time is found in a ring of the publication times indexed by the tick sequence.
+ * The publication time is the time the tick was due at the configured rate, a publisher held up by a full ring does not
+ * hide the wait from the latency (no coordinated omission).
+ * </pre>
+ */
+final class SoakDriver implements SecurityPriceListener {
+
+    private final TradingStrategy strategy;
+    private final OrderFlowGenerator orderFlow;
+    private final AtomicLongArray publicationTimes;
+    private final int mask;
+    private final LatencyHistogram tickLatency = new LatencyHistogram();
+    private volatile long measuredFrom = Long.MAX_VALUE;
+    private volatile long processed;
+
+    /**
+     * @param inFlightTicks power of two above the number of ticks that can be published and not processed yet
+     */
+    SoakDriver(TradingStrategy strategy, OrderFlowGenerator orderFlow, int inFlightTicks) {
+        assert Integer.bitCount(inFlightTicks) == 1;
+        this.strategy = strategy;
+        this.orderFlow = orderFlow;
+        this.publicationTimes = new AtomicLongArray(inFlightTicks);
+        this.mask = inFlightTicks - 1;
+    }
+
+    /**
+     * Publisher thread, to be called before the tick of the sequence is published
+     */
+    void published(long sequence, long publicationTime) {
+        publicationTimes.set((int) (sequence & mask), publicationTime);
+    }
+
+    /**
+     * Publisher thread, the latency of the ticks from the sequence on is recorded
+     */
+    void measureFrom(long sequence) {
+        measuredFrom = sequence;
+    }
+
+    @Override
+    public void priceUpdate(int securityId, double price) {
+        long sequence = processed;
+        try {
+            orderFlow.onTick(strategy, securityId, price);
+            strategy.priceUpdate(securityId, price);
+            if (sequence >= measuredFrom) {
+                tickLatency.record(System.nanoTime() - publicationTimes.get((int) (sequence & mask)));
+            }
+        } finally {
+            processed = sequence + 1;
+        }
+    }
+
+    long getProcessed() {
+        return processed;
+    }
+
+    LatencyHistogram getTickLatency() {
+        return tickLatency;
+    }
+}
@@ -0,0 +1,66 @@
+package com.acme.mytrader.soak;
+
+import com.acme.mytrader.metrics.LatencySnapshot;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * <pre>
+ * Outcome of a SoakRunner run.
+ *
+ * The counters cover the whole run (warm up included), they only depend on the seed and on the number of ticks so two
+ * runs with the same SoakConfig that stop on maxTicks give equal reports (the measured figures are not part of the
+ * equality). The measured figures leave the warm up out:
+ * - measuredTicks / measuredTime: ticks evaluated after the warm up and the time they took, see getTicksPerSecond
+ * - tickLatency: from the time the tick was due (publication) to the end of its evaluation by the strategy
+ * - heapGrowthBytes: used heap after a full GC at the end minus the same at the end of the warm up
+ * - gcPauses: the garbage collection pauses of the measured time (see GcMonitor)
+ * </pre>
+ */
+@Value
+public class SoakReport {
+    long ticks;
+    long ordersPlaced;
+    long ordersCancelled;
+    long ordersAmended;
+    long executions;
+    long executedVolume;
+    double executedNotional;
+    @EqualsAndHashCode.Exclude
+    long measuredTicks;
+    @EqualsAndHashCode.Exclude
+    Duration measuredTime;
+    @EqualsAndHashCode.Exclude
+    LatencySnapshot tickLatency;
+    @EqualsAndHashCode.Exclude
+    long heapGrowthBytes;
+    @EqualsAndHashCode.Exclude
+    LatencySnapshot gcPauses;
+
+    /**
+     * Sustained throughput of the measured time
+     */
+    public double getTicksPerSecond() {
+        return measuredTime.isZero() ? 0 : measuredTicks * 1e9 / measuredTime.toNanos();
+    }
+
+    /**
+     * One line per figure, as printed by SoakRunner.main
+     */
+    public String report() {
+        return "ticks=" + ticks
+                + " ordersPlaced=" + ordersPlaced
+                + " ordersCancelled=" + ordersCancelled
+                + " ordersAmended=" + ordersAmended
+                + " executions=" + executions
+                + " executedVolume=" + executedVolume
+                + " executedNotional=" + executedNotional
+                + System.lineSeparator() + "measured: ticks=" + measuredTicks + " time=" + measuredTime
+                + " ticksPerSecond=" + Math.round(getTicksPerSecond())
+                + System.lineSeparator() + "tickLatency: " + tickLatency
+                + System.lineSeparator() + "heapGrowth: " + heapGrowthBytes + " bytes"
+                + System.lineSeparator() + "gcPauses: " + gcPauses;
+    }
+}
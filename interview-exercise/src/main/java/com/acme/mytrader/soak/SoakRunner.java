@@ -0,0 +1,184 @@
+package com.acme.mytrader.soak;
+
+import com.acme.mytrader.metrics.LatencySnapshot;
+import com.acme.mytrader.price.ring.OverflowPolicy;
+import com.acme.mytrader.price.ring.RingBufferPriceSource;
+import com.acme.mytrader.price.ring.WaitStrategy;
+import com.acme.mytrader.strategy.TradingStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <pre>
+ * Soak test of the trading pipeline, to validate its capacity before a release, e.g.
+ *
+ *   SoakReport report = new SoakRunner(SoakConfig.builder().symbolCount(1_000).duration(Duration.ofMinutes(10)).build()).run();
+ *
+ * or gradlew soak -PsoakArgs="symbolCount=1000 ticksPerSecond=200000 duration=PT10M"
+ *
+ *   SyntheticMarket -> RingBufferPriceSource -> (ring, consumer thread) -> SoakDriver -> OrderFlowGenerator
+ *                                                                                    -> TradingStrategy -> RecordingExecutionService
+ *
+ * 1. The calling thread publishes the ticks of the SyntheticMarket at ticksPerSecond (yielding until a tick is due,
+ * 0 for no pacing) into a RingBufferPriceSource with the BLOCK policy, a pipeline that does not keep up holds the
+ * publisher back and the wait shows in the tick latency
+ * 2. On the consumer thread of the ring the OrderFlowGenerator keeps the order book of every security at its depth
+ * (place / cancel / amend) and the TradingStrategy evaluates the tick, both are single threaded
+ * 3. At the end of the warm up a full GC is run, the used heap is taken as the baseline and the GC pauses and the tick
+ * latencies are recorded from there on; at the end of the run the pipeline is drained and the heap is measured after
+ * another full GC
+ *
+ * The strategy records into TradingMetrics as a live one does. Run it in a JVM of its own with the heap settings of
+ * production, the GC figures are those of the whole JVM.
+ * </pre>
+ */
+public class SoakRunner {
+
+    private static final int RING_CAPACITY = 4096;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final SoakConfig config;
+
+    public SoakRunner(SoakConfig config) {
+        assert Objects.nonNull(config) && config.getTicksPerSecond() >= 0 && config.getMaxTicks() >= 0;
+        this.config = config;
+    }
+
+    /**
+     * @throws IllegalStateException when the pipeline does not process the published ticks within 30 seconds of the end
+     */
+    public SoakReport run() {
+        SyntheticMarket market = new SyntheticMarket(config.getSeed(), config.getSymbolCount(), config.getVolatility());
+        OrderFlowGenerator orderFlow = new OrderFlowGenerator(config.getSeed(), config.getRestingOrdersPerSymbol(),
+                config.getCancelRatio(), config.getAmendRatio());
+        RecordingExecutionService executionService = new RecordingExecutionService();
+        SoakDriver driver = new SoakDriver(new TradingStrategy(executionService), orderFlow, RING_CAPACITY << 2);
+        RingBufferPriceSource priceSource = new RingBufferPriceSource(RING_CAPACITY, MAX_BATCH_SIZE, WaitStrategy.yielding(),
+                OverflowPolicy.BLOCK);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        GcMonitor gcMonitor = new GcMonitor();
+        priceSource.addPriceListener(driver);
+        try {
+            long tickNanos = config.getTicksPerSecond() == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / config.getTicksPerSecond();
+            long warmUpNanos = config.getWarmUp().toNanos();
+            long durationNanos = config.getDuration().toNanos();
+            long measuredFrom = -1;
+            long measureStart = 0;
+            long baselineHeap = 0;
+            long start = System.nanoTime();
+            long due = start;
+            long sequence = 0;
+            for (; sequence < config.getMaxTicks(); sequence++) {
+                long now = System.nanoTime();
+                if (now - start >= durationNanos) {
+                    break;
+                }
+                if (measuredFrom < 0 && now - start >= warmUpNanos) {
+                    // the ticks published so far are evaluated before the baseline is taken
+                    awaitProcessed(driver, sequence);
+                    memory.gc();
+                    baselineHeap = memory.getHeapMemoryUsage().getUsed();
+                    gcMonitor.start();
+                    measuredFrom = sequence;
+                    driver.measureFrom(sequence);
+                    measureStart = System.nanoTime();
+                    due = measureStart;
+                }
+                if (tickNanos > 0) {
+                    while (System.nanoTime() < due) {
+                        Thread.yield();
+                    }
+                } else {
+                    due = System.nanoTime();
+                }
+                int symbol = market.nextTick();
+                driver.published(sequence, due);
+                priceSource.priceUpdate(market.getSecurityId(symbol), market.getPrice(symbol));
+                due += tickNanos;
+            }
+            awaitProcessed(driver, sequence);
+            long measureEnd = System.nanoTime();
+            LatencySnapshot gcPauses = gcMonitor.snapshot();
+            gcMonitor.stop();
+            long heapGrowth = 0;
+            if (measuredFrom >= 0) {
+                memory.gc();
+                heapGrowth = memory.getHeapMemoryUsage().getUsed() - baselineHeap;
+            }
+            return new SoakReport(sequence, orderFlow.getPlaced(), orderFlow.getCancelled(), orderFlow.getAmended(),
+                    executionService.getExecutions(), executionService.getVolume(), executionService.getNotional(),
+                    measuredFrom < 0 ? 0 : sequence - measuredFrom,
+                    Duration.ofNanos(measuredFrom < 0 ? 0 : measureEnd - measureStart),
+                    driver.getTickLatency().snapshot(), heapGrowth, gcPauses);
+        } finally {
+            gcMonitor.stop();
+            priceSource.shutDown();
+        }
+    }
+
+    /**
+     * Runs a soak test and prints its report, the arguments are SoakConfig properties as name=value (durations in the
+     * ISO-8601 format, e.g. duration=PT10M)
+     */
+    public static void main(String[] args) {
+        SoakConfig.SoakConfigBuilder config = SoakConfig.builder();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(0, separator)) {
+                case "seed":
+                    config.seed(Long.parseLong(value));
+                    break;
+                case "symbolCount":
+                    config.symbolCount(Integer.parseInt(value));
+                    break;
+                case "ticksPerSecond":
+                    config.ticksPerSecond(Integer.parseInt(value));
+                    break;
+                case "volatility":
+                    config.volatility(Double.parseDouble(value));
+                    break;
+                case "restingOrdersPerSymbol":
+                    config.restingOrdersPerSymbol(Integer.parseInt(value));
+                    break;
+                case "cancelRatio":
+                    config.cancelRatio(Double.parseDouble(value));
+                    break;
+                case "amendRatio":
+                    config.amendRatio(Double.parseDouble(value));
+                    break;
+                case "warmUp":
+                    config.warmUp(Duration.parse(value));
+                    break;
+                case "duration":
+                    config.duration(Duration.parse(value));
+                    break;
+                case "maxTicks":
+                    config.maxTicks(Long.parseLong(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown soak property " + arg);
+            }
+        }
+        System.out.println(new SoakRunner(config.build()).run().report());
+    }
+
+    private static void awaitProcessed(SoakDriver driver, long ticks) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (driver.getProcessed() < ticks) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("The pipeline processed " + driver.getProcessed() + " of " + ticks + " ticks");
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+}
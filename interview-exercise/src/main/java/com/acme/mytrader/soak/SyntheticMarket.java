@@ -0,0 +1,74 @@
+package com.acme.mytrader.soak;
+
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.util.SplittableRandom;
+
+/**
+ * <pre>
+ * Seeded random walk of the prices of symbolCount securities (SOAK0, SOAK1, ...), the same seed always gives the same
+ * sequence of ticks.
+ *
+ * 1. Every security starts at a random price between 20 and 200
+ * 2. nextTick picks the security that ticks at random and moves its price by a normally distributed relative step of
+ * the given volatility, rounded to the cent and never below it
+ * 3. The prices and the SecurityRegistry ids are kept in primitive arrays, a tick does not allocate
+ *
+ * Note: this class is not thread safe, it is used by the thread that publishes the ticks
+ * </pre>
+ */
+public class SyntheticMarket {
+
+    private static final double TICK_SIZE = 0.01;
+
+    private final SplittableRandom random;
+    private final double volatility;
+    private final String[] securities;
+    private final int[] securityIds;
+    private final double[] prices;
+
+    public SyntheticMarket(long seed, int symbolCount, double volatility) {
+        assert symbolCount > 0 && volatility >= 0;
+        this.random = new SplittableRandom(seed);
+        this.volatility = volatility;
+        this.securities = new String[symbolCount];
+        this.securityIds = new int[symbolCount];
+        this.prices = new double[symbolCount];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            securities[symbol] = "SOAK" + symbol;
+            securityIds[symbol] = SecurityRegistry.intern(securities[symbol]);
+            prices[symbol] = round(20.00 + random.nextDouble() * 180.00);
+        }
+    }
+
+    /**
+     * Moves the price of a random security
+     *
+     * @return the symbol (index) of the security that ticked
+     */
+    public int nextTick() {
+        int symbol = random.nextInt(prices.length);
+        prices[symbol] = Math.max(TICK_SIZE, round(prices[symbol] * (1.0 + volatility * random.nextGaussian())));
+        return symbol;
+    }
+
+    public int getSymbolCount() {
+        return prices.length;
+    }
+
+    public String getSecurity(int symbol) {
+        return securities[symbol];
+    }
+
+    public int getSecurityId(int symbol) {
+        return securityIds[symbol];
+    }
+
+    public double getPrice(int symbol) {
+        return prices[symbol];
+    }
+
+    private static double round(double price) {
+        return Math.rint(price / TICK_SIZE) * TICK_SIZE;
+    }
+}
@@ -0,0 +1,21 @@
+package com.acme.mytrader.strategy;
+
+/**
+ * <pre>
+ * Told by a TradingStrategy when it starts / stops having resting orders in a security, so an owner dispatching the
+ * ticks of many strategies (see StrategyHost) only hands a tick to the strategies that can trigger on it.
+ * It is called on the thread that places, cancels or triggers the order.
+ * </pre>
+ */
+public interface SubscriptionListener {
+
+    /**
+     * The first resting order of the security was placed
+     */
+    void subscribed(TradingStrategy strategy, int securityId);
+
+    /**
+     * The last resting order of the security was triggered or cancelled
+     */
+    void unsubscribed(TradingStrategy strategy, int securityId);
+}
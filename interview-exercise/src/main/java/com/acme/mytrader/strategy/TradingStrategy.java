@@ -4,14 +4,21 @@ import com.acme.mytrader.entity.Order;
 import com.acme.mytrader.entity.Stock;
 import com.acme.mytrader.entity.constants.Direction;
 import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.metrics.TradingMetrics;
 import com.acme.mytrader.price.PriceSource;
 import com.acme.mytrader.price.impl.StockPriceUpdateObserver;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.book.OrderTriggerBook;
+import com.acme.mytrader.strategy.book.TriggeredOrders;
+import com.acme.mytrader.strategy.journal.OrderJournal;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * <pre>
@@ -22,49 +29,301 @@ import java.util.stream.Collectors;
  * 1. This class takes the order either buy or sell type when the trader needs to be place an order
  * 2. Ideally, the ExecutionService will be injected however for testing it is mocked with no implementation
  * 3. It also add the price listener with this instance - this is to cover the basis flow to ensure that order is created
- * 4. This will get an update when the price is changed, it will execute the filterOrderPredicate (this can be enhanced as of now no time)
- * 5. All the order that meet the condition will be executed based on the trade direction
+ * 4. This will get an update when the price is changed, the orders are kept in the OrderTriggerBook (per security and
+ * compiled by OrderType into a specialized trigger path) so only the orders of that security whose trigger rule is met
+ * by the live price are picked
+ * 5. All the order that meet the condition will be executed based on the trade direction and removed from the book so
+ * that they are executed only once, at the trigger price (BELOW, ABOVE), the limit price (STOP_LIMIT) or the live price
+ * (TRAILING_STOP, PRICE_BAND)
+ * 6. priceUpdate(securityId, price) is the primitive hot path (SecurityRegistry id, triggered orders drained into a reused
+ * buffer), it does not allocate in steady state. priceUpdate(Stock) is kept for the callers that have a Stock
+ * 7. With an OrderJournal every placement, fire and cancellation is recorded before it is applied, the resting orders
+ * are recovered from the journal when the strategy is created and a snapshot is taken whenever the journal asks for one
+ * 8. Every tick, the resting orders of the ticking security and the fired orders are recorded in the TradingMetrics
+ * with their tick to trigger and trigger to execution latencies (skipped when the metrics are disabled)
+ * 9. A SubscriptionListener (e.g. a StrategyHost) is told when the strategy starts / stops having resting orders in a
+ * security
+ * 10. A resting order is cancelled or amended by its order number, the book finds it in O(1) (order number index) and
+ * the cancelled slots are reclaimed, so a long session of place / cancel / amend cycles keeps the memory flat. The
+ * order number identifies the resting order, placing a second order with the number of a resting one is rejected
+ * 11. close releases the off heap memory of the book, the resting orders are dropped without being journaled (a
+ * strategy recovered from the same journal gets them back)
+ * 12. An order whose execution fails (the ExecutionService throws) is rejected: it is logged and counted (see
+ * getFailedExecutionCount) and stays fired in the journal, it is not put back in the book where it would fire again on
+ * every tick. The other orders triggered by the same tick are still executed
  * <p>
  * Note: this flow covers only the price change flow, edge / exception case, already price is less than the
- * trigger price case are not covered
+ * trigger price case are not covered. The price update is not re-entrant, the ExecutionService must not call back
+ * into priceUpdate on the same thread. This class is not thread safe, ShardedTradingStrategy is the thread safe
+ * variant that spreads the securities over several single threaded strategies
  */
 public class TradingStrategy {
 
+    private static final Logger LOGGER = Logger.getLogger(TradingStrategy.class.getName());
+
     private final ExecutionService executionService;
     private final PriceSource priceSource;
-    List<Order> orderList = new ArrayList<Order>();
+    private final OrderJournal orderJournal;
+    private final TradingMetrics metrics = TradingMetrics.get();
+    final OrderTriggerBook orderBook = new OrderTriggerBook();
+    private final TriggeredOrders triggeredOrders = new TriggeredOrders();
     StockPriceUpdateObserver stockPriceUpdateObserver = null;
+    private SubscriptionListener subscriptionListener;
+    private long failedExecutions;
 
     public TradingStrategy(PriceSource priceSource, ExecutionService executionService) {
+        this(priceSource, executionService, null);
+    }
+
+    /**
+     * @param orderJournal journal the order state is recorded in and recovered from, null for none
+     */
+    public TradingStrategy(PriceSource priceSource, ExecutionService executionService, OrderJournal orderJournal) {
         assert (Objects.nonNull(priceSource)) && (Objects.nonNull(executionService));
         this.priceSource = priceSource;
-        this.stockPriceUpdateObserver = new StockPriceUpdateObserver(this.priceSource, this);
         this.executionService = executionService;
+        this.orderJournal = orderJournal;
+        recoverOrders();
+        this.stockPriceUpdateObserver = new StockPriceUpdateObserver(this.priceSource, this);
+    }
+
+    /**
+     * Strategy that is not registered with a price source, the owner (e.g. a strategy shard) calls priceUpdate
+     */
+    public TradingStrategy(ExecutionService executionService) {
+        this(executionService, null);
     }
 
-    private static Predicate<Order> filterOrderPredicate(Stock liveStockPrice) {
-        return o -> o.getStock().equals(liveStockPrice) && (liveStockPrice.getPrice().compareTo(o.getStock().getPrice()) < 0);
+    public TradingStrategy(ExecutionService executionService, OrderJournal orderJournal) {
+        assert Objects.nonNull(executionService);
+        this.priceSource = null;
+        this.executionService = executionService;
+        this.orderJournal = orderJournal;
+        recoverOrders();
     }
 
+    /**
+     * @throws IllegalArgumentException when a price the order type needs is missing or invalid or an order with the
+     * same order number is already resting (amendOrder changes a resting order)
+     */
     public void placeOrder(Order order) {
         assert (Objects.nonNull(order));
-        this.orderList.add(order);
+        OrderTriggerBook.checkOrder(order);
+        if (this.orderBook.contains(order.getOrderNo().longValue())) {
+            throw new IllegalArgumentException("Order number " + order.getOrderNo() + " is already resting");
+        }
+        if (this.orderJournal != null) {
+            this.orderJournal.placed(order);
+        }
+        int securityId = SecurityRegistry.intern(order.getStock().getSecurity());
+        boolean firstOrder = this.orderBook.size(securityId) == 0;
+        this.orderBook.add(order);
+        if (firstOrder && this.subscriptionListener != null) {
+            this.subscriptionListener.subscribed(this, securityId);
+        }
+        snapshotIfDue();
+    }
+
+    /**
+     * Cancels a resting order (same order number, security and trigger price)
+     *
+     * @return false when the order is not resting any more (already triggered or cancelled)
+     */
+    public boolean cancelOrder(Order order) {
+        assert (Objects.nonNull(order));
+        return cancelled(this.orderBook.remove(order));
+    }
+
+    /**
+     * Cancels the resting order with the order number, it is found in O(1) through the order number index of the book
+     *
+     * @return false when no order with that number is resting (already triggered, cancelled or never placed)
+     */
+    public boolean cancelOrder(BigInteger orderNo) {
+        assert (Objects.nonNull(orderNo));
+        if (orderNo.bitLength() >= Long.SIZE) {
+            return false;
+        }
+        return cancelled(this.orderBook.remove(orderNo.longValue()));
+    }
+
+    /**
+     * Replaces the resting order that has the order number of the amended order, a change of the volume only keeps
+     * the priority of the order (see OrderTriggerBook.amend) and is journaled as amended so the recovered order keeps
+     * it too. Any other amendment is journaled as the cancellation of the resting order followed by the placement of
+     * the amended one
+     *
+     * @return false when no order with that number is resting (the amended order is not placed)
+     * @throws IllegalArgumentException when a price the order type needs is missing or invalid
+     */
+    public boolean amendOrder(Order amended) {
+        assert (Objects.nonNull(amended));
+        OrderTriggerBook.checkOrder(amended);
+        Order resting = this.orderBook.get(amended.getOrderNo().longValue());
+        if (resting == null) {
+            return false;
+        }
+        if (this.orderJournal != null) {
+            if (OrderTriggerBook.isSameTriggerRule(resting, amended)) {
+                this.orderJournal.amended(amended);
+            } else {
+                this.orderJournal.cancelled(resting);
+                this.orderJournal.placed(amended);
+            }
+        }
+        int securityId = SecurityRegistry.intern(amended.getStock().getSecurity());
+        boolean firstOrder = this.orderBook.size(securityId) == 0;
+        this.orderBook.amend(amended);
+        if (firstOrder && this.subscriptionListener != null) {
+            this.subscriptionListener.subscribed(this, securityId);
+        }
+        unsubscribeIfEmpty(SecurityRegistry.idOf(resting.getStock().getSecurity()));
+        snapshotIfDue();
+        return true;
     }
 
     public void priceUpdate(Stock stock) {
-        Predicate<Order> predicate = filterOrderPredicate(stock);
-        List<Order> filteredOrder = this.orderList.stream().filter(predicate).collect(Collectors.toList());
-        filteredOrder.forEach(o -> executeOrder(o));
+        priceUpdate(SecurityRegistry.intern(stock.getSecurity()), stock.getPrice());
     }
 
-    private void executeOrder(Order order) {
+    public void priceUpdate(int securityId, double price) {
+        boolean recording = this.metrics.isEnabled();
+        long tickTime = 0L;
+        if (recording) {
+            tickTime = System.nanoTime();
+            this.metrics.recordTick(this.orderBook.size(securityId));
+        }
+        if (this.orderBook.drainTriggered(securityId, price, triggeredOrders) == 0) {
+            return;
+        }
+        unsubscribeIfEmpty(securityId);
+        try {
+            for (int i = 0; i < triggeredOrders.size(); i++) {
+                Order order = triggeredOrders.get(i);
+                if (this.orderJournal != null) {
+                    this.orderJournal.fired(order);
+                }
+                long triggerTime = recording ? System.nanoTime() : 0L;
+                try {
+                    executeOrder(order, price);
+                } catch (RuntimeException e) {
+                    this.failedExecutions++;
+                    LOGGER.log(Level.WARNING, "Execution of triggered order " + order.getOrderNo() + " failed, the order is rejected", e);
+                    continue;
+                }
+                if (recording) {
+                    this.metrics.recordFired(triggerTime - tickTime, System.nanoTime() - triggerTime);
+                }
+            }
+        } finally {
+            triggeredOrders.clear();
+        }
+        snapshotIfDue();
+    }
+
+    /**
+     * Stops the strategy: it is removed from its price source, the SubscriptionListener is told that it has no resting
+     * orders any more and the book releases its off heap memory. The strategy must not be used afterwards
+     */
+    public void close() {
+        if (this.stockPriceUpdateObserver != null) {
+            this.priceSource.removePriceListener(this.stockPriceUpdateObserver);
+            this.stockPriceUpdateObserver = null;
+        }
+        if (this.subscriptionListener != null) {
+            this.orderBook.forEachSecurity(securityId -> this.subscriptionListener.unsubscribed(this, securityId));
+        }
+        this.orderBook.close();
+    }
+
+    /**
+     * Number of resting orders (placed and not triggered yet)
+     */
+    public int getOrderCount() {
+        return this.orderBook.size();
+    }
+
+    /**
+     * Number of triggered orders that were rejected because their execution failed
+     */
+    public long getFailedExecutionCount() {
+        return this.failedExecutions;
+    }
+
+    /**
+     * Number of resting orders of the security, it does not allocate
+     */
+    public int getOrderCount(int securityId) {
+        return this.orderBook.size(securityId);
+    }
+
+    /**
+     * Visits the SecurityRegistry ids of the securities the strategy has resting orders in
+     */
+    public void forEachSecurity(IntConsumer action) {
+        this.orderBook.forEachSecurity(action);
+    }
+
+    /**
+     * @param subscriptionListener told when the strategy starts / stops having resting orders in a security, null for
+     *                             none; the securities that already have resting orders are not reported
+     */
+    public void setSubscriptionListener(SubscriptionListener subscriptionListener) {
+        this.subscriptionListener = subscriptionListener;
+    }
+
+    private boolean cancelled(Order cancelled) {
+        if (cancelled == null) {
+            return false;
+        }
+        if (this.orderJournal != null) {
+            this.orderJournal.cancelled(cancelled);
+            snapshotIfDue();
+        }
+        unsubscribeIfEmpty(SecurityRegistry.idOf(cancelled.getStock().getSecurity()));
+        return true;
+    }
+
+    private void unsubscribeIfEmpty(int securityId) {
+        if (this.subscriptionListener != null && this.orderBook.size(securityId) == 0) {
+            this.subscriptionListener.unsubscribed(this, securityId);
+        }
+    }
+
+    private void recoverOrders() {
+        if (this.orderJournal != null) {
+            this.orderJournal.recoveredOrders().forEach(this.orderBook::add);
+        }
+    }
+
+    private void snapshotIfDue() {
+        if (this.orderJournal != null && this.orderJournal.isSnapshotDue()) {
+            List<Order> restingOrders = new ArrayList<>(this.orderBook.size());
+            this.orderBook.forEach(restingOrders::add);
+            this.orderJournal.snapshot(restingOrders);
+        }
+    }
+
+    private void executeOrder(Order order, double livePrice) {
         String security = order.getStock().getSecurity();
-        Double triggerPrice = order.getStock().getPrice();
-        Integer volume = order.getVolume();
+        double executionPrice = executionPrice(order, livePrice);
+        int volume = order.getVolume();
         if (order.getDirection() == Direction.BUY) {
-            this.executionService.buy(security, triggerPrice, volume);
+            this.executionService.buy(security, executionPrice, volume);
         } else if (order.getDirection() == Direction.SELL) {
-            this.executionService.sell(security, triggerPrice, volume);
+            this.executionService.sell(security, executionPrice, volume);
+        }
+    }
+
+    private static double executionPrice(Order order, double livePrice) {
+        switch (order.getType()) {
+            case STOP_LIMIT:
+                return order.getLimitPrice();
+            case TRAILING_STOP:
+            case PRICE_BAND:
+                return livePrice;
+            default:
+                return order.getStock().getPrice();
         }
     }
 
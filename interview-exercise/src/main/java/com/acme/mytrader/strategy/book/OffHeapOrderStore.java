@@ -0,0 +1,277 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Resting orders of an OrderTriggerBook kept as fixed size records in direct (off heap) ByteBuffer chunks, an order is
+ * referred to by its int slot. A record holds the order number as a long, the SecurityRegistry id, the primitive prices
+ * and volume and the direction / type ordinals (RECORD_SIZE bytes), so millions of resting orders cost no heap objects
+ * and the garbage collector does not have to trace them.
+ *
+ * 1. add copies the order into a free slot, the Order object is not kept
+ * 2. toOrder builds an Order view of a slot, it is only done when an order leaves the book (fired, cancelled, snapshot)
+ * 3. free puts the slot on a free list (the next free slot is kept in the order number field), the chunks are only
+ * released by close, a book that shrinks keeps its capacity
+ * 4. the slots are indexed by order number (OrderNumberIndex), slotOf finds a resting order in O(1); cancel takes the
+ * order out of the index and flags its slot, the trigger path that holds the slot frees it when it next compacts or
+ * drains. When the same order number rests twice the index refers to the last added one
+ * 5. The first chunk holds FIRST_CHUNK_RECORDS records and every next chunk doubles the capacity up to CHUNK_RECORDS,
+ * the following chunks hold CHUNK_RECORDS records each, so a small book (e.g. one of the thousands of strategies of a
+ * StrategyHost) reserves a few KB while a large one is not copied when it grows. The chunk and offset of a slot are
+ * still computed from its bits
+ * 6. close releases the chunks at once (the direct memory is not left to the garbage collector when the JVM allows
+ * it) and empties the store, it can be used again
+ *
+ * Note: this class is not thread safe, the owning book / strategy must ensure the single writer
+ * </pre>
+ */
+final class OffHeapOrderStore {
+
+    static final int RECORD_SIZE = 56;
+
+    private static final int FIRST_CHUNK_BITS = 4;
+    private static final int FIRST_CHUNK_RECORDS = 1 << FIRST_CHUNK_BITS;
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_RECORDS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_RECORDS - 1;
+    // chunks that double the capacity, together they hold the first CHUNK_RECORDS slots
+    private static final int GROWING_CHUNKS = CHUNK_BITS - FIRST_CHUNK_BITS + 1;
+    private static final int ORDER_NO = 0;
+    private static final int SECURITY_ID = 8;
+    private static final int VOLUME = 12;
+    private static final int TRIGGER_PRICE = 16;
+    private static final int LIMIT_PRICE = 24;
+    private static final int UPPER_PRICE = 32;
+    private static final int TRAIL_AMOUNT = 40;
+    private static final int DIRECTION = 48;
+    private static final int TYPE = 49;
+    private static final int FLAGS = 50;
+    private static final byte CANCELLED = 1;
+    static final int NO_SLOT = OrderNumberIndex.NO_SLOT;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private OrderNumberIndex index = new OrderNumberIndex();
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+    private int capacity;
+    private int highWater;
+    private int freeHead = NO_SLOT;
+    private int size;
+
+    /**
+     * @return the slot the order is stored in
+     */
+    int add(Order order, int securityId) {
+        int slot = allocate();
+        ByteBuffer chunk = chunkOf(slot);
+        int offset = offsetOf(slot);
+        long orderNo = order.getOrderNo().longValueExact();
+        chunk.putLong(offset + ORDER_NO, orderNo);
+        chunk.putInt(offset + SECURITY_ID, securityId);
+        chunk.putInt(offset + VOLUME, order.getVolume());
+        chunk.putDouble(offset + TRIGGER_PRICE, order.getStock().getPrice());
+        chunk.putDouble(offset + LIMIT_PRICE, orNaN(order.getLimitPrice()));
+        chunk.putDouble(offset + UPPER_PRICE, orNaN(order.getUpperPrice()));
+        chunk.putDouble(offset + TRAIL_AMOUNT, orNaN(order.getTrailAmount()));
+        chunk.put(offset + DIRECTION, (byte) order.getDirection().ordinal());
+        chunk.put(offset + TYPE, (byte) order.getType().ordinal());
+        chunk.put(offset + FLAGS, (byte) 0);
+        index.put(orderNo, slot);
+        size++;
+        return slot;
+    }
+
+    void free(int slot) {
+        index.remove(orderNo(slot), slot);
+        chunkOf(slot).putLong(offsetOf(slot) + ORDER_NO, freeHead);
+        freeHead = slot;
+        size--;
+    }
+
+    /**
+     * @return the slot of the resting order with the order number, NO_SLOT when there is none (triggered, cancelled or never
+     * added)
+     */
+    int slotOf(long orderNo) {
+        return index.get(orderNo);
+    }
+
+    /**
+     * Takes the order out of the order number index and flags the slot, the slot stays allocated until it is freed
+     */
+    void cancel(int slot) {
+        index.remove(orderNo(slot), slot);
+        chunkOf(slot).put(offsetOf(slot) + FLAGS, CANCELLED);
+    }
+
+    boolean isCancelled(int slot) {
+        return chunkOf(slot).get(offsetOf(slot) + FLAGS) == CANCELLED;
+    }
+
+    long orderNo(int slot) {
+        return chunkOf(slot).getLong(offsetOf(slot) + ORDER_NO);
+    }
+
+    int securityId(int slot) {
+        return chunkOf(slot).getInt(offsetOf(slot) + SECURITY_ID);
+    }
+
+    double triggerPrice(int slot) {
+        return chunkOf(slot).getDouble(offsetOf(slot) + TRIGGER_PRICE);
+    }
+
+    Direction direction(int slot) {
+        return DIRECTIONS[chunkOf(slot).get(offsetOf(slot) + DIRECTION)];
+    }
+
+    OrderType type(int slot) {
+        return ORDER_TYPES[chunkOf(slot).get(offsetOf(slot) + TYPE)];
+    }
+
+    void setVolume(int slot, int volume) {
+        chunkOf(slot).putInt(offsetOf(slot) + VOLUME, volume);
+    }
+
+    /**
+     * @return a new Order with the content of the slot, the type is only set when it is not BELOW
+     */
+    Order toOrder(int slot) {
+        ByteBuffer chunk = chunkOf(slot);
+        int offset = offsetOf(slot);
+        Order order = new Order(BigInteger.valueOf(chunk.getLong(offset + ORDER_NO)),
+                new Stock(SecurityRegistry.securityOf(chunk.getInt(offset + SECURITY_ID)), chunk.getDouble(offset + TRIGGER_PRICE)),
+                chunk.getInt(offset + VOLUME), DIRECTIONS[chunk.get(offset + DIRECTION)]);
+        OrderType type = ORDER_TYPES[chunk.get(offset + TYPE)];
+        if (type != OrderType.BELOW) {
+            order.setType(type);
+            order.setLimitPrice(orNull(chunk.getDouble(offset + LIMIT_PRICE)));
+            order.setUpperPrice(orNull(chunk.getDouble(offset + UPPER_PRICE)));
+            order.setTrailAmount(orNull(chunk.getDouble(offset + TRAIL_AMOUNT)));
+        }
+        return order;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Off heap memory reserved by the store
+     */
+    long capacityBytes() {
+        return (long) capacity * RECORD_SIZE;
+    }
+
+    /**
+     * Drops every order and releases the chunks, the slots handed out before must not be used any more
+     */
+    void close() {
+        for (int i = 0; i < chunkCount; i++) {
+            release(chunks[i]);
+        }
+        chunks = new ByteBuffer[4];
+        chunkCount = 0;
+        capacity = 0;
+        highWater = 0;
+        freeHead = NO_SLOT;
+        size = 0;
+        index = new OrderNumberIndex();
+    }
+
+    private int allocate() {
+        if (freeHead != NO_SLOT) {
+            int slot = freeHead;
+            freeHead = (int) orderNo(slot);
+            return slot;
+        }
+        if (highWater == capacity) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount << 1);
+            }
+            int records = chunkRecords(chunkCount);
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(records * RECORD_SIZE).order(ByteOrder.nativeOrder());
+            capacity += records;
+        }
+        return highWater++;
+    }
+
+    private ByteBuffer chunkOf(int slot) {
+        return chunks[chunkIndex(slot)];
+    }
+
+    /**
+     * Chunk 0 holds the slots [0, FIRST_CHUNK_RECORDS), a growing chunk k the slots [FIRST_CHUNK_RECORDS << (k - 1),
+     * FIRST_CHUNK_RECORDS << k) and the next ones CHUNK_RECORDS slots each
+     */
+    static int chunkIndex(int slot) {
+        if (slot < CHUNK_RECORDS) {
+            return Integer.SIZE - Integer.numberOfLeadingZeros(slot >>> FIRST_CHUNK_BITS);
+        }
+        return GROWING_CHUNKS - 1 + (slot >>> CHUNK_BITS);
+    }
+
+    static int offsetOf(int slot) {
+        if (slot < CHUNK_RECORDS) {
+            return (slot - (Integer.highestOneBit(slot >>> FIRST_CHUNK_BITS) << FIRST_CHUNK_BITS)) * RECORD_SIZE;
+        }
+        return (slot & CHUNK_MASK) * RECORD_SIZE;
+    }
+
+    private static int chunkRecords(int chunkIndex) {
+        if (chunkIndex == 0) {
+            return FIRST_CHUNK_RECORDS;
+        }
+        return chunkIndex < GROWING_CHUNKS ? FIRST_CHUNK_RECORDS << (chunkIndex - 1) : CHUNK_RECORDS;
+    }
+
+    private static void release(ByteBuffer chunk) {
+        if (INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invokeExact(chunk);
+            } catch (Throwable e) {
+                // left to the garbage collector
+            }
+        }
+    }
+
+    /**
+     * @return Unsafe.invokeCleaner bound to the Unsafe instance, null when the JVM does not give access to it (the
+     * released chunks are then freed by the garbage collector)
+     */
+    private static MethodHandle invokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static double orNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
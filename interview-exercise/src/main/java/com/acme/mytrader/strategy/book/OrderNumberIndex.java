@@ -0,0 +1,120 @@
+package com.acme.mytrader.strategy.book;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Index from the order number (long) to the OffHeapOrderStore slot of the resting order, so an order is cancelled or
+ * amended without scanning the triggers of its security.
+ *
+ * 1. Open addressing over two primitive arrays (keys, slots) with linear probing, an empty bucket has the slot NO_SLOT,
+ * every long is a valid key (no reserved order number)
+ * 2. A removal shifts the following entries of the probe chain back (no tombstones), so a long session of place /
+ * cancel cycles does not degrade the lookups and the table does not have to be rebuilt
+ * 3. The table doubles when it is half full, it never shrinks (same as the chunks of the store)
+ *
+ * Note: this class is not thread safe, the owning book / strategy must ensure the single writer
+ * </pre>
+ */
+final class OrderNumberIndex {
+
+    static final int NO_SLOT = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] slots = newSlots(INITIAL_CAPACITY);
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+
+    /**
+     * @return the slot of the order number, NO_SLOT when it is not indexed
+     */
+    int get(long orderNo) {
+        for (int i = indexOf(orderNo); slots[i] != NO_SLOT; i = (i + 1) & mask) {
+            if (keys[i] == orderNo) {
+                return slots[i];
+            }
+        }
+        return NO_SLOT;
+    }
+
+    /**
+     * Maps the order number to the slot, a previous mapping of the order number is replaced
+     */
+    void put(long orderNo, int slot) {
+        int i = indexOf(orderNo);
+        for (; slots[i] != NO_SLOT; i = (i + 1) & mask) {
+            if (keys[i] == orderNo) {
+                slots[i] = slot;
+                return;
+            }
+        }
+        keys[i] = orderNo;
+        slots[i] = slot;
+        if (++size << 1 > keys.length) {
+            resize();
+        }
+    }
+
+    /**
+     * Removes the order number only when it is still mapped to the given slot
+     *
+     * @return false when the order number is not indexed or is mapped to another slot
+     */
+    boolean remove(long orderNo, int slot) {
+        int hole = indexOf(orderNo);
+        for (; slots[hole] != NO_SLOT; hole = (hole + 1) & mask) {
+            if (keys[hole] == orderNo) {
+                break;
+            }
+        }
+        if (slots[hole] != slot) {
+            return false;
+        }
+        // shift back the entries whose home bucket is not between the hole and their bucket
+        for (int i = (hole + 1) & mask; slots[i] != NO_SLOT; i = (i + 1) & mask) {
+            if (((i - indexOf(keys[i])) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                slots[hole] = slots[i];
+                hole = i;
+            }
+        }
+        slots[hole] = NO_SLOT;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int indexOf(long orderNo) {
+        long hash = orderNo * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length << 1];
+        slots = newSlots(keys.length);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != NO_SLOT) {
+                int j = indexOf(oldKeys[i]);
+                while (slots[j] != NO_SLOT) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                slots[j] = oldSlots[i];
+            }
+        }
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, NO_SLOT);
+        return slots;
+    }
+}
@@ -0,0 +1,268 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.constants.OrderType;
+import com.acme.mytrader.price.SecurityRegistry;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * <pre>
+ * Trigger book that indexes the resting orders per security and by trigger rule (see SecurityTriggers), the
+ * orders of a rule with a fixed level are sorted by trigger price (see TriggerLadder).
+ *
+ * On a price update only the triggers of the ticking security are touched and only the orders whose trigger rule is
+ * met are returned, they are removed from the book as part of the same call so an order can never fire twice.
+ * The triggers are kept in an array indexed by the SecurityRegistry id and the triggered orders are drained into a
+ * caller owned TriggeredOrders buffer, so a price update that triggers nothing does not allocate.
+ *
+ * The resting orders are not kept as Order objects: they are copied into an OffHeapOrderStore (long order number, int
+ * security id, primitive prices and volume) and the book only holds their int slots in primitive arrays, so the heap and
+ * the GC pauses stay flat as the book grows to millions of orders. The Order objects are only built when the orders
+ * leave the book (triggered, removed, forEach), they are equal to the placed ones but not the same instances.
+ *
+ * The resting orders are indexed by order number (see OrderNumberIndex), remove(orderNo) and amend find the order in
+ * O(1) whatever the size of the book. The order numbers are expected to be unique among the resting orders, when the
+ * same number rests twice the lookups by number find the last added order.
+ *
+ * close drops the resting orders and releases the off heap memory of the book at once, a book that is not used any
+ * more should be closed rather than left to the garbage collector (the direct memory is not part of the heap).
+ *
+ * Note: this class is not thread safe, same as the order list it replaces
+ * </pre>
+ */
+public class OrderTriggerBook {
+
+    private final OffHeapOrderStore store = new OffHeapOrderStore();
+    private SecurityTriggers[] triggers = new SecurityTriggers[16];
+    private int size;
+
+    /**
+     * @throws IllegalArgumentException when a price the order type needs is missing or invalid (see checkOrder)
+     */
+    public void add(Order order) {
+        assert Objects.nonNull(order);
+        checkOrder(order);
+        int securityId = SecurityRegistry.intern(order.getStock().getSecurity());
+        triggersOf(securityId).add(order);
+        size++;
+    }
+
+    /**
+     * Checks that the order carries the prices its order type needs, the book rejects the orders that fail the check
+     *
+     * @throws IllegalArgumentException when a price the order type needs is missing or invalid or the order number does
+     * not fit a long
+     */
+    public static void checkOrder(Order order) {
+        if (order.getOrderNo().bitLength() >= Long.SIZE) {
+            throw new IllegalArgumentException("Order number " + order.getOrderNo() + " does not fit a long");
+        }
+        OrderType type = order.getType();
+        if (type == OrderType.STOP_LIMIT && order.getLimitPrice() == null) {
+            throw new IllegalArgumentException("Stop limit order " + order.getOrderNo() + " has no limit price");
+        }
+        if (type == OrderType.TRAILING_STOP && !(order.getTrailAmount() != null && order.getTrailAmount() > 0)) {
+            throw new IllegalArgumentException("Trailing stop order " + order.getOrderNo() + " needs a positive trail amount");
+        }
+        if (type == OrderType.PRICE_BAND && !(order.getUpperPrice() != null && order.getUpperPrice() > order.getStock().getPrice())) {
+            throw new IllegalArgumentException("Price band order " + order.getOrderNo() + " needs an upper price above its trigger price");
+        }
+    }
+
+    /**
+     * Drains the orders of the security that are triggered by the live price into the given buffer
+     *
+     * @return number of orders triggered
+     */
+    public int drainTriggered(int securityId, double livePrice, TriggeredOrders triggered) {
+        if (securityId < 0 || securityId >= triggers.length) {
+            return 0;
+        }
+        SecurityTriggers securityTriggers = triggers[securityId];
+        if (securityTriggers == null || securityTriggers.isEmpty()) {
+            return 0;
+        }
+        int fired = securityTriggers.drain(livePrice, triggered);
+        size -= fired;
+        return fired;
+    }
+
+    public int drainTriggered(String security, double livePrice, TriggeredOrders triggered) {
+        return drainTriggered(SecurityRegistry.idOf(security), livePrice, triggered);
+    }
+
+    /**
+     * Removes a resting order, it is looked up with its order number and must have the same security, order type and
+     * trigger price
+     *
+     * @return the removed order, null when the order is not in the book (already triggered or never placed)
+     */
+    public Order remove(Order order) {
+        assert Objects.nonNull(order);
+        int slot = slotOf(order.getOrderNo());
+        if (slot == OffHeapOrderStore.NO_SLOT || !isSameTrigger(slot, order)) {
+            return null;
+        }
+        Order removed = store.toOrder(slot);
+        cancel(slot);
+        return removed;
+    }
+
+    /**
+     * Removes the resting order with the order number, O(1)
+     *
+     * @return the removed order, null when no order with that number is resting (already triggered, cancelled or never
+     * placed)
+     */
+    public Order remove(long orderNo) {
+        int slot = store.slotOf(orderNo);
+        if (slot == OffHeapOrderStore.NO_SLOT) {
+            return null;
+        }
+        Order removed = store.toOrder(slot);
+        cancel(slot);
+        return removed;
+    }
+
+    /**
+     * Replaces the resting order that has the order number of the amended one, O(1) (plus the add of the amended order
+     * when its trigger changes). A change of the volume only is applied in place, the order keeps its priority (and the
+     * highest price seen by a trailing stop), any other change cancels the order and adds the amended one
+     *
+     * @return the replaced order, null when no order with that number is resting (the amended order is not added)
+     * @throws IllegalArgumentException when a price the amended order type needs is missing or invalid (see checkOrder)
+     */
+    public Order amend(Order amended) {
+        assert Objects.nonNull(amended);
+        checkOrder(amended);
+        int slot = store.slotOf(amended.getOrderNo().longValue());
+        if (slot == OffHeapOrderStore.NO_SLOT) {
+            return null;
+        }
+        Order replaced = store.toOrder(slot);
+        if (isSameTriggerRule(replaced, amended)) {
+            store.setVolume(slot, amended.getVolume());
+        } else {
+            cancel(slot);
+            add(amended);
+        }
+        return replaced;
+    }
+
+    /**
+     * @return true when an order with the order number is resting, O(1) and without allocation
+     */
+    public boolean contains(long orderNo) {
+        return store.slotOf(orderNo) != OffHeapOrderStore.NO_SLOT;
+    }
+
+    /**
+     * @return the resting order with the order number, null when there is none
+     */
+    public Order get(long orderNo) {
+        int slot = store.slotOf(orderNo);
+        return slot == OffHeapOrderStore.NO_SLOT ? null : store.toOrder(slot);
+    }
+
+    /**
+     * Visits every resting order, security by security and trigger rule by trigger rule, the orders with a fixed level
+     * from the lowest to the highest trigger price
+     */
+    public void forEach(Consumer<? super Order> action) {
+        for (SecurityTriggers securityTriggers : triggers) {
+            if (securityTriggers != null) {
+                securityTriggers.forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Visits the SecurityRegistry ids of the securities that have resting orders, in id order
+     */
+    public void forEachSecurity(IntConsumer action) {
+        for (int securityId = 0; securityId < triggers.length; securityId++) {
+            if (triggers[securityId] != null && !triggers[securityId].isEmpty()) {
+                action.accept(securityId);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int size(String security) {
+        return size(SecurityRegistry.idOf(security));
+    }
+
+    /**
+     * Number of resting orders of the security, it does not allocate
+     */
+    public int size(int securityId) {
+        if (securityId < 0 || securityId >= triggers.length || triggers[securityId] == null) {
+            return 0;
+        }
+        return triggers[securityId].size();
+    }
+
+    /**
+     * Off heap memory reserved for the resting orders
+     */
+    public long getOffHeapBytes() {
+        return store.capacityBytes();
+    }
+
+    /**
+     * Drops every resting order and releases the off heap memory, the book is empty afterwards and can be used again
+     */
+    public void close() {
+        triggers = new SecurityTriggers[16];
+        size = 0;
+        store.close();
+    }
+
+    /**
+     * @return true when the amended order only changes the volume of the resting one (amend applies it in place)
+     */
+    public static boolean isSameTriggerRule(Order resting, Order amended) {
+        return resting.getStock().getSecurity().equals(amended.getStock().getSecurity())
+                && resting.getStock().getPrice().equals(amended.getStock().getPrice())
+                && resting.getDirection() == amended.getDirection()
+                && resting.getType() == amended.getType()
+                && Objects.equals(resting.getLimitPrice(), amended.getLimitPrice())
+                && Objects.equals(resting.getUpperPrice(), amended.getUpperPrice())
+                && Objects.equals(resting.getTrailAmount(), amended.getTrailAmount());
+    }
+
+    private int slotOf(BigInteger orderNo) {
+        return orderNo.bitLength() >= Long.SIZE ? OffHeapOrderStore.NO_SLOT : store.slotOf(orderNo.longValue());
+    }
+
+    private boolean isSameTrigger(int slot, Order order) {
+        return store.securityId(slot) == SecurityRegistry.idOf(order.getStock().getSecurity())
+                && store.type(slot) == order.getType()
+                && store.triggerPrice(slot) == order.getStock().getPrice();
+    }
+
+    private void cancel(int slot) {
+        triggers[store.securityId(slot)].cancel(slot);
+        size--;
+    }
+
+    private SecurityTriggers triggersOf(int securityId) {
+        if (securityId >= triggers.length) {
+            triggers = Arrays.copyOf(triggers, Math.max(securityId + 1, triggers.length << 1));
+        }
+        SecurityTriggers securityTriggers = triggers[securityId];
+        if (securityTriggers == null) {
+            securityTriggers = new SecurityTriggers(store, securityId);
+            triggers[securityId] = securityTriggers;
+        }
+        return securityTriggers;
+    }
+}
@@ -0,0 +1,110 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * <pre>
+ * Price band orders of a single security, an order fires when the live price is strictly inside its (lower, upper) band.
+ *
+ * The bands overlap freely so every tick runs one pass over the primitive bounds and compacts the fired orders away
+ * (placement order is kept). The orders are slots of the OffHeapOrderStore of the book.
+ * Note: this class is not thread safe, the owning book / strategy must ensure the single writer
+ * </pre>
+ */
+final class PriceBands {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final OffHeapOrderStore store;
+    private double[] lowers = new double[INITIAL_CAPACITY];
+    private double[] uppers = new double[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int size;
+    private int cancelled;
+
+    PriceBands(OffHeapOrderStore store) {
+        this.store = store;
+    }
+
+    void add(double lower, double upper, int slot) {
+        if (size == slots.length) {
+            int newCapacity = size << 1;
+            lowers = Arrays.copyOf(lowers, newCapacity);
+            uppers = Arrays.copyOf(uppers, newCapacity);
+            slots = Arrays.copyOf(slots, newCapacity);
+        }
+        lowers[size] = lower;
+        uppers[size] = upper;
+        slots[size] = slot;
+        size++;
+    }
+
+    /**
+     * Moves the orders whose band contains the price into the triggered buffer
+     */
+    int drain(double price, TriggeredOrders triggered) {
+        int kept = 0;
+        int fired = 0;
+        for (int i = 0; i < size; i++) {
+            if (cancelled > 0 && store.isCancelled(slots[i])) {
+                store.free(slots[i]);
+                continue;
+            }
+            if (price > lowers[i] && price < uppers[i]) {
+                triggered.add(store.toOrder(slots[i]));
+                store.free(slots[i]);
+                fired++;
+            } else {
+                lowers[kept] = lowers[i];
+                uppers[kept] = uppers[i];
+                slots[kept] = slots[i];
+                kept++;
+            }
+        }
+        size = kept;
+        cancelled = 0;
+        return fired;
+    }
+
+    /**
+     * Counts a slot that the store has just flagged as cancelled
+     */
+    void cancelled() {
+        cancelled++;
+        if (cancelled << 1 <= size) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (store.isCancelled(slots[i])) {
+                store.free(slots[i]);
+            } else {
+                lowers[kept] = lowers[i];
+                uppers[kept] = uppers[i];
+                slots[kept] = slots[i];
+                kept++;
+            }
+        }
+        size = kept;
+        cancelled = 0;
+    }
+
+    void forEach(Consumer<? super Order> action) {
+        for (int i = 0; i < size; i++) {
+            if (cancelled == 0 || !store.isCancelled(slots[i])) {
+                action.accept(store.toOrder(slots[i]));
+            }
+        }
+    }
+
+    int size() {
+        return size - cancelled;
+    }
+
+    boolean isEmpty() {
+        return size == cancelled;
+    }
+}
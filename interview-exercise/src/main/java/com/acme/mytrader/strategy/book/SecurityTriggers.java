@@ -0,0 +1,179 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
+
+import java.util.function.Consumer;
+
+/**
+ * <pre>
+ * Resting orders of a single security, compiled by order type into the evaluation path that suits its trigger rule:
+ *
+ * - below: TriggerLadder of the orders that fire when the price falls below their level (BELOW, SELL STOP_LIMIT)
+ * - above: TriggerLadder of the negated levels of the orders that fire when the price rises above their level (ABOVE,
+ * BUY STOP_LIMIT), a rise above the level is a fall below the negated level so the same drainAbove is used
+ * - trailingSells / trailingBuys: TrailingStops, the BUY side on the negated prices
+ * - bands: PriceBands
+ *
+ * The order type is looked at once when the order is added, a tick only calls the paths that hold orders, each path
+ * is a concrete class (direct calls, no predicate or virtual call per order). A book of BELOW orders only does what the
+ * single rule book did plus 4 null checks.
+ * The orders are copied into the OffHeapOrderStore of the book, the paths keep their slots.
+ * Note: this class is not thread safe, the owning book / strategy must ensure the single writer
+ * </pre>
+ */
+final class SecurityTriggers {
+
+    private final OffHeapOrderStore store;
+    private final int securityId;
+    private TriggerLadder below;
+    private TriggerLadder above;
+    private TrailingStops trailingSells;
+    private TrailingStops trailingBuys;
+    private PriceBands bands;
+    private int size;
+
+    SecurityTriggers(OffHeapOrderStore store, int securityId) {
+        this.store = store;
+        this.securityId = securityId;
+    }
+
+    void add(Order order) {
+        double triggerPrice = order.getStock().getPrice();
+        int slot = store.add(order, securityId);
+        switch (order.getType()) {
+            case BELOW:
+                below().add(triggerPrice, slot);
+                break;
+            case ABOVE:
+                above().add(-triggerPrice, slot);
+                break;
+            case STOP_LIMIT:
+                if (order.getDirection() == Direction.BUY) {
+                    above().add(-triggerPrice, slot);
+                } else {
+                    below().add(triggerPrice, slot);
+                }
+                break;
+            case TRAILING_STOP:
+                if (order.getDirection() == Direction.BUY) {
+                    trailingBuys().add(-triggerPrice, order.getTrailAmount(), slot);
+                } else {
+                    trailingSells().add(triggerPrice, order.getTrailAmount(), slot);
+                }
+                break;
+            case PRICE_BAND:
+                bands().add(triggerPrice, order.getUpperPrice(), slot);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported order type " + order.getType());
+        }
+        size++;
+    }
+
+    /**
+     * @return number of orders triggered by the price
+     */
+    int drain(double price, TriggeredOrders triggered) {
+        int fired = 0;
+        if (below != null && !below.isEmpty()) {
+            fired += below.drainAbove(price, triggered);
+        }
+        if (above != null && !above.isEmpty()) {
+            fired += above.drainAbove(-price, triggered);
+        }
+        if (trailingSells != null && !trailingSells.isEmpty()) {
+            fired += trailingSells.drain(price, triggered);
+        }
+        if (trailingBuys != null && !trailingBuys.isEmpty()) {
+            fired += trailingBuys.drain(-price, triggered);
+        }
+        if (bands != null && !bands.isEmpty()) {
+            fired += bands.drain(price, triggered);
+        }
+        size -= fired;
+        return fired;
+    }
+
+    /**
+     * Cancels the resting order of the slot, the path the order was added to is found with its stored type and
+     * direction, the slot is freed by that path later on (see TriggerLadder)
+     */
+    void cancel(int slot) {
+        OrderType type = store.type(slot);
+        boolean buy = store.direction(slot) == Direction.BUY;
+        store.cancel(slot);
+        if (type == OrderType.BELOW || (type == OrderType.STOP_LIMIT && !buy)) {
+            below.cancelled();
+        } else if (type == OrderType.ABOVE || type == OrderType.STOP_LIMIT) {
+            above.cancelled();
+        } else if (type == OrderType.TRAILING_STOP) {
+            (buy ? trailingBuys : trailingSells).cancelled();
+        } else {
+            bands.cancelled();
+        }
+        size--;
+    }
+
+    void forEach(Consumer<? super Order> action) {
+        if (below != null) {
+            below.forEach(action);
+        }
+        if (above != null) {
+            above.forEach(action);
+        }
+        if (trailingSells != null) {
+            trailingSells.forEach(action);
+        }
+        if (trailingBuys != null) {
+            trailingBuys.forEach(action);
+        }
+        if (bands != null) {
+            bands.forEach(action);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private TriggerLadder below() {
+        if (below == null) {
+            below = new TriggerLadder(store);
+        }
+        return below;
+    }
+
+    private TriggerLadder above() {
+        if (above == null) {
+            above = new TriggerLadder(store);
+        }
+        return above;
+    }
+
+    private TrailingStops trailingSells() {
+        if (trailingSells == null) {
+            trailingSells = new TrailingStops(store);
+        }
+        return trailingSells;
+    }
+
+    private TrailingStops trailingBuys() {
+        if (trailingBuys == null) {
+            trailingBuys = new TrailingStops(store);
+        }
+        return trailingBuys;
+    }
+
+    private PriceBands bands() {
+        if (bands == null) {
+            bands = new PriceBands(store);
+        }
+        return bands;
+    }
+}
@@ -0,0 +1,115 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * <pre>
+ * Trailing stops of a single security that fire when the value falls more than their trail amount below the highest
+ * value seen since they were placed (SELL side). The BUY side is kept in another instance that is given the negated
+ * prices, so the same loop serves both.
+ *
+ * The stops move on every tick, they cannot be kept sorted by level: every tick runs one pass over primitive arrays
+ * that raises the highest value and compacts the fired orders away (placement order is kept). The orders are slots of
+ * the OffHeapOrderStore of the book, a cancelled order is dropped by the next pass or by a compaction once the cancelled
+ * slots outnumber the live ones (see TriggerLadder).
+ * Note: this class is not thread safe, the owning book / strategy must ensure the single writer
+ * </pre>
+ */
+final class TrailingStops {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final OffHeapOrderStore store;
+    private double[] highest = new double[INITIAL_CAPACITY];
+    private double[] trailAmounts = new double[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int size;
+    private int cancelled;
+
+    TrailingStops(OffHeapOrderStore store) {
+        this.store = store;
+    }
+
+    void add(double start, double trailAmount, int slot) {
+        if (size == slots.length) {
+            int newCapacity = size << 1;
+            highest = Arrays.copyOf(highest, newCapacity);
+            trailAmounts = Arrays.copyOf(trailAmounts, newCapacity);
+            slots = Arrays.copyOf(slots, newCapacity);
+        }
+        highest[size] = start;
+        trailAmounts[size] = trailAmount;
+        slots[size] = slot;
+        size++;
+    }
+
+    /**
+     * Raises the highest value of every stop to the given value and moves the stops it falls below into the triggered buffer
+     */
+    int drain(double value, TriggeredOrders triggered) {
+        int kept = 0;
+        int fired = 0;
+        for (int i = 0; i < size; i++) {
+            if (cancelled > 0 && store.isCancelled(slots[i])) {
+                store.free(slots[i]);
+                continue;
+            }
+            double high = Math.max(highest[i], value);
+            if (value < high - trailAmounts[i]) {
+                triggered.add(store.toOrder(slots[i]));
+                store.free(slots[i]);
+                fired++;
+            } else {
+                highest[kept] = high;
+                trailAmounts[kept] = trailAmounts[i];
+                slots[kept] = slots[i];
+                kept++;
+            }
+        }
+        size = kept;
+        cancelled = 0;
+        return fired;
+    }
+
+    /**
+     * Counts a slot that the store has just flagged as cancelled
+     */
+    void cancelled() {
+        cancelled++;
+        if (cancelled << 1 <= size) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (store.isCancelled(slots[i])) {
+                store.free(slots[i]);
+            } else {
+                highest[kept] = highest[i];
+                trailAmounts[kept] = trailAmounts[i];
+                slots[kept] = slots[i];
+                kept++;
+            }
+        }
+        size = kept;
+        cancelled = 0;
+    }
+
+    void forEach(Consumer<? super Order> action) {
+        for (int i = 0; i < size; i++) {
+            if (cancelled == 0 || !store.isCancelled(slots[i])) {
+                action.accept(store.toOrder(slots[i]));
+            }
+        }
+    }
+
+    int size() {
+        return size - cancelled;
+    }
+
+    boolean isEmpty() {
+        return size == cancelled;
+    }
+}
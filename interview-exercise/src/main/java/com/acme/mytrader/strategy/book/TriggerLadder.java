@@ -0,0 +1,145 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * <pre>
+ * Resting orders of a single security kept sorted (ascending) on their trigger level.
+ *
+ * The trade rule fires an order when the live price is below its trigger level, so the orders to fire on a tick are always
+ * the tail of the ladder: a binary search finds the first level above the live price and everything from there to the end
+ * is drained and the ladder is truncated. This gives O(log n + k) per tick instead of scanning every resting order.
+ *
+ * Orders with the same level are kept in placement order so that they fire FIFO.
+ * The orders are kept as slots of the OffHeapOrderStore of the book, a drained order is handed out as an Order view
+ * and its slot is freed.
+ * A cancelled order is not looked for (its slot is flagged by the store, see cancelled), it is skipped and freed by the
+ * next drain that reaches it or by a compaction once the cancelled slots outnumber the live ones, so a cancel is O(1)
+ * amortized and the ladder stays within twice its live orders.
+ * The orders that fire when the price rises above their level are kept in a ladder of the negated levels and drained
+ * with the negated price (see SecurityTriggers).
+ * Note: this class is not thread safe, the owning book / strategy must ensure the single writer
+ * </pre>
+ */
+class TriggerLadder {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final OffHeapOrderStore store;
+    private double[] levels = new double[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int size;
+    private int cancelled;
+
+    TriggerLadder(OffHeapOrderStore store) {
+        this.store = store;
+    }
+
+    void add(double level, int slot) {
+        ensureCapacity(size + 1);
+        int index = upperBound(level);
+        System.arraycopy(levels, index, levels, index + 1, size - index);
+        System.arraycopy(slots, index, slots, index + 1, size - index);
+        levels[index] = level;
+        slots[index] = slot;
+        size++;
+    }
+
+    /**
+     * Moves every order whose trigger level is above the given price into the triggered buffer and removes them from the ladder
+     */
+    int drainAbove(double price, TriggeredOrders triggered) {
+        int from = upperBound(price);
+        int fired = 0;
+        for (int i = from; i < size; i++) {
+            int slot = slots[i];
+            if (cancelled > 0 && store.isCancelled(slot)) {
+                cancelled--;
+            } else {
+                triggered.add(store.toOrder(slot));
+                fired++;
+            }
+            store.free(slot);
+        }
+        size = from;
+        compactIfSparse();
+        return fired;
+    }
+
+    /**
+     * Counts a slot of the ladder that the store has just flagged as cancelled
+     */
+    void cancelled() {
+        cancelled++;
+        compactIfSparse();
+    }
+
+    /**
+     * Orders from the lowest to the highest level, FIFO within a level
+     */
+    void forEach(Consumer<? super Order> action) {
+        for (int i = 0; i < size; i++) {
+            if (cancelled == 0 || !store.isCancelled(slots[i])) {
+                action.accept(store.toOrder(slots[i]));
+            }
+        }
+    }
+
+    int size() {
+        return size - cancelled;
+    }
+
+    boolean isEmpty() {
+        return size == cancelled;
+    }
+
+    /**
+     * Frees the cancelled slots once they outnumber the live ones, the order of the live slots is kept
+     */
+    private void compactIfSparse() {
+        if (cancelled << 1 <= size) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = slots[i];
+            if (store.isCancelled(slot)) {
+                store.free(slot);
+            } else {
+                levels[kept] = levels[i];
+                slots[kept] = slot;
+                kept++;
+            }
+        }
+        size = kept;
+        cancelled = 0;
+    }
+
+    /**
+     * First index whose level is strictly greater than the given value
+     */
+    private int upperBound(double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (levels[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > levels.length) {
+            int newCapacity = Math.max(capacity, levels.length << 1);
+            levels = Arrays.copyOf(levels, newCapacity);
+            slots = Arrays.copyOf(slots, newCapacity);
+        }
+    }
+}
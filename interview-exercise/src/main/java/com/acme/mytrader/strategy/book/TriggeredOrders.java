@@ -0,0 +1,55 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Reusable buffer the OrderTriggerBook drains the triggered orders into, it is cleared and reused on every tick
+ * so that the tick processing does not allocate once the buffer has grown to the biggest burst of triggered orders.
+ * </pre>
+ */
+public class TriggeredOrders {
+
+    private Order[] orders;
+    private int size;
+
+    public TriggeredOrders() {
+        this(16);
+    }
+
+    public TriggeredOrders(int initialCapacity) {
+        this.orders = new Order[Math.max(1, initialCapacity)];
+    }
+
+    public void add(Order order) {
+        if (size == orders.length) {
+            orders = Arrays.copyOf(orders, size << 1);
+        }
+        orders[size++] = order;
+    }
+
+    public Order get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return orders[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Empties the buffer, the references are released so the fired orders can be collected
+     */
+    public void clear() {
+        Arrays.fill(orders, 0, size, null);
+        size = 0;
+    }
+}
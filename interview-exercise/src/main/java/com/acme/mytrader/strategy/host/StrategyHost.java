@@ -0,0 +1,131 @@
+package com.acme.mytrader.strategy.host;
+
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.SubscriptionListener;
+import com.acme.mytrader.strategy.TradingStrategy;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <pre>
+ * Runs many trading strategies off a single price listener, e.g.
+ *
+ *   StrategyHost host = new StrategyHost(priceSource);
+ *   TradingStrategy strategy = new TradingStrategy(executionService);   // not registered with the price source
+ *   host.addStrategy(strategy);
+ *   strategy.placeOrder(order);
+ *
+ * 1. The host is the only listener of the price source, a tick is decoded once (SecurityRegistry id, primitive price)
+ * instead of once per strategy
+ * 2. The strategies tell the host when they start / stop having resting orders in a security (SubscriptionListener),
+ * the host keeps them in a per security SubscriptionIndex so a tick is only handed to the strategies that have orders
+ * in the ticking security; a tick of a security nobody trades costs one array lookup
+ * 3. The strategies must be created without a price source, else they would also get every tick from their own
+ * StockPriceUpdateObserver
+ * 4. A strategy that is done with is closed through closeStrategy, the off heap memory of its book is released at once
+ * so thousands of strategies can come and go without running out of direct memory
+ *
+ * Note: this class is not thread safe, same as the TradingStrategy the ticks, the orders and the strategies must be
+ * handled on one thread (e.g. the feed thread, a RingBufferPriceSource consumer)
+ * </pre>
+ */
+public class StrategyHost implements SecurityPriceListener, SubscriptionListener {
+
+    private final PriceSource priceSource;
+    private final SubscriptionIndex subscriptions = new SubscriptionIndex();
+    private final Set<TradingStrategy> strategies = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Host that registers itself with the price source
+     */
+    public StrategyHost(PriceSource priceSource) {
+        assert Objects.nonNull(priceSource);
+        this.priceSource = priceSource;
+        this.priceSource.addPriceListener(this);
+    }
+
+    /**
+     * Host that is not registered with a price source, the owner calls priceUpdate
+     */
+    public StrategyHost() {
+        this.priceSource = null;
+    }
+
+    /**
+     * Hosts the strategy, it is subscribed to the securities it already has resting orders in (e.g. recovered from its
+     * journal)
+     */
+    public void addStrategy(TradingStrategy strategy) {
+        assert Objects.nonNull(strategy);
+        if (strategies.add(strategy)) {
+            strategy.setSubscriptionListener(this);
+            strategy.forEachSecurity(securityId -> subscriptions.subscribe(securityId, strategy));
+        }
+    }
+
+    /**
+     * Stops dispatching the ticks to the strategy, its resting orders are left untouched
+     */
+    public void removeStrategy(TradingStrategy strategy) {
+        assert Objects.nonNull(strategy);
+        if (strategies.remove(strategy)) {
+            strategy.setSubscriptionListener(null);
+            strategy.forEachSecurity(securityId -> subscriptions.unsubscribe(securityId, strategy));
+        }
+    }
+
+    /**
+     * Removes the strategy and closes it (see TradingStrategy.close), its resting orders are dropped
+     */
+    public void closeStrategy(TradingStrategy strategy) {
+        removeStrategy(strategy);
+        strategy.close();
+    }
+
+    @Override
+    public void priceUpdate(int securityId, double price) {
+        TradingStrategy[] subscribers = subscriptions.subscribers(securityId);
+        for (TradingStrategy strategy : subscribers) {
+            strategy.priceUpdate(securityId, price);
+        }
+    }
+
+    @Override
+    public void subscribed(TradingStrategy strategy, int securityId) {
+        subscriptions.subscribe(securityId, strategy);
+    }
+
+    @Override
+    public void unsubscribed(TradingStrategy strategy, int securityId) {
+        subscriptions.unsubscribe(securityId, strategy);
+    }
+
+    public int getStrategyCount() {
+        return strategies.size();
+    }
+
+    /**
+     * Number of strategies a tick of the security is handed to
+     */
+    public int getSubscriberCount(String security) {
+        return subscriptions.subscribers(SecurityRegistry.idOf(security)).length;
+    }
+
+    /**
+     * Number of (security, strategy) pairs with resting orders
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    public void shutDown() {
+        if (priceSource != null) {
+            priceSource.removePriceListener(this);
+        }
+    }
+}
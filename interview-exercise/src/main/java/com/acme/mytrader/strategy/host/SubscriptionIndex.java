@@ -0,0 +1,89 @@
+package com.acme.mytrader.strategy.host;
+
+import com.acme.mytrader.strategy.TradingStrategy;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Strategies subscribed to each security, indexed by SecurityRegistry id.
+ *
+ * The strategies of a security are kept in an exact size array that is replaced (copy on write) when a strategy
+ * subscribes or unsubscribes, so a tick iterates a plain array and a strategy can unsubscribe while the ticks of its
+ * security are being dispatched (the dispatch carries on with the array it started with).
+ *
+ * Note: this class is not thread safe, the owning StrategyHost must ensure the single writer
+ * </pre>
+ */
+final class SubscriptionIndex {
+
+    private static final TradingStrategy[] NONE = new TradingStrategy[0];
+
+    private TradingStrategy[][] subscribers = new TradingStrategy[16][];
+    private int size;
+
+    /**
+     * @return the strategies subscribed to the security, the array must not be modified
+     */
+    TradingStrategy[] subscribers(int securityId) {
+        if (securityId < 0 || securityId >= subscribers.length || subscribers[securityId] == null) {
+            return NONE;
+        }
+        return subscribers[securityId];
+    }
+
+    /**
+     * @return false when the strategy is already subscribed to the security
+     */
+    boolean subscribe(int securityId, TradingStrategy strategy) {
+        if (securityId >= subscribers.length) {
+            subscribers = Arrays.copyOf(subscribers, Math.max(securityId + 1, subscribers.length << 1));
+        }
+        TradingStrategy[] current = subscribers(securityId);
+        if (indexOf(current, strategy) >= 0) {
+            return false;
+        }
+        TradingStrategy[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = strategy;
+        subscribers[securityId] = updated;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return false when the strategy is not subscribed to the security
+     */
+    boolean unsubscribe(int securityId, TradingStrategy strategy) {
+        TradingStrategy[] current = subscribers(securityId);
+        int index = indexOf(current, strategy);
+        if (index < 0) {
+            return false;
+        }
+        if (current.length == 1) {
+            subscribers[securityId] = null;
+        } else {
+            TradingStrategy[] updated = new TradingStrategy[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, updated.length - index);
+            subscribers[securityId] = updated;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Number of (security, strategy) subscriptions
+     */
+    int size() {
+        return size;
+    }
+
+    private static int indexOf(TradingStrategy[] strategies, TradingStrategy strategy) {
+        for (int i = 0; i < strategies.length; i++) {
+            if (strategies[i] == strategy) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
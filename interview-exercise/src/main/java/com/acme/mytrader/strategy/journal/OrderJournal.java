@@ -0,0 +1,55 @@
+package com.acme.mytrader.strategy.journal;
+
+import com.acme.mytrader.entity.Order;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <pre>
+ * Write ahead log of the order state of a TradingStrategy, the strategy records every change before applying it
+ *
+ * 1. placed / fired / cancelled / amended append a record and return without waiting for the storage device, the records are
+ * made durable in groups (group commit), sync waits until everything appended so far is durable
+ * 2. The orders resting when the journal was last written are recovered when the journal is opened (snapshot + log)
+ * 3. A snapshot of the resting orders replaces the log written before it, so the recovery does not replay the whole
+ * history, the strategy takes one whenever isSnapshotDue
+ * </pre>
+ */
+public interface OrderJournal extends Closeable {
+
+    void placed(Order order);
+
+    void fired(Order order);
+
+    void cancelled(Order order);
+
+    /**
+     * The volume of the resting order with the same order number changed, the order keeps its place among the resting
+     * orders (an amendment that changes the trigger rule is recorded as cancelled + placed)
+     */
+    void amended(Order order);
+
+    /**
+     * @return the orders that were resting when the journal was opened, in the order they were placed
+     */
+    List<Order> recoveredOrders();
+
+    boolean isSnapshotDue();
+
+    /**
+     * Writes the given resting orders as the new recovery baseline, it must be called by the thread that records the
+     * changes so the orders are the state after the last record. The write may happen later on a thread of the journal,
+     * the collection is handed over and must not be changed by the caller afterwards
+     */
+    void snapshot(Collection<Order> restingOrders);
+
+    /**
+     * Waits until every record appended so far is durable
+     */
+    void sync();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,570 @@
+package com.acme.mytrader.strategy.journal.impl;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
+import com.acme.mytrader.strategy.journal.OrderJournal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * <pre>
+ * OrderJournal kept in a directory of log files and snapshots
+ *
+ * 1. The records are appended to an in memory buffer, the "order-journal-flusher" thread swaps it with a second buffer,
+ * writes it to the current log and forces it to the device, so one fsync makes all the records appended while the
+ * previous fsync was running durable (group commit). The appenders only wait when both buffers are full
+ * 2. A record is framed as [int length][int crc32][payload], the recovery stops at the first torn / corrupt record
+ * (the tail of a crash) and the log is truncated there
+ * 3. A snapshot only hands the resting orders to the flusher and returns, the tick / placement thread does not wait for
+ * the disk. With its next group commit the flusher writes the records appended before the snapshot to the current log,
+ * rolls the log (orders-[sequence].log holds the records from that sequence), writes the resting orders to
+ * snapshot-[sequence].bin (temporary file + atomic rename) and deletes the older logs and snapshots. A crash in the
+ * middle leaves the previous snapshot and all the logs after it. A snapshot requested before the flusher took the
+ * previous one replaces it
+ * 4. Recovery loads the latest snapshot and replays the logs written after it, the records are binary and read
+ * sequentially from memory, millions of orders are recovered in a few seconds
+ * 5. The placement of an order with an OrderType other than BELOW is a typed placed record that also holds the type,
+ * limit price, upper price and trail amount, the journals written before the order types are read as they are
+ * 6. An amended record only holds the order number and the new volume, the recovered order keeps its place in the
+ * placement order (and so its priority in the book)
+ * 7. A flusher that fails (an IOException or any other Throwable, an interrupt included) fails the journal: every
+ * waiting and later append / sync throws an UncheckedIOException
+ *
+ * Note: the fired record is written before the order is sent to the ExecutionService but the strategy does not wait for
+ * it to be durable, an order fired less than one group commit before a crash is recovered as resting
+ * </pre>
+ */
+public class FileOrderJournal implements OrderJournal, Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(FileOrderJournal.class.getName());
+    private static final long DEFAULT_SNAPSHOT_INTERVAL = 1_000_000;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int HEADER_SIZE = 8;
+    private static final byte PLACED = 1;
+    private static final byte FIRED = 2;
+    private static final byte CANCELLED = 3;
+    private static final byte PLACED_TYPED = 4;
+    private static final byte AMENDED = 5;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final String LOG_PREFIX = "orders-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final long snapshotInterval;
+    private final Object lock = new Object();
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+    private final List<Order> recoveredOrders;
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer flushing = ByteBuffer.allocate(BUFFER_SIZE);
+    private FileChannel channel;
+    private volatile long appendedSequence;
+    private volatile long durableSequence;
+    private volatile long snapshotSequence;
+    private volatile long syncCount;
+    private PendingSnapshot pendingSnapshot;
+    private boolean writingSnapshot;
+    private boolean flusherIdle;
+    private boolean running = true;
+    private IOException failure;
+
+    public FileOrderJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * @param snapshotInterval number of records after which a snapshot is due
+     */
+    public FileOrderJournal(Path directory, long snapshotInterval) throws IOException {
+        assert Objects.nonNull(directory) && snapshotInterval > 0;
+        this.directory = Files.createDirectories(directory);
+        this.snapshotInterval = snapshotInterval;
+        this.recoveredOrders = Collections.unmodifiableList(recover());
+        this.durableSequence = appendedSequence;
+        this.channel = openLog(appendedSequence);
+        this.flusher = new Thread(this, "order-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void placed(Order order) {
+        append(PLACED, order);
+    }
+
+    @Override
+    public void fired(Order order) {
+        append(FIRED, order);
+    }
+
+    @Override
+    public void cancelled(Order order) {
+        append(CANCELLED, order);
+    }
+
+    @Override
+    public void amended(Order order) {
+        append(AMENDED, order);
+    }
+
+    @Override
+    public List<Order> recoveredOrders() {
+        return recoveredOrders;
+    }
+
+    @Override
+    public boolean isSnapshotDue() {
+        return appendedSequence - snapshotSequence >= snapshotInterval;
+    }
+
+    @Override
+    public void snapshot(Collection<Order> restingOrders) {
+        synchronized (lock) {
+            checkFailure();
+            // the pending records before the offset belong to the log the snapshot replaces
+            pendingSnapshot = new PendingSnapshot(appendedSequence, pending.position(), restingOrders);
+            snapshotSequence = appendedSequence;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Also waits for the snapshot requested so far to be written
+     */
+    @Override
+    public void sync() {
+        synchronized (lock) {
+            long sequence = appendedSequence;
+            while (durableSequence < sequence || pendingSnapshot != null || writingSnapshot) {
+                checkFailure();
+                awaitLock();
+            }
+            checkFailure();
+        }
+    }
+
+    /**
+     * Number of records appended since the journal was created (the recovered ones included)
+     */
+    public long getAppendedSequence() {
+        return appendedSequence;
+    }
+
+    /**
+     * Number of fsync done by the flusher, with group commit it is (much) lower than the number of records
+     */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    @Override
+    public void close() {
+        sync();
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Not able to close the order journal " + directory, e);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "Not able to write the order journal " + directory, t);
+            synchronized (lock) {
+                failure = t instanceof IOException ? (IOException) t : new IOException("The order journal flusher failed", t);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        while (true) {
+            FileChannel target;
+            long sequence;
+            PendingSnapshot snapshot;
+            synchronized (lock) {
+                while (running && pending.position() == 0 && pendingSnapshot == null) {
+                    flusherIdle = true;
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("The order journal flusher was interrupted");
+                    }
+                }
+                flusherIdle = false;
+                if (pending.position() == 0 && pendingSnapshot == null) {
+                    return;
+                }
+                ByteBuffer appended = pending;
+                pending = flushing;
+                flushing = appended;
+                snapshot = pendingSnapshot;
+                pendingSnapshot = null;
+                writingSnapshot = snapshot != null;
+                target = channel;
+                sequence = appendedSequence;
+                // the appenders waiting for room can go on
+                lock.notifyAll();
+            }
+            try {
+                flushing.flip();
+                if (snapshot != null) {
+                    // the records before the snapshot end the current log, the ones after it start the rolled log
+                    int end = flushing.limit();
+                    flushing.limit(snapshot.offset);
+                    writeFully(target, flushing);
+                    target.force(false);
+                    target.close();
+                    target = openLog(snapshot.sequence);
+                    channel = target;
+                    flushing.limit(end);
+                }
+                writeFully(target, flushing);
+                target.force(false);
+            } finally {
+                flushing.clear();
+            }
+            synchronized (lock) {
+                durableSequence = sequence;
+                syncCount++;
+                lock.notifyAll();
+            }
+            if (snapshot != null) {
+                writeSnapshotOf(snapshot);
+            }
+        }
+    }
+
+    /**
+     * A snapshot that cannot be written does not fail the journal, the logs since the previous snapshot are kept. Any
+     * other failure is left to run, writingSnapshot stays set so a sync waits for the failure instead of returning
+     */
+    private void writeSnapshotOf(PendingSnapshot snapshot) {
+        try {
+            writeSnapshot(snapshot.sequence, snapshot.restingOrders);
+            deleteBefore(snapshot.sequence);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Not able to write the snapshot " + snapshot.sequence + " of the order journal " + directory, e);
+        }
+        synchronized (lock) {
+            writingSnapshot = false;
+            lock.notifyAll();
+        }
+    }
+
+    private void append(byte type, Order order) {
+        assert Objects.nonNull(order);
+        byte recordType = type == PLACED ? placedType(order) : type;
+        byte[] orderNo = order.getOrderNo().toByteArray();
+        byte[] security = type == PLACED ? order.getStock().getSecurity().getBytes(StandardCharsets.UTF_8) : null;
+        int recordSize = recordSize(recordType, orderNo, security);
+        synchronized (lock) {
+            checkFailure();
+            while (pending.remaining() < recordSize) {
+                awaitLock();
+                checkFailure();
+            }
+            encode(pending, crc, recordType, orderNo, security, order);
+            appendedSequence++;
+            if (flusherIdle) {
+                flusherIdle = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void awaitLock() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the order journal"));
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("The order journal " + directory + " failed", failure);
+        }
+    }
+
+    private static byte placedType(Order order) {
+        return order.getType() == OrderType.BELOW ? PLACED : PLACED_TYPED;
+    }
+
+    private static int recordSize(byte type, byte[] orderNo, byte[] security) {
+        assert orderNo.length <= 0xFF && (security == null || security.length <= Short.MAX_VALUE);
+        int payload = 2 + orderNo.length;
+        if (security != null) {
+            payload += 2 + security.length + 8 + 4 + 1;
+        }
+        if (type == PLACED_TYPED) {
+            payload += 1 + 8 + 8 + 8;
+        }
+        if (type == AMENDED) {
+            payload += 4;
+        }
+        return HEADER_SIZE + payload;
+    }
+
+    private static void encode(ByteBuffer buffer, CRC32 crc, byte type, byte[] orderNo, byte[] security, Order order) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.put(type);
+        buffer.put((byte) orderNo.length).put(orderNo);
+        if (type == PLACED || type == PLACED_TYPED) {
+            buffer.putShort((short) security.length).put(security);
+            buffer.putDouble(order.getStock().getPrice());
+            buffer.putInt(order.getVolume());
+            buffer.put((byte) order.getDirection().ordinal());
+        }
+        if (type == PLACED_TYPED) {
+            buffer.put((byte) order.getType().ordinal());
+            buffer.putDouble(orNaN(order.getLimitPrice()));
+            buffer.putDouble(orNaN(order.getUpperPrice()));
+            buffer.putDouble(orNaN(order.getTrailAmount()));
+        }
+        if (type == AMENDED) {
+            buffer.putInt(order.getVolume());
+        }
+        int length = buffer.position() - start - HEADER_SIZE;
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + start + HEADER_SIZE, length);
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Latest snapshot + the logs written after it, the state is rebuilt in placement order
+     */
+    private List<Order> recover() throws IOException {
+        Map<BigInteger, Order> resting = new LinkedHashMap<>();
+        long sequence = 0;
+        List<Path> snapshots = files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            Path snapshot = snapshots.get(snapshots.size() - 1);
+            sequence = sequenceOf(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            readSnapshot(snapshot, resting);
+        }
+        snapshotSequence = sequence;
+        for (Path log : files(LOG_PREFIX, LOG_SUFFIX)) {
+            long firstSequence = sequenceOf(log, LOG_PREFIX, LOG_SUFFIX);
+            if (firstSequence < sequence) {
+                // older than the snapshot, left over by a crash before its deletion
+                continue;
+            }
+            if (firstSequence > sequence) {
+                LOGGER.warning("Records " + sequence + " to " + firstSequence + " are missing in " + directory
+                        + ", the recovery stops before " + log);
+                break;
+            }
+            long replayed = replayLog(log, resting);
+            sequence += replayed;
+        }
+        appendedSequence = sequence;
+        return new ArrayList<>(resting.values());
+    }
+
+    /**
+     * @return number of records replayed, a torn tail is truncated
+     */
+    private long replayLog(Path log, Map<BigInteger, Order> resting) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(log));
+        CRC32 checksum = new CRC32();
+        long replayed = 0;
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            checksum.reset();
+            checksum.update(buffer.array(), buffer.position(), length);
+            if ((int) checksum.getValue() != expectedCrc) {
+                buffer.position(start);
+                break;
+            }
+            apply(buffer, resting);
+            replayed++;
+        }
+        if (buffer.position() < buffer.limit()) {
+            LOGGER.warning("Torn record at " + buffer.position() + " of " + log + ", the log is truncated");
+            try (FileChannel truncated = FileChannel.open(log, StandardOpenOption.WRITE)) {
+                truncated.truncate(buffer.position());
+            }
+        }
+        return replayed;
+    }
+
+    private static void apply(ByteBuffer buffer, Map<BigInteger, Order> resting) {
+        byte type = buffer.get();
+        byte[] orderNoBytes = new byte[buffer.get() & 0xFF];
+        buffer.get(orderNoBytes);
+        BigInteger orderNo = new BigInteger(orderNoBytes);
+        if (type == PLACED || type == PLACED_TYPED) {
+            byte[] security = new byte[buffer.getShort()];
+            buffer.get(security);
+            double price = buffer.getDouble();
+            int volume = buffer.getInt();
+            Direction direction = DIRECTIONS[buffer.get()];
+            Order order = new Order(orderNo, new Stock(new String(security, StandardCharsets.UTF_8), price), volume, direction);
+            if (type == PLACED_TYPED) {
+                order.setType(ORDER_TYPES[buffer.get()]);
+                order.setLimitPrice(orNull(buffer.getDouble()));
+                order.setUpperPrice(orNull(buffer.getDouble()));
+                order.setTrailAmount(orNull(buffer.getDouble()));
+            }
+            resting.put(orderNo, order);
+        } else if (type == AMENDED) {
+            int volume = buffer.getInt();
+            Order order = resting.get(orderNo);
+            if (order != null) {
+                // set in place, the order keeps its position in the (LinkedHashMap) placement order
+                order.setVolume(volume);
+            }
+        } else {
+            resting.remove(orderNo);
+        }
+    }
+
+    private static double orNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private void writeSnapshot(long sequence, Collection<Order> restingOrders) throws IOException {
+        Path snapshot = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(snapshot.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        CRC32 checksum = new CRC32();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putLong(restingOrders.size());
+            for (Order order : restingOrders) {
+                byte type = placedType(order);
+                byte[] orderNo = order.getOrderNo().toByteArray();
+                byte[] security = order.getStock().getSecurity().getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < recordSize(type, orderNo, security)) {
+                    write(out, buffer);
+                }
+                encode(buffer, checksum, type, orderNo, security, order);
+            }
+            write(out, buffer);
+            out.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void readSnapshot(Path snapshot, Map<BigInteger, Order> resting) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+        long count = buffer.getLong();
+        for (long i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            buffer.getInt();
+            int end = buffer.position() + length;
+            apply(buffer, resting);
+            if (buffer.position() != end) {
+                throw new IOException("Corrupt snapshot " + snapshot + " at order " + i);
+            }
+        }
+    }
+
+    private void deleteBefore(long sequence) throws IOException {
+        for (Path log : files(LOG_PREFIX, LOG_SUFFIX)) {
+            if (sequenceOf(log, LOG_PREFIX, LOG_SUFFIX) < sequence) {
+                Files.deleteIfExists(log);
+            }
+        }
+        for (Path snapshot : files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (sequenceOf(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < sequence) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    private FileChannel openLog(long firstSequence) throws IOException {
+        Path log = directory.resolve(String.format("%s%020d%s", LOG_PREFIX, firstSequence, LOG_SUFFIX));
+        return FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> files(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long sequenceOf(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(out, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static final class PendingSnapshot {
+        private final long sequence;
+        private final int offset;
+        private final Collection<Order> restingOrders;
+
+        PendingSnapshot(long sequence, int offset, Collection<Order> restingOrders) {
+            this.sequence = sequence;
+            this.offset = offset;
+            this.restingOrders = restingOrders;
+        }
+    }
+}
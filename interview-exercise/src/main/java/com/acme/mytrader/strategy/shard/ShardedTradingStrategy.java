@@ -0,0 +1,109 @@
+package com.acme.mytrader.strategy.shard;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.book.OrderTriggerBook;
+
+import java.util.Objects;
+
+/**
+ * <pre>
+ * Thread safe trading strategy that spreads the securities over N single threaded shards (see StrategyShard).
+ *
+ * 1. A security always belongs to the same shard (SecurityRegistry id modulo the number of shards), the shard owns
+ * the orders of its securities and evaluates their ticks on its own thread, there is no lock on the order books
+ * 2. placeOrder and priceUpdate can be called from any thread, they only hand the order / tick over to the shard
+ * 3. The shards run in parallel so the tick processing scales with the number of cores (one shard per core)
+ * 4. It registers itself with the given price source, same as TradingStrategy
+ * 5. A shard that fails (see StrategyShard) is surfaced: getFailure gives its Throwable and the orders of its
+ * securities are refused, the other shards keep running
+ *
+ * Note: the ExecutionService is called from the shard threads concurrently and must be thread safe
+ * </pre>
+ */
+public class ShardedTradingStrategy implements SecurityPriceListener {
+
+    private static final int DEFAULT_INBOX_CAPACITY = 8192;
+
+    private final StrategyShard[] shards;
+    private final PriceSource priceSource;
+
+    public ShardedTradingStrategy(PriceSource priceSource, ExecutionService executionService) {
+        this(priceSource, executionService, Runtime.getRuntime().availableProcessors(), DEFAULT_INBOX_CAPACITY);
+    }
+
+    public ShardedTradingStrategy(PriceSource priceSource, ExecutionService executionService, int shardCount,
+                                  int inboxCapacity) {
+        assert Objects.nonNull(priceSource) && Objects.nonNull(executionService) && shardCount > 0;
+        this.priceSource = priceSource;
+        this.shards = new StrategyShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new StrategyShard(executionService, inboxCapacity, "strategy-shard-" + i);
+            shards[i].start();
+        }
+        this.priceSource.addPriceListener(this);
+    }
+
+    /**
+     * @throws IllegalArgumentException when a price the order type needs is missing or invalid (checked on the caller
+     * thread), an order number that is already resting is rejected (and logged) by the shard thread
+     * @throws IllegalStateException when the shard of the security has failed
+     */
+    public void placeOrder(Order order) {
+        assert Objects.nonNull(order);
+        OrderTriggerBook.checkOrder(order);
+        StrategyShard shard = shardOf(SecurityRegistry.intern(order.getStock().getSecurity()));
+        Throwable failure = shard.getFailure();
+        if (failure != null) {
+            throw new IllegalStateException("Shard of " + order.getStock().getSecurity() + " has failed", failure);
+        }
+        shard.placeOrder(order);
+    }
+
+    @Override
+    public void priceUpdate(int securityId, double price) {
+        shardOf(securityId).priceUpdate(securityId, price);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Number of ticks evaluated by all the shards
+     */
+    public long getTicksProcessed() {
+        long ticks = 0;
+        for (StrategyShard shard : shards) {
+            ticks += shard.getTicksProcessed();
+        }
+        return ticks;
+    }
+
+    /**
+     * @return the Throwable that failed a shard (the first failed shard), null while every shard is healthy
+     */
+    public Throwable getFailure() {
+        for (StrategyShard shard : shards) {
+            Throwable failure = shard.getFailure();
+            if (failure != null) {
+                return failure;
+            }
+        }
+        return null;
+    }
+
+    public void shutDown() {
+        priceSource.removePriceListener(this);
+        for (StrategyShard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    private StrategyShard shardOf(int securityId) {
+        return shards[securityId % shards.length];
+    }
+}
@@ -0,0 +1,146 @@
+package com.acme.mytrader.strategy.shard;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.strategy.TradingStrategy;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <pre>
+ * One shard of the ShardedTradingStrategy: a TradingStrategy (order book) owned by a single thread.
+ *
+ * Other threads never touch the strategy, they hand the placed orders over through a concurrent queue and the ticks
+ * through the TickInbox. The shard thread counts the published ticks, then takes the placed orders and then evaluates
+ * only the counted ticks, an order placed before a tick by the same thread is therefore always in the book when the
+ * tick is evaluated.
+ *
+ * A tick or a placement that throws a RuntimeException is logged and skipped. Any other Throwable (e.g. an Error of
+ * the ExecutionService) leaves the book in an unknown state: it is logged, the shard is marked failed (see getFailure)
+ * and its thread stops, the ticks offered to a failed shard are dropped.
+ * </pre>
+ */
+final class StrategyShard implements Runnable, TickInbox.TickHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(StrategyShard.class.getName());
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = 20_000;
+
+    private final TradingStrategy tradingStrategy;
+    private final Queue<Order> placedOrders = new ConcurrentLinkedQueue<>();
+    private final TickInbox inbox;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile long ticksProcessed;
+    private volatile Throwable failure;
+
+    StrategyShard(ExecutionService executionService, int inboxCapacity, String threadName) {
+        this.tradingStrategy = new TradingStrategy(executionService);
+        this.inbox = new TickInbox(inboxCapacity);
+        this.thread = new Thread(this, threadName);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    void placeOrder(Order order) {
+        placedOrders.add(order);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Any thread, waits (backpressure) while the inbox of the shard is full
+     */
+    void priceUpdate(int securityId, double price) {
+        while (!inbox.offer(securityId, price)) {
+            if (!running) {
+                return;
+            }
+            Thread.yield();
+        }
+    }
+
+    long getTicksProcessed() {
+        return ticksProcessed;
+    }
+
+    /**
+     * @return the Throwable that failed the shard, null while it is healthy
+     */
+    Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        try {
+            while (running) {
+                int available = inbox.available(MAX_BATCH_SIZE);
+                int placed = takePlacedOrders();
+                int ticks = available > 0 ? inbox.drain(this, available) : 0;
+                if (placed + ticks > 0) {
+                    idle = 0;
+                } else if (++idle < 100) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (Throwable t) {
+            fail("Strategy shard " + thread.getName() + " loop failed", t);
+        }
+    }
+
+    @Override
+    public void onTick(int securityId, double price) {
+        if (failure != null) {
+            return;
+        }
+        ticksProcessed++;
+        try {
+            tradingStrategy.priceUpdate(securityId, price);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Price update of security id " + securityId + " failed", e);
+        } catch (Throwable t) {
+            fail("Price update of security id " + securityId + " failed the shard", t);
+        }
+    }
+
+    private int takePlacedOrders() {
+        int placed = 0;
+        Order order;
+        while ((order = placedOrders.poll()) != null) {
+            try {
+                tradingStrategy.placeOrder(order);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Placement of order " + order.getOrderNo() + " failed", e);
+            } catch (Throwable t) {
+                fail("Placement of order " + order.getOrderNo() + " failed the shard", t);
+                return placed;
+            }
+            placed++;
+        }
+        return placed;
+    }
+
+    /**
+     * Shard thread only, marks the shard failed and stops it
+     */
+    private void fail(String message, Throwable t) {
+        LOGGER.log(Level.SEVERE, message, t);
+        failure = t;
+        running = false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.acme.mytrader.strategy.shard;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <pre>
+ * Bounded multi producer / single consumer ring of (security id, price) ticks of a strategy shard.
+ *
+ * The producers claim a slot with a CAS on the tail, write it and publish it by storing the sequence of the slot,
+ * the shard thread reads the slots in sequence and only up to the first one that is not published yet.
+ * The slots are preallocated primitive arrays, nothing is allocated per tick.
+ * </pre>
+ */
+final class TickInbox {
+
+    private final int mask;
+    private final int[] securityIds;
+    private final double[] prices;
+    private final AtomicLongArray published;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    TickInbox(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.securityIds = new int[size];
+        this.prices = new double[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Producer side, any thread
+     *
+     * @return false when the inbox is full
+     */
+    boolean offer(int securityId, double price) {
+        long position;
+        do {
+            position = tail.get();
+            if (position - head.get() > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+        int index = (int) position & mask;
+        securityIds[index] = securityId;
+        prices[index] = price;
+        published.lazySet(index, position);
+        return true;
+    }
+
+    /**
+     * Consumer side
+     *
+     * @return number of ticks (at most max) that are published and can be drained
+     */
+    int available(int max) {
+        long position = head.get();
+        int count = 0;
+        while (count < max && published.get((int) (position + count) & mask) == position + count) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Consumer side (shard thread), hands at most maxBatch published ticks to the handler
+     *
+     * @return number of ticks consumed
+     */
+    int drain(TickHandler handler, int maxBatch) {
+        long position = head.get();
+        int count = 0;
+        while (count < maxBatch) {
+            int index = (int) position & mask;
+            if (published.get(index) != position) {
+                break;
+            }
+            handler.onTick(securityIds[index], prices[index]);
+            position++;
+            count++;
+        }
+        if (count > 0) {
+            head.lazySet(position);
+        }
+        return count;
+    }
+
+    interface TickHandler {
+        void onTick(int securityId, double price);
+    }
+}
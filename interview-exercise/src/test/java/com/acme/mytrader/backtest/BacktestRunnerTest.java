@@ -0,0 +1,110 @@
+package com.acme.mytrader.backtest;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.price.journal.TickJournalWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <pre>
+ * This test is to ensure that the BacktestRunner replays the ticks of every security through its own strategy, across
+ * several journals, records the fills with the tick that triggered them and that the result does not depend on the
+ * parallelism.
+ * </pre>
+ */
+public class BacktestRunnerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ticksAreReplayedPerSecurityAndFillsAreRecorded() throws IOException {
+        int ibm = SecurityRegistry.intern("IBM");
+        int msft = SecurityRegistry.intern("MSFT");
+        Path day1 = folder.newFolder("day1").toPath();
+        Path day2 = folder.newFolder("day2").toPath();
+        try (TickJournalWriter writer = new TickJournalWriter(day1)) {
+            writer.append(ibm, 1000L, 56.00);
+            writer.append(msft, 1001L, 120.00);
+            writer.append(ibm, 1002L, 54.00);
+        }
+        try (TickJournalWriter writer = new TickJournalWriter(day2)) {
+            writer.append(msft, 2000L, 99.00);
+            writer.append(ibm, 2001L, 49.00);
+            // the orders of IBM are all filled, this tick is not replayed
+            writer.append(ibm, 2002L, 60.00);
+        }
+
+        BacktestResult result = new BacktestRunner(Arrays.asList(day1, day2), BacktestRunnerTest::orders, 2).run();
+
+        assertEquals(5, result.getTicks());
+        assertEquals(3, result.getFills());
+        assertEquals(Arrays.asList("IBM", "MSFT"), Arrays.asList(result.getSecurityResults().keySet().toArray()));
+
+        SecurityResult ibmResult = result.getSecurityResults().get("IBM");
+        assertEquals(3, ibmResult.getTicks());
+        assertEquals(Arrays.asList(new Fill("IBM", Direction.BUY, 55.00, 100, 1, 1002L),
+                new Fill("IBM", Direction.SELL, 50.00, 200, 2, 2001L)), ibmResult.getFills());
+        assertEquals(0, ibmResult.getRestingOrders());
+        assertEquals(100, ibmResult.getBoughtVolume());
+        assertEquals(200, ibmResult.getSoldVolume());
+        assertEquals(5500.00, ibmResult.getBoughtNotional(), 0.001);
+        assertEquals(10000.00, ibmResult.getSoldNotional(), 0.001);
+
+        SecurityResult msftResult = result.getSecurityResults().get("MSFT");
+        assertEquals(2, msftResult.getTicks());
+        assertEquals(Collections.singletonList(new Fill("MSFT", Direction.BUY, 100.00, 10, 1, 2000L)), msftResult.getFills());
+        assertEquals(1, msftResult.getRestingOrders());
+    }
+
+    @Test
+    public void resultDoesNotDependOnTheParallelism() throws IOException {
+        Path journal = folder.newFolder("journal").toPath();
+        int[] securityIds = new int[20];
+        for (int s = 0; s < securityIds.length; s++) {
+            securityIds[s] = SecurityRegistry.intern("BT" + s);
+        }
+        try (TickJournalWriter writer = new TickJournalWriter(journal)) {
+            for (int i = 0; i < 20000; i++) {
+                writer.append(securityIds[i % securityIds.length], i, 40.00 + (i * 7919 % 2000) / 100.00);
+            }
+        }
+
+        BacktestResult sequential = new BacktestRunner(Collections.singletonList(journal), BacktestRunnerTest::ladder, 1).run();
+        BacktestResult parallel = new BacktestRunner(Collections.singletonList(journal), BacktestRunnerTest::ladder, 4).run();
+
+        assertEquals(20000, sequential.getTicks());
+        assertEquals(sequential, parallel);
+    }
+
+    private static List<Order> orders(String security) {
+        if ("IBM".equals(security)) {
+            return Arrays.asList(new Order(BigInteger.ONE, new Stock("IBM", 55.00), 100, Direction.BUY),
+                    new Order(BigInteger.valueOf(2), new Stock("IBM", 50.00), 200, Direction.SELL));
+        }
+        return Arrays.asList(new Order(BigInteger.valueOf(3), new Stock("MSFT", 100.00), 10, Direction.BUY),
+                new Order(BigInteger.valueOf(4), new Stock("MSFT", 90.00), 10, Direction.SELL));
+    }
+
+    private static List<Order> ladder(String security) {
+        Order[] orders = new Order[50];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order(BigInteger.valueOf(i), new Stock(security, 40.00 + i * 0.40), 10 + i,
+                    i % 2 == 0 ? Direction.BUY : Direction.SELL);
+        }
+        return Arrays.asList(orders);
+    }
+}
@@ -0,0 +1,117 @@
+package com.acme.mytrader.client.impl;
+
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * <pre>
+ * This test is to ensure that the NioStockClient hands the quotes pushed by the feed (LoopbackQuoteServer) to its
+ * quote listener, in order and only for the subscribed securities, and answers getLiveStockPrice with the last one.
+ * The QuoteDecoder must decode the messages that are cut by the end of a read once the rest is read.
+ * </pre>
+ */
+public class NioStockClientTest {
+
+    private LoopbackQuoteServer server;
+    private NioStockClient client;
+
+    @Before
+    public void setUp() {
+        server = new LoopbackQuoteServer();
+    }
+
+    @After
+    public void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        server.close();
+    }
+
+    @Test
+    public void pushedQuotesReachTheListenerInOrder() throws InterruptedException {
+        SecurityPriceListener quoteListener = mock(SecurityPriceListener.class);
+        client = new NioStockClient(server.getAddress(), quoteListener);
+        client.subscribe("IBM");
+        assertTrue(server.awaitSubscription("IBM", 5, TimeUnit.SECONDS));
+        server.publish("MSFT", 120.00);
+        server.publish("IBM", new double[]{54.00, 53.50, 53.00});
+
+        int ibm = SecurityRegistry.idOf("IBM");
+        InOrder inOrder = inOrder(quoteListener);
+        inOrder.verify(quoteListener, timeout(1000)).priceUpdate(ibm, 54.00);
+        inOrder.verify(quoteListener, timeout(1000)).priceUpdate(ibm, 53.50);
+        inOrder.verify(quoteListener, timeout(1000)).priceUpdate(ibm, 53.00);
+        verifyNoMoreInteractions(quoteListener);
+    }
+
+    @Test
+    public void liveStockPriceIsTheLastPushedQuote() throws InterruptedException {
+        client = new NioStockClient(server.getAddress());
+        assertNull(client.getLiveStockPrice("ORCL"));
+        assertTrue(server.awaitSubscription("ORCL", 5, TimeUnit.SECONDS));
+        server.publish("ORCL", new double[]{30.00, 31.00});
+
+        long deadline = System.currentTimeMillis() + 5000;
+        Stock stock;
+        while ((stock = client.getLiveStockPrice("ORCL")) == null || stock.getPrice() != 31.00) {
+            assertTrue("last quote not received", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void failingListenerDoesNotDropTheConnection() throws InterruptedException {
+        SecurityPriceListener quoteListener = mock(SecurityPriceListener.class);
+        int ibm = SecurityRegistry.intern("IBM");
+        doThrow(new IllegalStateException("listener bug")).when(quoteListener).priceUpdate(ibm, 54.00);
+        client = new NioStockClient(server.getAddress(), quoteListener);
+        client.subscribe("IBM");
+        assertTrue(server.awaitSubscription("IBM", 5, TimeUnit.SECONDS));
+        server.publish("IBM", new double[]{54.00, 53.50});
+
+        verify(quoteListener, timeout(1000)).priceUpdate(ibm, 53.50);
+        assertTrue(client.isConnected());
+        assertEquals(2, client.getQuotes());
+    }
+
+    @Test
+    public void messagesCutByTheReadAreDecodedOnceComplete() {
+        SecurityPriceListener quoteListener = mock(SecurityPriceListener.class);
+        QuoteDecoder decoder = new QuoteDecoder(quoteListener);
+        ByteBuffer feed = ByteBuffer.allocate(64);
+        QuoteProtocol.putSymbol(feed, 7, "AAPL");
+        QuoteProtocol.putQuote(feed, 7, 180.25);
+        QuoteProtocol.putQuote(feed, 7, 180.50);
+        feed.flip();
+
+        // the socket hands the bytes over one at a time
+        ByteBuffer read = ByteBuffer.allocateDirect(64);
+        int quotes = 0;
+        while (feed.hasRemaining()) {
+            read.put(feed.get());
+            read.flip();
+            quotes += decoder.decode(read);
+            read.compact();
+        }
+        assertEquals(2, quotes);
+        assertEquals(0, read.position());
+        int aapl = SecurityRegistry.idOf("AAPL");
+        InOrder inOrder = inOrder(quoteListener);
+        inOrder.verify(quoteListener).priceUpdate(aapl, 180.25);
+        inOrder.verify(quoteListener).priceUpdate(aapl, 180.50);
+    }
+}
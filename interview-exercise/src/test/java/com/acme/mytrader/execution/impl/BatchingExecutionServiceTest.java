@@ -0,0 +1,159 @@
+package com.acme.mytrader.execution.impl;
+
+import com.acme.mytrader.entity.Execution;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionVenue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+/**
+ * <pre>
+ * This test is to ensure that the BatchingExecutionService sends the orders to the venue in batches per security and
+ * direction, completes the future of every order and never has more orders in flight than its window. A shut down
+ * rejects the orders not sent yet and leaves the sent ones to their acknowledgement
+ * </pre>
+ */
+public class BatchingExecutionServiceTest {
+
+    private SimulatedVenue venue;
+    private BatchingExecutionService executionService;
+
+    @Before
+    public void setUp() {
+        venue = new SimulatedVenue(20, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void cleanUp() {
+        executionService.shutDown();
+        venue.shutDown();
+    }
+
+    @Test
+    public void futureCompletesWithTheExecution() throws Exception {
+        executionService = new BatchingExecutionService(venue, 10, 10, 100);
+        Execution execution = executionService.buyAsync("IBM", 55.00, 5).get(1, TimeUnit.SECONDS);
+        assertEquals(new Execution("IBM", Direction.BUY, 55.00, 5), execution);
+        assertEquals(1, venue.getExecutions().size());
+    }
+
+    @Test
+    public void ordersAreBatchedPerSecurityAndDirection() throws Exception {
+        ExecutionVenue batchRecorder = mock(ExecutionVenue.class);
+        when(batchRecorder.execute(anyString(), any(), anyList())).thenReturn(CompletableFuture.completedFuture(null));
+        executionService = new BatchingExecutionService(batchRecorder, 100, 100, 100);
+        List<CompletableFuture<Execution>> futures = new ArrayList<>();
+        // the first order keeps the submitter busy on the window so that the following ones are queued together
+        for (int i = 0; i < 5; i++) {
+            futures.add(executionService.buyAsync("IBM", 55.00, i + 1));
+            futures.add(executionService.sellAsync("IBM", 56.00, i + 1));
+            futures.add(executionService.buyAsync("MSFT", 120.00, i + 1));
+        }
+        for (CompletableFuture<Execution> future : futures) {
+            future.get(1, TimeUnit.SECONDS);
+        }
+        verify(batchRecorder, atMost(6)).execute(eq("IBM"), eq(Direction.BUY), anyList());
+        verify(batchRecorder, atLeastOnce()).execute(eq("IBM"), eq(Direction.SELL), anyList());
+        verify(batchRecorder, never()).execute(eq("MSFT"), eq(Direction.SELL), anyList());
+    }
+
+    @Test
+    public void inFlightOrdersStayWithinTheWindow() throws Exception {
+        executionService = new BatchingExecutionService(venue, 4, 8, 1000);
+        List<CompletableFuture<Execution>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(executionService.sellAsync("SEC" + (i % 3), 10.00 + i, 1));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(100, venue.getExecutions().size());
+        assertThat(venue.getMaxInFlight(), lessThanOrEqualTo(8));
+        assertTrue(venue.getBatches() >= 25);
+        assertEquals(8, executionService.getAvailableWindow());
+    }
+
+    @Test
+    public void orderIsRejectedWhenTheQueueIsFull() throws InterruptedException, TimeoutException {
+        executionService = new BatchingExecutionService(venue, 1, 1, 1);
+        List<CompletableFuture<Execution>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(executionService.buyAsync("IBM", 55.00, 1));
+        }
+        int rejected = 0;
+        for (CompletableFuture<Execution> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowBelowTheBatchSizeIsRejected() {
+        executionService = new BatchingExecutionService(venue, 10, 10, 100);
+        new BatchingExecutionService(venue, 10, 9, 100);
+    }
+
+    @Test
+    public void everyOrderQueuedWhileShuttingDownIsCompleted() throws Exception {
+        executionService = new BatchingExecutionService(venue, 10, 10, 100_000);
+        List<CompletableFuture<Execution>> futures = new ArrayList<>();
+        Thread sender = new Thread(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                futures.add(executionService.buyAsync("IBM", 55.00, 1));
+            }
+        });
+        sender.start();
+        executionService.shutDown();
+        sender.join();
+        for (CompletableFuture<Execution> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                // rejected by the shut down
+            }
+        }
+    }
+
+    @Test
+    public void shutDownRejectsOnlyTheOrdersNotSentYet() throws Exception {
+        ExecutionVenue slowVenue = mock(ExecutionVenue.class);
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        when(slowVenue.execute(anyString(), any(), anyList())).thenReturn(ack);
+        executionService = new BatchingExecutionService(slowVenue, 1, 1, 100);
+        CompletableFuture<Execution> sent = executionService.buyAsync("IBM", 55.00, 1);
+        verify(slowVenue, timeout(1000)).execute(eq("IBM"), eq(Direction.BUY), anyList());
+        // the window is full, the submitter waits for the acknowledgement of the IBM order
+        CompletableFuture<Execution> waiting = executionService.buyAsync("MSFT", 120.00, 1);
+
+        executionService.shutDown();
+        try {
+            waiting.get(1, TimeUnit.SECONDS);
+            fail("The order that was not sent must be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertFalse(sent.isDone());
+        ack.complete(null);
+        assertEquals(new Execution("IBM", Direction.BUY, 55.00, 1), sent.get(1, TimeUnit.SECONDS));
+    }
+}
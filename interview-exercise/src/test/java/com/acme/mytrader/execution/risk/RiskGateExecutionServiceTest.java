@@ -0,0 +1,208 @@
+package com.acme.mytrader.execution.risk;
+
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * <pre>
+ * This test is to ensure that the RiskGateExecutionService only passes on the orders that keep the position, the
+ * notional and the order rate of their security and of the book within the limits, that the orders reducing a position
+ * always go through and that no limit is overshot when many threads send orders at the same time
+ * </pre>
+ */
+public class RiskGateExecutionServiceTest {
+
+    private ExecutionService executionService;
+    private RiskGateExecutionService.RejectionListener rejectionListener;
+    private final AtomicLong clock = new AtomicLong();
+
+    @Before
+    public void setUp() {
+        executionService = mock(ExecutionService.class);
+        rejectionListener = mock(RiskGateExecutionService.RejectionListener.class);
+    }
+
+    @Test
+    public void positionLimitOfTheSecurityRejectsTheOrdersIncreasingTheExposure() {
+        RiskGateExecutionService gate = gate(RiskLimits.builder().maxPosition(100).build());
+        gate.buy("IBM", 50.00, 60);
+        gate.buy("IBM", 50.00, 60);
+        verify(executionService, times(1)).buy("IBM", 50.00, 60);
+        verify(rejectionListener).rejected("IBM", Direction.BUY, 50.00, 60, RiskCheck.POSITION);
+
+        gate.sell("IBM", 50.00, 150);
+        verify(executionService).sell("IBM", 50.00, 150);
+        assertEquals(-90, gate.getPosition("IBM"));
+        // back to an exposure under the limit
+        gate.buy("IBM", 50.00, 160);
+        verify(executionService).buy("IBM", 50.00, 160);
+        assertEquals(70, gate.getPosition("IBM"));
+        assertEquals(1, gate.getRejections(RiskCheck.POSITION));
+    }
+
+    @Test
+    public void grossNotionalLimitRejectsAcrossSecurities() {
+        RiskGateExecutionService gate = gate(RiskLimits.builder().maxGrossNotional(10_000).build());
+        gate.buy("IBM", 50.00, 100);
+        gate.sell("MSFT", 40.00, 100);
+        gate.buy("ORCL", 20.00, 60);
+        verify(executionService).buy("IBM", 50.00, 100);
+        verify(executionService).sell("MSFT", 40.00, 100);
+        verify(rejectionListener).rejected("ORCL", Direction.BUY, 20.00, 60, RiskCheck.NOTIONAL);
+        assertEquals(9_000.00, gate.getGrossNotional(), 0.001);
+        assertEquals(0.00, gate.getNotional("ORCL"), 0.0);
+        assertEquals(200, gate.getGrossPosition());
+    }
+
+    @Test
+    public void roundTripsBackToFlatFreeTheNotional() {
+        RiskGateExecutionService gate = gate(RiskLimits.builder().maxNotional(5_000).maxGrossNotional(5_000).build());
+        for (int i = 0; i < 10; i++) {
+            gate.buy("IBM", 50.00, 100);
+            assertEquals(5_000.00, gate.getNotional("IBM"), 0.001);
+            gate.sell("IBM", 60.00, 100);
+            assertEquals(0.00, gate.getNotional("IBM"), 0.0);
+        }
+        verify(executionService, times(10)).buy("IBM", 50.00, 100);
+        verify(executionService, times(10)).sell("IBM", 60.00, 100);
+        assertEquals(0, gate.getRejections(RiskCheck.NOTIONAL));
+        assertEquals(0.00, gate.getGrossNotional(), 0.001);
+
+        // the exposure is valued at the price of the order
+        gate.buy("IBM", 40.00, 100);
+        gate.buy("IBM", 40.00, 100);
+        verify(rejectionListener).rejected("IBM", Direction.BUY, 40.00, 100, RiskCheck.NOTIONAL);
+        assertEquals(4_000.00, gate.getNotional("IBM"), 0.001);
+        assertEquals(100, gate.getPosition("IBM"));
+    }
+
+    @Test
+    public void orderRateIsLimitedPerSecurityAndGlobally() {
+        RiskGateExecutionService gate = gate(RiskLimits.builder()
+                .maxOrdersPerSecond(10).orderBurst(2)
+                .maxGlobalOrdersPerSecond(20).globalOrderBurst(3)
+                .build());
+        for (int i = 0; i < 3; i++) {
+            gate.buy("IBM", 50.00, 1);
+        }
+        verify(executionService, times(2)).buy("IBM", 50.00, 1);
+        gate.buy("MSFT", 40.00, 1);
+        gate.buy("MSFT", 40.00, 1);
+        verify(executionService, times(1)).buy("MSFT", 40.00, 1);
+        assertEquals(2, gate.getRejections(RiskCheck.ORDER_RATE));
+        // the rejected orders gave their share back
+        assertEquals(2, gate.getPosition("IBM"));
+
+        // 100 ms later IBM got one token back (10 per second)
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        gate.buy("IBM", 50.00, 1);
+        gate.buy("IBM", 50.00, 1);
+        verify(executionService, times(3)).buy("IBM", 50.00, 1);
+    }
+
+    @Test
+    public void failingExecutionGivesItsShareBack() {
+        RiskGateExecutionService gate = gate(RiskLimits.builder().maxPosition(100).build());
+        doThrow(new IllegalStateException("venue down")).when(executionService).buy("IBM", 50.00, 100);
+        try {
+            gate.buy("IBM", 50.00, 100);
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(0, gate.getPosition("IBM"));
+        assertEquals(0, gate.getGrossPosition());
+    }
+
+    @Test
+    public void rejectedOrderGivesBackExactlyTheNotionalItReserved() {
+        RiskGateExecutionService gate = gate(RiskLimits.builder()
+                .maxNotional(5_000).maxGrossNotional(6_000)
+                .maxOrdersPerSecond(10).orderBurst(2)
+                .build());
+        gate.buy("IBM", 40.00, 100);
+        assertEquals(4_000.00, gate.getNotional("IBM"), 0.001);
+
+        // rejected by the notional of the security, before any notional is reserved
+        gate.buy("IBM", 30.00, 100);
+        assertEquals(4_000.00, gate.getNotional("IBM"), 0.001);
+        // rejected by the gross notional once 50 x 45.00 of MSFT is reserved
+        gate.buy("MSFT", 45.00, 50);
+        assertEquals(0.00, gate.getNotional("MSFT"), 0.0);
+        assertEquals(4_000.00, gate.getGrossNotional(), 0.001);
+        // the last order passed on values the position at its price, the next one is rejected by the order rate after
+        // reserving 140 x 25.00
+        gate.buy("IBM", 20.00, 20);
+        gate.buy("IBM", 25.00, 20);
+        verify(rejectionListener).rejected("IBM", Direction.BUY, 30.00, 100, RiskCheck.NOTIONAL);
+        verify(rejectionListener).rejected("MSFT", Direction.BUY, 45.00, 50, RiskCheck.NOTIONAL);
+        verify(rejectionListener).rejected("IBM", Direction.BUY, 25.00, 20, RiskCheck.ORDER_RATE);
+        assertEquals(120, gate.getPosition("IBM"));
+        assertEquals(2_400.00, gate.getNotional("IBM"), 0.001);
+        assertEquals(2_400.00, gate.getGrossNotional(), 0.001);
+
+        doThrow(new IllegalStateException("venue down")).when(executionService).sell("IBM", 10.00, 20);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        try {
+            gate.sell("IBM", 10.00, 20);
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(120, gate.getPosition("IBM"));
+        assertEquals(2_400.00, gate.getNotional("IBM"), 0.001);
+        assertEquals(2_400.00, gate.getGrossNotional(), 0.001);
+    }
+
+    @Test
+    public void limitsHoldWithConcurrentOrders() throws InterruptedException {
+        AtomicInteger executed = new AtomicInteger();
+        ExecutionService countingService = new ExecutionService() {
+            @Override
+            public void buy(String security, double price, int volume) {
+                executed.incrementAndGet();
+            }
+
+            @Override
+            public void sell(String security, double price, int volume) {
+                executed.incrementAndGet();
+            }
+        };
+        RiskGateExecutionService gate = new RiskGateExecutionService(countingService,
+                RiskLimits.builder().maxPosition(1_000).maxGrossPosition(3_000).build());
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            String security = "RISK" + (t % 4);
+            new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    gate.buy(security, 10.00, 1);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(3_000, executed.get());
+        assertEquals(3_000, gate.getGrossPosition());
+        long total = 0;
+        for (int s = 0; s < 4; s++) {
+            long position = gate.getPosition("RISK" + s);
+            assertTrue(position <= 1_000);
+            total += position;
+        }
+        assertEquals(3_000, total);
+    }
+
+    private RiskGateExecutionService gate(RiskLimits limits) {
+        return new RiskGateExecutionService(executionService, limits, rejectionListener, clock::get);
+    }
+}
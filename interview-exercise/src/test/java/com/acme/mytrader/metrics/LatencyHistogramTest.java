@@ -0,0 +1,64 @@
+package com.acme.mytrader.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <pre>
+ * This test is to ensure that the LatencyHistogram buckets are contiguous, that every value lands in a bucket whose
+ * range contains it within the 2 digit precision and that the percentiles are read from the right buckets
+ * </pre>
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreContiguousAndContainTheirValues() {
+        long[] values = {0, 1, 127, 128, 129, 255, 256, 1_000, 65_535, 1_000_000, 123_456_789_012L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(value, allOf(greaterThanOrEqualTo(LatencyHistogram.lowestValueOf(index)),
+                    lessThanOrEqualTo(LatencyHistogram.highestValueOf(index))));
+            assertThat(LatencyHistogram.highestValueOf(index) - LatencyHistogram.lowestValueOf(index),
+                    lessThanOrEqualTo(value / 64));
+        }
+        for (int index = 1; index < LatencyHistogram.indexOf(Long.MAX_VALUE); index++) {
+            assertEquals(LatencyHistogram.highestValueOf(index - 1) + 1, LatencyHistogram.lowestValueOf(index));
+        }
+    }
+
+    @Test
+    public void percentilesAreReadFromTheRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(1_000, snapshot.getCount());
+        assertWithinPrecision(500_000, snapshot.getP50());
+        assertWithinPrecision(990_000, snapshot.getP99());
+        assertWithinPrecision(999_000, snapshot.getP999());
+        assertWithinPrecision(1_000_000, snapshot.getMax());
+        assertWithinPrecision(500_500, snapshot.getMean());
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZeroAndResetEmptiesTheHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(10, 3);
+        assertEquals(4, histogram.snapshot().getCount());
+        assertEquals(10, histogram.snapshot().getMax());
+        histogram.reset();
+        assertSame(LatencySnapshot.EMPTY, histogram.snapshot());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertThat(actual, allOf(greaterThanOrEqualTo(expected - expected / 64), lessThanOrEqualTo(expected + expected / 64)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.acme.mytrader.metrics;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.SecurityRegistry;
+import com.acme.mytrader.strategy.TradingStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import static com.acme.mytrader.testdata.TestDataFactory.createBuyOrder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <pre>
+ * This test is to ensure that the TradingStrategy records its ticks, scanned and fired orders and their latencies in
+ * the TradingMetrics, that nothing is recorded when the metrics are disabled and that the metrics can be read through JMX.
+ *
+ * The metrics are JVM wide, the other tests may record at the same time so only the increase is checked
+ * </pre>
+ */
+public class TradingMetricsTest {
+
+    private final TradingMetrics metrics = TradingMetrics.get();
+    private TradingStrategy tradingStrategy;
+    private int ibm;
+
+    @Before
+    public void setUp() {
+        metrics.setEnabled(true);
+        tradingStrategy = new TradingStrategy(mock(ExecutionService.class));
+        ibm = SecurityRegistry.intern("IBM");
+    }
+
+    @After
+    public void cleanUp() {
+        metrics.setEnabled(true);
+    }
+
+    @Test
+    public void ticksAndFiredOrdersAreRecorded() {
+        Order buyOrder = createBuyOrder();
+        tradingStrategy.placeOrder(buyOrder);
+        long ticks = metrics.getTicks();
+        long scanned = metrics.getOrdersScanned();
+        long fired = metrics.getOrdersFired();
+        long triggerLatencies = metrics.getTickToTriggerLatency().getCount();
+
+        tradingStrategy.priceUpdate(ibm, 60.00);
+        tradingStrategy.priceUpdate(ibm, 50.00);
+
+        assertThat(metrics.getTicks(), greaterThanOrEqualTo(ticks + 2));
+        assertThat(metrics.getOrdersScanned(), greaterThanOrEqualTo(scanned + 2));
+        assertThat(metrics.getOrdersFired(), greaterThanOrEqualTo(fired + 1));
+        assertThat(metrics.getTickToTriggerLatency().getCount(), greaterThanOrEqualTo(triggerLatencies + 1));
+        assertThat(metrics.getTriggerToExecutionLatency().getCount(), greaterThanOrEqualTo(1L));
+    }
+
+    @Test
+    public void nothingIsRecordedWhenDisabled() {
+        tradingStrategy.placeOrder(createBuyOrder());
+        metrics.setEnabled(false);
+        long ticks = metrics.getTicks();
+        long fired = metrics.getOrdersFired();
+
+        tradingStrategy.priceUpdate(ibm, 50.00);
+
+        assertEquals(0, tradingStrategy.getOrderCount());
+        assertEquals(ticks, metrics.getTicks());
+        assertEquals(fired, metrics.getOrdersFired());
+    }
+
+    @Test
+    public void metricsAreReadableThroughJmx() throws Exception {
+        metrics.registerMBean();
+        metrics.registerMBean();
+        tradingStrategy.placeOrder(createBuyOrder());
+        tradingStrategy.priceUpdate(ibm, 50.00);
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertTrue((Boolean) mBeanServer.getAttribute(TradingMetrics.objectName(), "Enabled"));
+        assertThat((Long) mBeanServer.getAttribute(TradingMetrics.objectName(), "OrdersFired"), greaterThanOrEqualTo(1L));
+        CompositeData tickToTrigger = (CompositeData) mBeanServer.getAttribute(TradingMetrics.objectName(), "TickToTriggerLatency");
+        assertThat((Long) tickToTrigger.get("count"), greaterThanOrEqualTo(1L));
+    }
+}
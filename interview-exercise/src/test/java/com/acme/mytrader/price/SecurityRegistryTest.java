@@ -0,0 +1,33 @@
+package com.acme.mytrader.price;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * <pre>
+ * This test is to ensure that the SecurityRegistry gives one stable id per security name and resolves it back
+ * </pre>
+ */
+public class SecurityRegistryTest {
+
+    @Test
+    public void internGivesTheSameIdForTheSameSecurity() {
+        int id = SecurityRegistry.intern("REGISTRY-IBM");
+        assertEquals(id, SecurityRegistry.intern("REGISTRY-IBM"));
+        assertEquals(id, SecurityRegistry.idOf(new String("REGISTRY-IBM")));
+        assertEquals("REGISTRY-IBM", SecurityRegistry.securityOf(id));
+        assertNotEquals(id, SecurityRegistry.intern("REGISTRY-MSFT"));
+    }
+
+    @Test
+    public void unknownSecurityHasNoId() {
+        assertEquals(SecurityRegistry.UNKNOWN, SecurityRegistry.idOf("REGISTRY-NEVER-INTERNED"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownIdIsRejected() {
+        SecurityRegistry.securityOf(Integer.MAX_VALUE);
+    }
+}
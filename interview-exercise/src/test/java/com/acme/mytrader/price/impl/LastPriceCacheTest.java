@@ -0,0 +1,107 @@
+package com.acme.mytrader.price.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ * This test is to ensure that the LastPriceCache only publishes the prices of the monitored securities that moved away
+ * from the last published price by the tick size and the basis point threshold, and serves the last polled price
+ * whatever was published, across the chunks of security ids. An unmonitored security is no longer cached.
+ * </pre>
+ */
+public class LastPriceCacheTest {
+
+    @Test
+    public void onlyTheMonitoredSecuritiesArePublished() {
+        LastPriceCache cache = new LastPriceCache();
+        assertFalse(cache.update(3, 10.00, 0, 0));
+        assertTrue(Double.isNaN(cache.lastPrice(3)));
+
+        cache.monitor(3, Double.NaN, false);
+        assertTrue(Double.isNaN(cache.lastPrice(3)));
+        assertTrue(cache.update(3, 10.00, 0, 0));
+        assertFalse(cache.update(3, 10.00, 0, 0));
+        assertTrue(cache.update(3, 10.01, 0, 0));
+        assertEquals(10.01, cache.lastPrice(3), 0.0);
+
+        // a second monitor without replace keeps the prices, with replace sets a new baseline
+        cache.monitor(3, 20.00, false);
+        assertEquals(10.01, cache.lastPrice(3), 0.0);
+        cache.monitor(3, 20.00, true);
+        assertEquals(20.00, cache.lastPrice(3), 0.0);
+        assertFalse(cache.update(3, 20.00, 0, 0));
+    }
+
+    @Test
+    public void unmonitoredSecurityIsNoLongerCached() {
+        LastPriceCache cache = new LastPriceCache();
+        cache.monitor(5, 10.00, true);
+        cache.unmonitor(5);
+        assertTrue(Double.isNaN(cache.lastPrice(5)));
+        assertFalse(cache.update(5, 11.00, 0, 0));
+        assertTrue(Double.isNaN(cache.lastPrice(5)));
+        cache.unmonitor(50_000);
+
+        // monitored again without a baseline, the first polled price is published
+        cache.monitor(5, Double.NaN, false);
+        assertTrue(cache.update(5, 11.00, 0, 0));
+    }
+
+    @Test
+    public void changesBelowTheTickSizeAreSuppressedUntilTheyAddUp() {
+        LastPriceCache cache = new LastPriceCache();
+        cache.monitor(0, 100.00, true);
+        assertFalse(cache.update(0, 100.03, 0.05, 0));
+        assertFalse(cache.update(0, 99.97, 0.05, 0));
+        assertEquals(99.97, cache.lastPrice(0), 0.0);
+        assertTrue(cache.update(0, 99.94, 0.05, 0));
+        assertFalse(cache.update(0, 99.90, 0.05, 0));
+        assertEquals(99.90, cache.lastPrice(0), 0.0);
+    }
+
+    @Test
+    public void changesBelowTheThresholdInBasisPointsAreSuppressed() {
+        assertFalse(LastPriceCache.isSignificant(100.00, 100.04, 0, 5));
+        assertTrue(LastPriceCache.isSignificant(100.00, 100.06, 0, 5));
+        assertTrue(LastPriceCache.isSignificant(100.00, 99.94, 0, 5));
+        assertFalse(LastPriceCache.isSignificant(100.00, 100.06, 0.10, 5));
+        assertTrue(LastPriceCache.isSignificant(Double.NaN, 100.00, 0.10, 5));
+    }
+
+    @Test
+    public void moveOfExactlyOneTickOrTheThresholdIsPublished() {
+        assertTrue(LastPriceCache.isSignificant(100.00, 100.05, 0.05, 0));
+        assertTrue(LastPriceCache.isSignificant(100.05, 100.00, 0.05, 0));
+        assertTrue(LastPriceCache.isSignificant(0.30, 0.31, 0.01, 0));
+        assertFalse(LastPriceCache.isSignificant(100.00, 100.0499, 0.05, 0));
+        assertTrue(LastPriceCache.isSignificant(100.00, 100.05, 0, 5));
+        assertTrue(LastPriceCache.isSignificant(100.00, 99.95, 0, 5));
+        assertTrue(LastPriceCache.isSignificant(33.33, 33.36333, 0, 10));
+        assertFalse(LastPriceCache.isSignificant(100.00, 100.0499, 0, 5));
+
+        LastPriceCache cache = new LastPriceCache();
+        cache.monitor(0, 100.00, true);
+        assertTrue(cache.update(0, 100.05, 0.05, 5));
+        // 5 bps of the published 100.05 is 0.050025, one tick back is below it
+        assertFalse(LastPriceCache.isSignificant(100.05, 100.00, 0, 5));
+        assertFalse(cache.update(0, 100.00, 0.05, 5));
+        assertTrue(cache.update(0, 99.99, 0.05, 5));
+    }
+
+    @Test
+    public void securitiesOfEveryChunkAreCached() {
+        LastPriceCache cache = new LastPriceCache();
+        for (int securityId = 0; securityId < 10_000; securityId += 7) {
+            cache.monitor(securityId, securityId, true);
+        }
+        for (int securityId = 0; securityId < 10_000; securityId++) {
+            boolean monitored = securityId % 7 == 0;
+            assertEquals(monitored, cache.update(securityId, securityId + 1.00, 0, 0));
+            assertEquals(monitored ? securityId + 1.00 : Double.NaN, cache.lastPrice(securityId), 0.0);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.acme.mytrader.price.impl;
+
+import com.acme.mytrader.client.impl.SimulatedStockClient;
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <pre>
+ * This test is to ensure that the PriceListenerRegistry keeps the wildcard and per security registrations apart, that
+ * an iterated snapshot is not changed by a later registration and that no registration is lost when many threads
+ * register at the same time.
+ *
+ * The stress test adds and removes listeners of the StockFeedObservable while the ticks are dispatched, the listeners
+ * that stay registered must get every tick exactly once and no dispatch may fail.
+ * </pre>
+ */
+public class PriceListenerRegistryTest {
+
+    private static final String SECURITY = "IBM";
+
+    private StockFeedObservable stockFeed;
+
+    @After
+    public void cleanUp() {
+        if (stockFeed != null) {
+            stockFeed.shutDown();
+        }
+    }
+
+    @Test
+    public void wildcardAndSecurityListenersAreKeptApart() {
+        PriceListenerRegistry registry = new PriceListenerRegistry();
+        PriceListener wildcard = (security, price) -> { };
+        PriceListener ibmOnly = (security, price) -> { };
+        int ibm = SecurityRegistry.intern(SECURITY);
+        int msft = SecurityRegistry.intern("MSFT");
+        registry.add(wildcard);
+        registry.add(ibm, ibmOnly);
+
+        assertThat(registry.wildcardListeners(), arrayContaining(wildcard));
+        assertThat(registry.listenersOf(ibm), arrayContaining(ibmOnly));
+        assertThat(registry.listenersOf(msft), emptyArray());
+
+        assertFalse(registry.remove(ibmOnly));
+        assertTrue(registry.remove(ibm, ibmOnly));
+        assertThat(registry.listenersOf(ibm), emptyArray());
+        assertThat(registry.wildcardListeners(), arrayContaining(wildcard));
+    }
+
+    @Test
+    public void snapshotIsNotChangedByLaterRegistrations() {
+        PriceListenerRegistry registry = new PriceListenerRegistry();
+        PriceListener first = (security, price) -> { };
+        PriceListener second = (security, price) -> { };
+        registry.add(first);
+        PriceListener[] snapshot = registry.wildcardListeners();
+
+        registry.add(second);
+        registry.remove(first);
+
+        assertThat(snapshot, arrayContaining(first));
+        assertThat(registry.wildcardListeners(), arrayContaining(second));
+    }
+
+    @Test(timeout = 10000)
+    public void concurrentRegistrationsAreNotLost() throws InterruptedException {
+        PriceListenerRegistry registry = new PriceListenerRegistry();
+        int securityId = SecurityRegistry.intern(SECURITY);
+        int threadCount = 4;
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < perThread; i++) {
+                    registry.add((security, price) -> { });
+                    registry.add(securityId, (security, price) -> { });
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threadCount * perThread, registry.wildcardListeners().length);
+        assertEquals(threadCount * perThread, registry.listenersOf(securityId).length);
+    }
+
+    @Test(timeout = 20000)
+    public void listenersChurnWhileTicksAreDispatched() throws InterruptedException {
+        SimulatedStockClient stockClient = new SimulatedStockClient(0, TimeUnit.NANOSECONDS);
+        stockClient.setPrice(SECURITY, 100.00);
+        // the timer never polls, the ticks are driven by the test thread only
+        stockFeed = new StockFeedObservable(stockClient, mock(ScheduledExecutorService.class), 100);
+        stockFeed.monitor(SECURITY);
+        AtomicLong wildcardTicks = new AtomicLong();
+        AtomicLong securityTicks = new AtomicLong();
+        stockFeed.addPriceListener((SecurityPriceListener) (securityId, price) -> wildcardTicks.incrementAndGet());
+        stockFeed.addPriceListener(SECURITY, (security, price) -> securityTicks.incrementAndGet());
+        stockFeed.getLivePrices();
+        wildcardTicks.set(0);
+        securityTicks.set(0);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> churners = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            boolean perSecurity = t % 2 == 0;
+            churners.add(new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        PriceListener listener = (security, price) -> { };
+                        if (perSecurity) {
+                            stockFeed.addPriceListener(SECURITY, listener);
+                            stockFeed.removePriceListener(SECURITY, listener);
+                        } else {
+                            stockFeed.addPriceListener(listener);
+                            stockFeed.removePriceListener(listener);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }, "listener-churn-" + t));
+        }
+        churners.forEach(Thread::start);
+
+        int ticks = 20000;
+        for (int i = 0; i < ticks; i++) {
+            stockClient.setPrice(SECURITY, i % 2 == 0 ? 101.00 : 100.00);
+            stockFeed.getLivePrices();
+        }
+        running.set(false);
+        for (Thread churner : churners) {
+            churner.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(ticks, wildcardTicks.get());
+        assertEquals(ticks, securityTicks.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.acme.mytrader.price.impl;
 
 import com.acme.mytrader.client.StockClient;
+import com.acme.mytrader.client.impl.SimulatedStockClient;
 import com.acme.mytrader.entity.Stock;
 import com.acme.mytrader.price.PriceListener;
 import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.price.SecurityPriceSource;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -13,7 +15,17 @@ import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.verification.VerificationMode;
 
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 import static com.acme.mytrader.testdata.TestDataFactory.createStock;
+import static com.acme.mytrader.testdata.TestDataFactory.singleQuoteAnswer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -23,11 +35,20 @@ import static org.mockito.Mockito.*;
  *
  * StockFeedObservable is observed by StockPriceUpdateObserver (PriceListener implementation class)
  * Basically, it registers by seeking an update when the price of the security is changed
- * Currently, only one security is is being monitored "IBM" and this can be enhanced
+ * The feed can monitor many securities, listeners either get every change or subscribe to a single security
  * Also, in order to  fetch the exchange price "StockClient" interface is used with Mock
  *
- * StockClient will provide the live security price when it is invoked, just for this flow the price monitor will check
- * the price is changed, if so, it will invoke the price listener that is registered (price listener is mocked)
+ * StockClient will provide the live security price when it is invoked, the price monitor keeps polling and checks whether
+ * the price is changed, if so, it will invoke the price listeners that are registered (price listener is mocked)
+ *
+ * With PollingMode.VIRTUAL_THREAD_PER_SECURITY a client call that blocks must only delay its own security, it is given
+ * up after the timeout, and every security is polled with its own period
+ *
+ * The feed starts lazily: no task is scheduled before the first listener, one task whatever the number of listeners,
+ * start / shutDown are idempotent and the polling stops with the last listener. A security that was only monitored for
+ * its listeners is no longer polled once the last one is removed
+ *
+ * A change smaller than the tick size of the PollingConfig is not dispatched but the last price is still served
  *
  * Note: Please note this class provides only basic coverage and there are much more quality and betterment need to be taken care,
  * as per the instruction not allowed to spend more than 90 to 100 min hence trying to do what is possible within the timeline
@@ -39,6 +60,7 @@ public class StockFeedObservableTest {
 
     private VerificationMode oneTime;
     private VerificationMode zeroTime;
+    private VerificationMode twoTimes;
     private PriceSource priceSource;
     private Stock stockToMonitor;
     private Stock liveStockToVerify;
@@ -54,14 +76,19 @@ public class StockFeedObservableTest {
                 .security(stockToMonitor.getSecurity())
                 .price(54.00)
                 .build();
-        oneTime = Mockito.timeout(1000).times(1);
-        zeroTime = Mockito.timeout(1000).times(0);
+        oneTime = Mockito.timeout(1500).times(1);
+        zeroTime = Mockito.timeout(1500).times(0);
+        twoTimes = Mockito.timeout(2500).times(2);
         stockClient = mock(StockClient.class);
+        when(stockClient.getLiveStockPrices(anyCollection())).thenAnswer(singleQuoteAnswer(stockClient));
         priceListener = mock(PriceListener.class);
     }
 
     @After
     public void cleanUp() {
+        if (priceSource != null) {
+            ((StockFeedObservable) priceSource).shutDown();
+        }
         stockClient = null;
         stockToMonitor = null;
         liveStockToVerify = null;
@@ -76,4 +103,263 @@ public class StockFeedObservableTest {
         verify(stockClient, oneTime).getLiveStockPrice(stockToMonitor.getSecurity());
         verify(priceListener, oneTime).priceUpdate(stockToMonitor.getSecurity(), liveStockToVerify.getPrice());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPriceMonitorKeepsPollingAndDispatchesEveryChange() {
+        when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity())).thenReturn(liveStockToVerify,
+                Stock.builder().security(stockToMonitor.getSecurity()).price(53.00).build());
+        priceSource = StockFeedObservable.getPriceSource(stockClient, stockToMonitor);
+        priceSource.addPriceListener(priceListener);
+        verify(priceListener, oneTime).priceUpdate(stockToMonitor.getSecurity(), 54.00);
+        verify(priceListener, oneTime).priceUpdate(stockToMonitor.getSecurity(), 53.00);
+    }
+
+    @Test
+    public void testPriceMonitorWithSamePriceNotDispatched() {
+        when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity())).thenReturn(stockToMonitor);
+        priceSource = StockFeedObservable.getPriceSource(stockClient, stockToMonitor);
+        priceSource.addPriceListener(priceListener);
+        verify(stockClient, twoTimes).getLiveStockPrice(stockToMonitor.getSecurity());
+        verify(priceListener, zeroTime).priceUpdate(anyString(), anyDouble());
+    }
+
+    @Test
+    public void testSecurityListenerGetsOnlyItsSecurity() {
+        PriceListener msftListener = mock(PriceListener.class);
+        when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity())).thenReturn(liveStockToVerify);
+        when(stockClient.getLiveStockPrice("MSFT")).thenReturn(Stock.builder().security("MSFT").price(120.00).build());
+        SecurityPriceSource stockFeed = new StockFeedObservable(stockClient);
+        priceSource = stockFeed;
+        stockFeed.addPriceListener(stockToMonitor.getSecurity(), priceListener);
+        stockFeed.addPriceListener("MSFT", msftListener);
+        verify(priceListener, oneTime).priceUpdate(stockToMonitor.getSecurity(), liveStockToVerify.getPrice());
+        verify(msftListener, oneTime).priceUpdate("MSFT", 120.00);
+        verify(priceListener, zeroTime).priceUpdate(eq("MSFT"), anyDouble());
+        verify(msftListener, zeroTime).priceUpdate(eq(stockToMonitor.getSecurity()), anyDouble());
+    }
+
+    @Test
+    public void testRemovedListenerIsNotNotified() {
+        PriceListener otherListener = mock(PriceListener.class);
+        when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity())).thenReturn(liveStockToVerify);
+        priceSource = StockFeedObservable.getPriceSource(stockClient, stockToMonitor);
+        priceSource.addPriceListener(priceListener);
+        priceSource.addPriceListener(otherListener);
+        priceSource.removePriceListener(priceListener);
+        verify(otherListener, oneTime).priceUpdate(stockToMonitor.getSecurity(), liveStockToVerify.getPrice());
+        verify(priceListener, zeroTime).priceUpdate(anyString(), anyDouble());
+    }
+
+    @Test
+    public void testFailingClientCallDoesNotStopPolling() {
+        when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity()))
+                .thenThrow(new IllegalStateException("Not able to get live stock price"))
+                .thenReturn(liveStockToVerify);
+        priceSource = StockFeedObservable.getPriceSource(stockClient, stockToMonitor);
+        priceSource.addPriceListener(priceListener);
+        verify(priceListener, Mockito.timeout(2500).times(1)).priceUpdate(stockToMonitor.getSecurity(),
+                liveStockToVerify.getPrice());
+    }
+
+    @Test
+    public void testMonitoredSecuritiesArePolledInBatches() {
+        SimulatedStockClient simulatedClient = new SimulatedStockClient(0, TimeUnit.MILLISECONDS);
+        StockFeedObservable stockFeed = new StockFeedObservable(simulatedClient, 2);
+        stockFeed.addPriceListener("IBM", priceListener);
+        stockFeed.addPriceListener("IBM", mock(PriceListener.class));
+        stockFeed.monitor("MSFT");
+        stockFeed.monitor("ORCL");
+        priceSource = stockFeed;
+        stockFeed.getLivePrices();
+        assertEquals(2, simulatedClient.getCalls());
+        assertEquals(3, simulatedClient.getQuotes());
+        verify(priceListener).priceUpdate("IBM", 100.00);
+    }
+
+    @Test
+    public void testBlockedSecurityDoesNotStallTheOthersWithVirtualThreads() {
+        CountDownLatch released = new CountDownLatch(1);
+        when(stockClient.getLiveStockPrice("SLOW")).thenAnswer(invocation -> {
+            released.await();
+            return Stock.builder().security("SLOW").price(1.00).build();
+        });
+        when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity())).thenReturn(liveStockToVerify);
+        StockFeedObservable stockFeed = new StockFeedObservable(stockClient, PollingConfig.builder()
+                .mode(PollingMode.VIRTUAL_THREAD_PER_SECURITY)
+                .period(Duration.ofMillis(50))
+                .timeout(Duration.ofMillis(100))
+                .build());
+        priceSource = stockFeed;
+        stockFeed.monitor("SLOW");
+        stockFeed.monitor(stockToMonitor);
+        stockFeed.addPriceListener(priceListener);
+        verify(priceListener, oneTime).priceUpdate(stockToMonitor.getSecurity(), liveStockToVerify.getPrice());
+        // the blocked calls are given up after the timeout and polled again
+        verify(stockClient, Mockito.timeout(2500).atLeast(2)).getLiveStockPrice("SLOW");
+        verify(priceListener, never()).priceUpdate(eq("SLOW"), anyDouble());
+        released.countDown();
+    }
+
+    @Test
+    public void testEverySecurityIsPolledWithItsOwnPeriod() {
+        when(stockClient.getLiveStockPrice(anyString())).thenAnswer(invocation ->
+                Stock.builder().security(invocation.getArgument(0)).price(10.00).build());
+        StockFeedObservable stockFeed = new StockFeedObservable(stockClient, PollingConfig.builder()
+                .mode(PollingMode.VIRTUAL_THREAD_PER_SECURITY)
+                .period(Duration.ofHours(1))
+                .securityPeriod("MSFT", Duration.ofMillis(20))
+                .build());
+        priceSource = stockFeed;
+        stockFeed.monitor(stockToMonitor);
+        stockFeed.addPriceListener(priceListener);
+        stockFeed.monitor("MSFT");
+        verify(stockClient, Mockito.timeout(1500).atLeast(5)).getLiveStockPrice("MSFT");
+        verify(stockClient, never()).getLiveStockPrice(stockToMonitor.getSecurity());
+        verify(priceListener, oneTime).priceUpdate("MSFT", 10.00);
+    }
+
+    @Test
+    public void testPollingStartsWithTheFirstListenerAndStopsWithTheLast() {
+        ScheduledExecutorService timerService = mock(ScheduledExecutorService.class);
+        ScheduledFuture<?> scheduledFuture = mock(ScheduledFuture.class);
+        doReturn(scheduledFuture).when(timerService).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        StockFeedObservable stockFeed = new StockFeedObservable(stockClient, timerService, 100);
+        priceSource = stockFeed;
+        stockFeed.monitor(stockToMonitor);
+        assertFalse(stockFeed.isRunning());
+        verifyNoInteractions(timerService);
+
+        PriceListener otherListener = mock(PriceListener.class);
+        stockFeed.addPriceListener(priceListener);
+        stockFeed.addPriceListener(stockToMonitor.getSecurity(), otherListener);
+        stockFeed.start();
+        assertTrue(stockFeed.isRunning());
+        verify(timerService, times(1)).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+
+        stockFeed.removePriceListener(priceListener);
+        assertTrue(stockFeed.isRunning());
+        stockFeed.removePriceListener(stockToMonitor.getSecurity(), otherListener);
+        assertFalse(stockFeed.isRunning());
+        verify(scheduledFuture).cancel(false);
+        stockFeed.shutDown();
+        verify(scheduledFuture, times(1)).cancel(anyBoolean());
+
+        // a stopped feed starts again with the next listener
+        stockFeed.addPriceListener(priceListener);
+        verify(timerService, times(2)).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testSecurityPollersStopWhenTheFeedIsShutDown() throws InterruptedException {
+        when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity())).thenReturn(liveStockToVerify);
+        StockFeedObservable stockFeed = new StockFeedObservable(stockClient, PollingConfig.builder()
+                .mode(PollingMode.VIRTUAL_THREAD_PER_SECURITY)
+                .period(Duration.ofMillis(20))
+                .build());
+        priceSource = stockFeed;
+        stockFeed.monitor(stockToMonitor);
+        stockFeed.addPriceListener(priceListener);
+        stockFeed.addPriceListener(mock(PriceListener.class));
+        verify(priceListener, oneTime).priceUpdate(stockToMonitor.getSecurity(), liveStockToVerify.getPrice());
+        stockFeed.removePriceListener(priceListener);
+        assertTrue(stockFeed.isRunning());
+        stockFeed.shutDown();
+        stockFeed.shutDown();
+        stockFeed.start();
+        stockFeed.shutDown();
+        assertFalse(stockFeed.isRunning());
+        // lets a client call that was in flight during the shut down complete
+        TimeUnit.MILLISECONDS.sleep(50);
+        clearInvocations(stockClient);
+        verify(stockClient, Mockito.after(200).never()).getLiveStockPrice(anyString());
+    }
+
+    @Test
+    public void testSecurityPollerStopsWithTheLastListenerOfTheSecurity() throws InterruptedException {
+        when(stockClient.getLiveStockPrice(anyString())).thenAnswer(invocation ->
+                Stock.builder().security(invocation.getArgument(0)).price(10.00).build());
+        StockFeedObservable stockFeed = new StockFeedObservable(stockClient, PollingConfig.builder()
+                .mode(PollingMode.VIRTUAL_THREAD_PER_SECURITY)
+                .period(Duration.ofMillis(20))
+                .build());
+        priceSource = stockFeed;
+        PriceListener msftListener = mock(PriceListener.class);
+        stockFeed.monitor(stockToMonitor);
+        stockFeed.addPriceListener(stockToMonitor.getSecurity(), priceListener);
+        stockFeed.addPriceListener("MSFT", msftListener);
+        stockFeed.addPriceListener("MSFT", priceListener);
+        verify(msftListener, oneTime).priceUpdate("MSFT", 10.00);
+
+        stockFeed.removePriceListener("MSFT", msftListener);
+        verify(stockClient, Mockito.timeout(1500).atLeast(2)).getLiveStockPrice("MSFT");
+        stockFeed.removePriceListener("MSFT", priceListener);
+        assertTrue(stockFeed.isRunning());
+        assertTrue(Double.isNaN(stockFeed.getLastPrice("MSFT")));
+        // lets a client call that was in flight during the removal complete
+        TimeUnit.MILLISECONDS.sleep(50);
+        clearInvocations(stockClient);
+        verify(stockClient, Mockito.after(200).never()).getLiveStockPrice("MSFT");
+        // the explicitly monitored security stays monitored, the feed stops with its last listener
+        stockFeed.removePriceListener(stockToMonitor.getSecurity(), priceListener);
+        assertFalse(stockFeed.isRunning());
+        assertEquals(10.00, stockFeed.getLastPrice(stockToMonitor.getSecurity()), 0.0);
+    }
+
+    @Test
+    public void testSecurityIsLeftOutOfTheBulkPollsWithoutListener() {
+        SimulatedStockClient simulatedClient = new SimulatedStockClient(0, TimeUnit.MILLISECONDS);
+        ScheduledExecutorService timerService = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(timerService).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        StockFeedObservable stockFeed = new StockFeedObservable(simulatedClient, timerService, 10);
+        priceSource = stockFeed;
+        stockFeed.monitor("ORCL");
+        stockFeed.addPriceListener("IBM", priceListener);
+        stockFeed.addPriceListener("ORCL", priceListener);
+        stockFeed.addPriceListener(mock(PriceListener.class));
+        stockFeed.getLivePrices();
+        assertEquals(2, simulatedClient.getQuotes());
+
+        stockFeed.removePriceListener(priceListener);
+        stockFeed.getLivePrices();
+        assertEquals(3, simulatedClient.getQuotes());
+        assertTrue(Double.isNaN(stockFeed.getLastPrice("IBM")));
+        assertEquals(100.00, stockFeed.getLastPrice("ORCL"), 0.0);
+
+        // subscribing again monitors the security again
+        stockFeed.addPriceListener("IBM", priceListener);
+        stockFeed.getLivePrices();
+        assertEquals(5, simulatedClient.getQuotes());
+        verify(priceListener, times(2)).priceUpdate("IBM", 100.00);
+    }
+
+    @Test
+    public void testChangeBelowTheTickSizeIsNotDispatched() {
+        when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity())).thenReturn(stock(55.02), stock(55.04),
+                stock(55.06), stock(55.08));
+        StockFeedObservable stockFeed = new StockFeedObservable(stockClient, PollingConfig.builder()
+                .period(Duration.ofHours(1))
+                .tickSize(0.05)
+                .build());
+        priceSource = stockFeed;
+        stockFeed.monitor(stockToMonitor);
+        stockFeed.addPriceListener(priceListener);
+        assertEquals(55.00, stockFeed.getLastPrice(stockToMonitor.getSecurity()), 0.0);
+
+        stockFeed.getLivePrices();
+        stockFeed.getLivePrices();
+        verify(priceListener, never()).priceUpdate(anyString(), anyDouble());
+        assertEquals(55.04, stockFeed.getLastPrice(stockToMonitor.getSecurity()), 0.0);
+
+        // the drift from the published 55.00 adds up to a tick
+        stockFeed.getLivePrices();
+        verify(priceListener).priceUpdate(stockToMonitor.getSecurity(), 55.06);
+        stockFeed.getLivePrices();
+        verifyNoMoreInteractions(priceListener);
+        assertEquals(55.08, stockFeed.getLastPrice(stockToMonitor.getSecurity()), 0.0);
+        assertTrue(Double.isNaN(stockFeed.getLastPrice("NOT_MONITORED")));
+    }
+
+    private Stock stock(double price) {
+        return Stock.builder().security(stockToMonitor.getSecurity()).price(price).build();
+    }
+}
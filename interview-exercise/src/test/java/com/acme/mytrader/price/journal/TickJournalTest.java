@@ -0,0 +1,111 @@
+package com.acme.mytrader.price.journal;
+
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <pre>
+ * This test is to ensure that the ticks appended to the journal are read back in order with their security, timestamp
+ * and price, across the rolled segments and across writers of the same journal directory.
+ * The ReplayPriceSource must deliver every recorded tick, at recorded speed it must keep the recorded time gaps.
+ * </pre>
+ */
+public class TickJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ticksAreReadBackInOrderAcrossSegments() throws IOException {
+        Path directory = folder.newFolder("journal").toPath();
+        int ibm = SecurityRegistry.intern("IBM");
+        int msft = SecurityRegistry.intern("MSFT");
+        try (TickJournalWriter writer = new TickJournalWriter(directory, 4)) {
+            for (int i = 0; i < 10; i++) {
+                writer.append(i % 2 == 0 ? ibm : msft, 1000L + i, 50.00 + i);
+            }
+            assertEquals(10, writer.getRecordCount());
+            assertEquals(2, writer.getSegmentIndex());
+        }
+        assertEquals(3, JournalFormat.segments(directory).size());
+
+        List<String> ticks = new ArrayList<>();
+        long read = new TickJournalReader(directory).read((securityId, timestamp, price) ->
+                ticks.add(SecurityRegistry.securityOf(securityId) + "@" + timestamp + "=" + price));
+        assertEquals(10, read);
+        assertEquals("IBM@1000=50.0", ticks.get(0));
+        assertEquals("MSFT@1001=51.0", ticks.get(1));
+        assertEquals("MSFT@1009=59.0", ticks.get(9));
+    }
+
+    @Test
+    public void writerContinuesAfterTheLastRecord() throws IOException {
+        Path directory = folder.newFolder("journal").toPath();
+        int ibm = SecurityRegistry.intern("IBM");
+        int orcl = SecurityRegistry.intern("ORCL");
+        try (TickJournalWriter writer = new TickJournalWriter(directory, 8)) {
+            writer.append(ibm, 1L, 10.00);
+            writer.append(ibm, 2L, 11.00);
+        }
+        try (TickJournalWriter writer = new TickJournalWriter(directory, 8)) {
+            writer.append(orcl, 3L, 12.00);
+            writer.append(ibm, 4L, 13.00);
+        }
+        assertEquals(2, Files.readAllLines(directory.resolve(JournalFormat.SECURITIES_FILE)).size());
+
+        List<Double> prices = new ArrayList<>();
+        new TickJournalReader(directory).read((securityId, timestamp, price) -> prices.add(price));
+        assertThat(prices, contains(10.00, 11.00, 12.00, 13.00));
+    }
+
+    @Test
+    public void replayDeliversEveryRecordedTick() throws Exception {
+        Path directory = folder.newFolder("journal").toPath();
+        int ibm = SecurityRegistry.intern("IBM");
+        try (TickJournalWriter writer = new TickJournalWriter(directory, 16)) {
+            for (int i = 0; i < 100; i++) {
+                writer.priceUpdate(ibm, 100.00 + i);
+            }
+        }
+        List<String> updates = new ArrayList<>();
+        ReplayPriceSource replaySource = new ReplayPriceSource(directory, ReplayMode.AS_FAST_AS_POSSIBLE);
+        PriceListener listener = (security, price) -> updates.add(security + "=" + price);
+        replaySource.addPriceListener(listener);
+
+        assertEquals(Long.valueOf(100), replaySource.start().get(5, TimeUnit.SECONDS));
+        assertEquals(100, updates.size());
+        assertEquals("IBM=100.0", updates.get(0));
+        assertEquals("IBM=199.0", updates.get(99));
+    }
+
+    @Test
+    public void recordedSpeedKeepsTheTimeGaps() throws IOException {
+        Path directory = folder.newFolder("journal").toPath();
+        int ibm = SecurityRegistry.intern("IBM");
+        long gap = TimeUnit.MILLISECONDS.toNanos(100);
+        try (TickJournalWriter writer = new TickJournalWriter(directory, 16)) {
+            for (int i = 0; i < 4; i++) {
+                writer.append(ibm, i * gap, 100.00 + i);
+            }
+        }
+        ReplayPriceSource replaySource = new ReplayPriceSource(directory, ReplayMode.RECORDED_SPEED);
+        long start = System.nanoTime();
+        assertEquals(4, replaySource.replay());
+        assertThat(System.nanoTime() - start, greaterThanOrEqualTo(3 * gap));
+    }
+}
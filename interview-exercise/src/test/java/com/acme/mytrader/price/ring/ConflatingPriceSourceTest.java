@@ -0,0 +1,121 @@
+package com.acme.mytrader.price.ring;
+
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * <pre>
+ * This test is to ensure that the ConflatingPriceSource hands only the latest price of a security to a listener that
+ * is behind, and that the received / conflated / delivered ticks are counted. The consumer starts with the first
+ * listener and the securities above the slots are delivered in order without conflation
+ * </pre>
+ */
+public class ConflatingPriceSourceTest {
+
+    private static final int IBM = SecurityRegistry.intern("IBM");
+
+    private ConflatingPriceSource conflatingSource;
+
+    @Before
+    public void setUp() {
+        conflatingSource = new ConflatingPriceSource(1024, WaitStrategy.yielding());
+    }
+
+    @After
+    public void cleanUp() {
+        conflatingSource.shutDown();
+    }
+
+    @Test
+    public void priceIsDeliveredToTheListener() {
+        PriceListener priceListener = mock(PriceListener.class);
+        conflatingSource.addPriceListener(priceListener);
+        conflatingSource.priceUpdate("IBM", 54.00);
+        verify(priceListener, timeout(1000).times(1)).priceUpdate("IBM", 54.00);
+    }
+
+    @Test
+    public void stalePricesAreOverwrittenWhileTheListenerIsBusy() throws InterruptedException {
+        CountDownLatch firstReceived = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Double> prices = new CopyOnWriteArrayList<>();
+        conflatingSource.addPriceListener((SecurityPriceListener) (securityId, price) -> {
+            prices.add(price);
+            firstReceived.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        conflatingSource.priceUpdate(IBM, 1);
+        assertTrue(firstReceived.await(1, TimeUnit.SECONDS));
+        for (int i = 2; i <= 100; i++) {
+            conflatingSource.priceUpdate(IBM, i);
+        }
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (conflatingSource.getTicksDelivered() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(2, prices.size());
+        assertEquals(100.00, prices.get(1), 0.0);
+        assertEquals(100, conflatingSource.getTicksReceived());
+        assertEquals(98, conflatingSource.getTicksConflated());
+        assertEquals(2, conflatingSource.getTicksDelivered());
+    }
+
+    @Test
+    public void removedListenerIsNotNotified() {
+        PriceListener priceListener = mock(PriceListener.class);
+        conflatingSource.addPriceListener(priceListener);
+        conflatingSource.removePriceListener(priceListener);
+        conflatingSource.priceUpdate("IBM", 54.00);
+        verify(priceListener, after(200).never()).priceUpdate(anyString(), anyDouble());
+    }
+
+    @Test
+    public void pricesAreDeliveredOnceTheFirstListenerStartsTheConsumer() throws InterruptedException {
+        conflatingSource.priceUpdate(IBM, 54.00);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(0, conflatingSource.getTicksDelivered());
+
+        PriceListener priceListener = mock(PriceListener.class);
+        conflatingSource.addPriceListener(priceListener);
+        verify(priceListener, timeout(1000).times(1)).priceUpdate("IBM", 54.00);
+    }
+
+    @Test
+    public void securityAboveTheCapacityIsNotConflated() {
+        List<Double> prices = new CopyOnWriteArrayList<>();
+        conflatingSource.addPriceListener((SecurityPriceListener) (securityId, price) -> {
+            assertEquals(1024, securityId);
+            prices.add(price);
+        });
+        for (int i = 1; i <= 5_000; i++) {
+            conflatingSource.priceUpdate(1024, i);
+        }
+        long deadline = System.currentTimeMillis() + 2000;
+        while (prices.size() < 5_000 && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        assertEquals(5_000, prices.size());
+        for (int i = 0; i < prices.size(); i++) {
+            assertEquals(i + 1, prices.get(i), 0.0);
+        }
+        assertEquals(0, conflatingSource.getTicksConflated());
+    }
+}
@@ -0,0 +1,149 @@
+package com.acme.mytrader.price.ring;
+
+import com.acme.mytrader.price.PriceListener;
+import com.acme.mytrader.price.SecurityPriceListener;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * <pre>
+ * This test is to ensure that the RingBufferPriceSource hands the prices over to the listeners on the consumer
+ * threads, in order, and that a slow listener gets the latest prices only when the CONFLATE policy is used
+ * </pre>
+ */
+public class RingBufferPriceSourceTest {
+
+    private static final int IBM = SecurityRegistry.intern("IBM");
+    private static final int MSFT = SecurityRegistry.intern("MSFT");
+
+    private RingBufferPriceSource ringBuffer;
+
+    @After
+    public void cleanUp() {
+        ringBuffer.shutDown();
+    }
+
+    @Test
+    public void priceIsDeliveredOnTheConsumerThread() {
+        ringBuffer = new RingBufferPriceSource();
+        PriceListener priceListener = mock(PriceListener.class);
+        ringBuffer.addPriceListener(priceListener);
+        ringBuffer.priceUpdate("IBM", 54.00);
+        verify(priceListener, timeout(1000).times(1)).priceUpdate("IBM", 54.00);
+    }
+
+    @Test
+    public void blockingRingDeliversEveryPriceInOrder() throws InterruptedException {
+        ringBuffer = new RingBufferPriceSource(4, 2, WaitStrategy.yielding(), OverflowPolicy.BLOCK);
+        RecordingListener listener = new RecordingListener(1000);
+        ringBuffer.addPriceListener(listener);
+        for (int i = 0; i < 1000; i++) {
+            ringBuffer.priceUpdate(IBM, i);
+        }
+        assertTrue(listener.await());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, listener.prices.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void slowListenerGetsTheLatestPriceWhenConflating() throws InterruptedException {
+        ringBuffer = new RingBufferPriceSource(4, 2, WaitStrategy.busySpin(), OverflowPolicy.CONFLATE);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener listener = new RecordingListener(1) {
+            @Override
+            public void priceUpdate(int securityId, double price) {
+                awaitQuietly(release);
+                super.priceUpdate(securityId, price);
+            }
+        };
+        ringBuffer.addPriceListener(listener);
+        for (int i = 1; i <= 100; i++) {
+            ringBuffer.priceUpdate(IBM, i);
+            ringBuffer.priceUpdate(MSFT, 1000 + i);
+        }
+        release.countDown();
+        listener.awaitPrice(IBM, 100);
+        listener.awaitPrice(MSFT, 1100);
+        assertTrue(ringBuffer.getConflated() > 0);
+        assertTrue(listener.prices.size() < 200);
+        assertInOrder(listener.pricesOf(IBM));
+        assertInOrder(listener.pricesOf(MSFT));
+    }
+
+    @Test
+    public void removedListenerIsNotNotified() {
+        ringBuffer = new RingBufferPriceSource();
+        PriceListener priceListener = mock(PriceListener.class);
+        ringBuffer.addPriceListener(priceListener);
+        ringBuffer.removePriceListener(priceListener);
+        ringBuffer.priceUpdate("IBM", 54.00);
+        verify(priceListener, after(200).never()).priceUpdate(anyString(), anyDouble());
+    }
+
+    private static void assertInOrder(List<Double> prices) {
+        for (int i = 1; i < prices.size(); i++) {
+            assertTrue(prices.get(i - 1) < prices.get(i));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingListener implements SecurityPriceListener {
+        final List<Integer> securityIds = Collections.synchronizedList(new ArrayList<>());
+        final List<Double> prices = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch received;
+
+        RecordingListener(int expected) {
+            received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void priceUpdate(int securityId, double price) {
+            securityIds.add(securityId);
+            prices.add(price);
+            received.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return received.await(5, TimeUnit.SECONDS);
+        }
+
+        void awaitPrice(int securityId, double price) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!pricesOf(securityId).contains(price)) {
+                assertTrue("price " + price + " not received", System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+        }
+
+        List<Double> pricesOf(int securityId) {
+            List<Double> result = new ArrayList<>();
+            synchronized (prices) {
+                for (int i = 0; i < prices.size(); i++) {
+                    if (securityIds.get(i) == securityId) {
+                        result.add(prices.get(i));
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.acme.mytrader.soak;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ * This test is to ensure that the synthetic market and the order flow are deterministic (same seed, same run), that a
+ * soak run places, cancels, amends and executes orders through the whole pipeline and that the measured figures leave
+ * the warm up out. The collections forced for the heap baselines are not counted as pauses
+ * </pre>
+ */
+public class SoakRunnerTest {
+
+    @Test
+    public void sameSeedGivesTheSameTicks() {
+        SyntheticMarket market = new SyntheticMarket(7L, 5, 0.001);
+        SyntheticMarket replay = new SyntheticMarket(7L, 5, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            int symbol = market.nextTick();
+            assertEquals(symbol, replay.nextTick());
+            assertEquals(market.getPrice(symbol), replay.getPrice(symbol), 0.0);
+            assertTrue(market.getPrice(symbol) >= 0.01);
+        }
+        assertNotEquals(market.getPrice(0), new SyntheticMarket(8L, 5, 0.001).getPrice(0), 0.0);
+    }
+
+    @Test
+    public void sameSeedGivesTheSameRun() {
+        SoakConfig config = SoakConfig.builder()
+                .symbolCount(10)
+                .restingOrdersPerSymbol(20)
+                .cancelRatio(0.1)
+                .amendRatio(0.1)
+                .ticksPerSecond(0)
+                .warmUp(Duration.ZERO)
+                .maxTicks(50_000)
+                .build();
+
+        SoakReport report = new SoakRunner(config).run();
+
+        assertEquals(report, new SoakRunner(config).run());
+        assertEquals(50_000, report.getTicks());
+        assertEquals(50_000, report.getMeasuredTicks());
+        assertEquals(50_000, report.getTickLatency().getCount());
+        assertTrue(report.getOrdersPlaced() > 0);
+        assertTrue(report.getOrdersCancelled() > 0);
+        assertTrue(report.getOrdersAmended() > 0);
+        assertTrue(report.getExecutions() > 0);
+        assertTrue(report.getTicksPerSecond() > 0);
+    }
+
+    @Test
+    public void pacedRunMeasuresAfterTheWarmUp() {
+        SoakConfig config = SoakConfig.builder()
+                .symbolCount(10)
+                .ticksPerSecond(10_000)
+                .warmUp(Duration.ofMillis(200))
+                .duration(Duration.ofMillis(600))
+                .build();
+
+        SoakReport report = new SoakRunner(config).run();
+
+        assertTrue(report.getTicks() <= 6_000);
+        assertTrue(report.getMeasuredTicks() > 0 && report.getMeasuredTicks() < report.getTicks());
+        assertEquals(report.getMeasuredTicks(), report.getTickLatency().getCount());
+        assertTrue(report.getMeasuredTime().compareTo(Duration.ofMillis(100)) > 0);
+    }
+
+    @Test
+    public void forcedCollectionIsNotCountedAsAPause() throws InterruptedException {
+        GcMonitor gcMonitor = new GcMonitor();
+        gcMonitor.start();
+        try {
+            System.gc();
+            // the notification is delivered asynchronously
+            TimeUnit.MILLISECONDS.sleep(500);
+        } finally {
+            gcMonitor.stop();
+        }
+        assertEquals(0, gcMonitor.snapshot().getCount());
+    }
+}
@@ -3,6 +3,7 @@ package com.acme.mytrader.strategy;
 import com.acme.mytrader.client.StockClient;
 import com.acme.mytrader.entity.Order;
 import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.OrderType;
 import com.acme.mytrader.execution.ExecutionService;
 import com.acme.mytrader.price.PriceSource;
 import com.acme.mytrader.price.impl.StockFeedObservable;
@@ -16,6 +17,10 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.verification.VerificationMode;
 
 import static com.acme.mytrader.testdata.TestDataFactory.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 /**
@@ -26,7 +31,8 @@ import static org.mockito.Mockito.*;
  * <p>
  * 1. StockFeedObservableTest ensures that StockClient is invoked - MOCK
  * 2. StockFeedObservableTest ensured that PriceListener is invoked - MOCK
- * 3. This ensure that ExecutionService is invoked - MOCK
+ * 3. This ensure that ExecutionService is invoked - MOCK, at the trigger price (BELOW, ABOVE), the limit price
+ * (STOP_LIMIT) or the live price (TRAILING_STOP, PRICE_BAND)
  * 4. Over all end to end flow is tested however there is a quality, betterment, reusability and all these must be done
  * 5. Since the limited time encores to go with this approach as the aim is to cover the end to end flow with MOCK
  * <p>
@@ -54,24 +60,25 @@ public class TradingStrategyTest {
     @Before
     public void setUp() {
         stockClient = mock(StockClient.class);
+        when(stockClient.getLiveStockPrices(anyCollection())).thenAnswer(singleQuoteAnswer(stockClient));
         stockToMonitor = createStock();
         liveStockToVerify = Stock.builder()
                 .security(stockToMonitor.getSecurity())
                 .price(50.00)
                 .build();
-        oneTime = Mockito.timeout(1200).times(1);
+        oneTime = Mockito.timeout(1500).times(1);
         buyOrder = createBuyOrder();
         sellOrder = createSellOrder();
-        zeroTime = Mockito.timeout(1200).times(0);
+        zeroTime = Mockito.timeout(1500).times(0);
         priceSource = StockFeedObservable.getPriceSource(stockClient, stockToMonitor);
         executionService = mock(ExecutionService.class);
         when(stockClient.getLiveStockPrice(stockToMonitor.getSecurity())).thenReturn(liveStockToVerify);
-        tradingStrategy = new TradingStrategy(StockFeedObservable.getPriceSource(stockClient, stockToMonitor),
-                executionService);
+        tradingStrategy = new TradingStrategy(priceSource, executionService);
     }
 
     @After
     public void cleanUp() {
+        ((StockFeedObservable) priceSource).shutDown();
         stockClient = null;
         stockToMonitor = null;
         liveStockToVerify = null;
@@ -117,4 +124,117 @@ public class TradingStrategyTest {
         Stock orderStock = buyOrder.getStock();
         verify(executionService, zeroTime).buy(orderStock.getSecurity(), orderStock.getPrice(), buyOrder.getVolume());
     }
+
+    @Test
+    public void cancelledAndAmendedOrdersDoNotFireWithTheirOldTrigger() {
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        strategy.placeOrder(buyOrder);
+        strategy.placeOrder(sellOrder);
+        Order amendedBuyOrder = createBuyOrder();
+        amendedBuyOrder.setVolume(8);
+
+        assertTrue(strategy.cancelOrder(sellOrder.getOrderNo()));
+        assertFalse(strategy.cancelOrder(sellOrder.getOrderNo()));
+        assertTrue(strategy.amendOrder(amendedBuyOrder));
+        assertFalse(strategy.amendOrder(sellOrder));
+        strategy.priceUpdate(liveStockToVerify);
+
+        Stock orderStock = buyOrder.getStock();
+        verify(executionService).buy(orderStock.getSecurity(), orderStock.getPrice(), 8);
+        verify(executionService, never()).sell(anyString(), anyDouble(), anyInt());
+        assertEquals(0, strategy.getOrderCount());
+    }
+
+    @Test
+    public void orderNumberOfARestingOrderIsNotPlacedAgain() {
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        strategy.placeOrder(buyOrder);
+        try {
+            strategy.placeOrder(createBuyOrder());
+            fail("order number " + buyOrder.getOrderNo() + " placed twice");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(1, strategy.getOrderCount());
+
+        // once fired, the order number can be used again
+        strategy.priceUpdate(liveStockToVerify);
+        strategy.placeOrder(createBuyOrder());
+        assertEquals(1, strategy.getOrderCount());
+    }
+
+    @Test
+    public void aboveOrderIsExecutedAtItsTriggerPrice() {
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        buyOrder.setType(OrderType.ABOVE);
+        strategy.placeOrder(buyOrder);
+        strategy.priceUpdate(stock(55.00));
+        verifyNoInteractions(executionService);
+
+        strategy.priceUpdate(stock(57.50));
+        verify(executionService).buy("IBM", 55.00, buyOrder.getVolume());
+    }
+
+    @Test
+    public void stopLimitOrderIsExecutedAtItsLimitPrice() {
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        sellOrder.setType(OrderType.STOP_LIMIT);
+        sellOrder.setLimitPrice(54.50);
+        strategy.placeOrder(sellOrder);
+        strategy.priceUpdate(stock(54.80));
+        verify(executionService).sell("IBM", 54.50, sellOrder.getVolume());
+    }
+
+    @Test
+    public void trailingStopOrderIsExecutedAtTheLivePrice() {
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        sellOrder.setType(OrderType.TRAILING_STOP);
+        sellOrder.setTrailAmount(1.00);
+        strategy.placeOrder(sellOrder);
+        // the stop trails the highest price up to 57.00, a fall to 56.50 crosses it
+        strategy.priceUpdate(stock(58.00));
+        strategy.priceUpdate(stock(57.20));
+        verifyNoInteractions(executionService);
+
+        strategy.priceUpdate(stock(56.50));
+        verify(executionService).sell("IBM", 56.50, sellOrder.getVolume());
+        assertEquals(0, strategy.getOrderCount());
+    }
+
+    @Test
+    public void priceBandOrderIsExecutedAtTheLivePrice() {
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        Order bandOrder = createBuyOrder();
+        bandOrder.setType(OrderType.PRICE_BAND);
+        bandOrder.getStock().setPrice(50.00);
+        bandOrder.setUpperPrice(52.00);
+        strategy.placeOrder(bandOrder);
+        strategy.priceUpdate(stock(52.00));
+        strategy.priceUpdate(stock(50.00));
+        verifyNoInteractions(executionService);
+
+        strategy.priceUpdate(stock(51.25));
+        verify(executionService).buy("IBM", 51.25, bandOrder.getVolume());
+        verify(executionService, never()).sell(anyString(), anyDouble(), anyInt());
+    }
+
+    @Test
+    public void failedExecutionRejectsOnlyItsOrder() {
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        doThrow(new IllegalStateException("Broker unavailable")).when(executionService).buy(anyString(), anyDouble(), anyInt());
+        strategy.placeOrder(buyOrder);
+        strategy.placeOrder(sellOrder);
+
+        strategy.priceUpdate(stock(50.00));
+        verify(executionService).sell("IBM", 55.00, sellOrder.getVolume());
+        assertEquals(1, strategy.getFailedExecutionCount());
+        assertEquals(0, strategy.getOrderCount());
+
+        strategy.priceUpdate(stock(49.00));
+        verify(executionService, times(1)).buy(anyString(), anyDouble(), anyInt());
+    }
+
+    private static Stock stock(double price) {
+        return Stock.builder().security("IBM").price(price).build();
+    }
 }
@@ -0,0 +1,170 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
+import com.acme.mytrader.price.SecurityRegistry;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static com.acme.mytrader.testdata.TestDataFactory.createSellOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ * This test is to ensure that the OffHeapOrderStore gives back an Order equal to the stored one (typed orders included),
+ * that the freed slots are reused before the store grows, that the slots are found by order number until they are
+ * cancelled or freed and that the book built on it keeps millions of orders apart without losing any. A store starts with
+ * a small chunk that grows geometrically and close releases its memory
+ * </pre>
+ */
+public class OffHeapOrderStoreTest {
+
+    @Test
+    public void storedOrderIsGivenBackAsAnEqualView() {
+        OffHeapOrderStore store = new OffHeapOrderStore();
+        Order sellOrder = createSellOrder();
+        Order stopLimit = order(7, "MSFT", 60.00);
+        stopLimit.setType(OrderType.STOP_LIMIT);
+        stopLimit.setLimitPrice(61.50);
+
+        int sellSlot = store.add(sellOrder, SecurityRegistry.intern("IBM"));
+        int stopSlot = store.add(stopLimit, SecurityRegistry.intern("MSFT"));
+
+        assertEquals(sellOrder, store.toOrder(sellSlot));
+        assertNotSame(sellOrder, store.toOrder(sellSlot));
+        assertEquals(stopLimit, store.toOrder(stopSlot));
+        assertNull(store.toOrder(stopSlot).getTrailAmount());
+        assertEquals(7L, store.orderNo(stopSlot));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void freedSlotsAreReused() {
+        OffHeapOrderStore store = new OffHeapOrderStore();
+        int securityId = SecurityRegistry.intern("IBM");
+        int first = store.add(order(1, "IBM", 50.00), securityId);
+        int second = store.add(order(2, "IBM", 51.00), securityId);
+        long capacity = store.capacityBytes();
+        store.free(first);
+        store.free(second);
+
+        assertEquals(second, store.add(order(3, "IBM", 52.00), securityId));
+        assertEquals(first, store.add(order(4, "IBM", 53.00), securityId));
+        assertEquals(3L, store.orderNo(second));
+        assertEquals(capacity, store.capacityBytes());
+    }
+
+    @Test
+    public void firstChunkIsSmallAndTheChunksGrowGeometrically() {
+        OffHeapOrderStore store = new OffHeapOrderStore();
+        int securityId = SecurityRegistry.intern("IBM");
+        assertEquals(0, store.capacityBytes());
+        store.add(order(0, "IBM", 50.00), securityId);
+        assertEquals(16 * OffHeapOrderStore.RECORD_SIZE, store.capacityBytes());
+        for (int i = 1; i <= 16; i++) {
+            store.add(order(i, "IBM", 50.00), securityId);
+        }
+        assertEquals(32 * OffHeapOrderStore.RECORD_SIZE, store.capacityBytes());
+
+        int[] slots = new int[10_000];
+        for (int i = 17; i < slots.length; i++) {
+            slots[i] = store.add(order(i, "IBM", 50.00 + i), securityId);
+        }
+        // the growing chunks hold the first 4096 slots, then 4096 slots per chunk
+        assertEquals(3 * 4096L * OffHeapOrderStore.RECORD_SIZE, store.capacityBytes());
+        for (int i = 17; i < slots.length; i++) {
+            assertEquals(order(i, "IBM", 50.00 + i), store.toOrder(slots[i]));
+        }
+    }
+
+    @Test
+    public void closeReleasesTheChunksAndEmptiesTheStore() {
+        OffHeapOrderStore store = new OffHeapOrderStore();
+        int securityId = SecurityRegistry.intern("IBM");
+        for (int i = 0; i < 5_000; i++) {
+            store.add(order(i, "IBM", 50.00), securityId);
+        }
+        store.close();
+        assertEquals(0, store.capacityBytes());
+        assertEquals(0, store.size());
+        assertEquals(OffHeapOrderStore.NO_SLOT, store.slotOf(1L));
+
+        int slot = store.add(order(1, "IBM", 51.00), securityId);
+        assertEquals(0, slot);
+        assertEquals(slot, store.slotOf(1L));
+        assertEquals(order(1, "IBM", 51.00), store.toOrder(slot));
+    }
+
+    @Test
+    public void slotsAreFoundByOrderNumberUntilCancelledOrFreed() {
+        OffHeapOrderStore store = new OffHeapOrderStore();
+        int securityId = SecurityRegistry.intern("IBM");
+        int[] slots = new int[10_000];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = store.add(order(i * 1024L, "IBM", 50.00), securityId);
+        }
+        for (int i = 0; i < slots.length; i += 2) {
+            store.cancel(slots[i]);
+        }
+        store.free(slots[1]);
+
+        assertEquals(OffHeapOrderStore.NO_SLOT, store.slotOf(0L));
+        assertEquals(OffHeapOrderStore.NO_SLOT, store.slotOf(1024L));
+        assertTrue(store.isCancelled(slots[0]));
+        assertFalse(store.isCancelled(slots[3]));
+        for (int i = 3; i < slots.length; i += 2) {
+            assertEquals(slots[i], store.slotOf(i * 1024L));
+        }
+        // a freed cancelled slot leaves the order number to a newer order
+        int newer = store.add(order(2 * 1024L, "IBM", 51.00), securityId);
+        store.free(slots[2]);
+        assertEquals(newer, store.slotOf(2 * 1024L));
+    }
+
+    @Test
+    public void bookKeepsManyOrdersOffHeap() {
+        OrderTriggerBook orderBook = new OrderTriggerBook();
+        int orderCount = 100_000;
+        for (int i = 0; i < orderCount; i++) {
+            orderBook.add(order(i, "SYM" + (i % 10), 50.00 + (i % 1000) / 100.00));
+        }
+        assertEquals(orderCount, orderBook.size());
+        assertEquals(0, orderBook.getOffHeapBytes() % OffHeapOrderStore.RECORD_SIZE);
+
+        TriggeredOrders triggered = new TriggeredOrders();
+        assertEquals(orderCount / 10, orderBook.drainTriggered("SYM3", 40.00, triggered));
+        for (int i = 0; i < triggered.size(); i++) {
+            assertEquals("SYM3", triggered.get(i).getStock().getSecurity());
+        }
+        assertEquals(orderCount - orderCount / 10, orderBook.size());
+
+        orderBook.close();
+        assertEquals(0, orderBook.size());
+        assertEquals(0, orderBook.size("SYM4"));
+        assertEquals(0, orderBook.getOffHeapBytes());
+        assertEquals(0, orderBook.drainTriggered("SYM4", 40.00, triggered));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void orderNumberThatDoesNotFitALongIsRejected() {
+        Order order = order(1, "IBM", 50.00);
+        order.setOrderNo(BigInteger.ONE.shiftLeft(64));
+        new OrderTriggerBook().add(order);
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .volume(10)
+                .stock(new Stock(security, triggerPrice))
+                .direction(Direction.BUY)
+                .build();
+    }
+}
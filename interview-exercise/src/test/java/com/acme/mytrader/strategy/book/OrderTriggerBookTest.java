@@ -0,0 +1,283 @@
+package com.acme.mytrader.strategy.book;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.acme.mytrader.testdata.TestDataFactory.createBuyOrder;
+import static com.acme.mytrader.testdata.TestDataFactory.createSellOrder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <pre>
+ * This test is to ensure that the OrderTriggerBook picks only the orders of the ticking security whose trigger price
+ * is above the live price and that the picked orders are removed from the book.
+ * The other order types must fire on their own trigger rule only, next to each other in the same book.
+ * The orders cancelled or amended by order number must never fire with their old trigger
+ * </pre>
+ */
+public class OrderTriggerBookTest {
+
+    private OrderTriggerBook orderBook;
+    private TriggeredOrders triggered;
+
+    @Before
+    public void setUp() {
+        orderBook = new OrderTriggerBook();
+        triggered = new TriggeredOrders();
+    }
+
+    @Test
+    public void triggeredOrderIsDrainedOnlyOnce() {
+        Order buyOrder = createBuyOrder();
+        orderBook.add(buyOrder);
+        assertEquals(1, orderBook.drainTriggered("IBM", 50.00, triggered));
+        assertThat(orders(triggered), contains(buyOrder));
+        assertEquals(0, orderBook.size());
+
+        triggered.clear();
+        assertEquals(0, orderBook.drainTriggered("IBM", 40.00, triggered));
+        assertThat(orders(triggered), empty());
+    }
+
+    @Test
+    public void equalOrHigherPriceDoesNotTrigger() {
+        orderBook.add(createBuyOrder());
+        assertEquals(0, orderBook.drainTriggered("IBM", 55.00, triggered));
+        assertEquals(0, orderBook.drainTriggered("IBM", 60.00, triggered));
+        assertEquals(1, orderBook.size());
+    }
+
+    @Test
+    public void onlyCrossedLevelsOfTheTickingSecurityAreDrained() {
+        Order low = order(1, "IBM", 40.00);
+        Order mid = order(2, "IBM", 50.00);
+        Order high = order(3, "IBM", 60.00);
+        Order other = order(4, "MSFT", 60.00);
+        orderBook.add(high);
+        orderBook.add(low);
+        orderBook.add(other);
+        orderBook.add(mid);
+
+        assertEquals(2, orderBook.drainTriggered("IBM", 45.00, triggered));
+        assertThat(orders(triggered), contains(mid, high));
+        assertEquals(1, orderBook.size("IBM"));
+        assertEquals(1, orderBook.size("MSFT"));
+    }
+
+    @Test
+    public void ordersAtTheSameLevelFireInPlacementOrder() {
+        Order buyOrder = createBuyOrder();
+        Order sellOrder = createSellOrder();
+        orderBook.add(buyOrder);
+        orderBook.add(sellOrder);
+        orderBook.drainTriggered("IBM", 54.00, triggered);
+        assertThat(orders(triggered), contains(buyOrder, sellOrder));
+    }
+
+    @Test
+    public void unknownSecurityTriggersNothing() {
+        orderBook.add(createBuyOrder());
+        assertEquals(0, orderBook.drainTriggered("ORCL", 1.00, triggered));
+    }
+
+    @Test
+    public void clearedBufferIsReusedForTheNextTick() {
+        orderBook.add(order(1, "IBM", 40.00));
+        orderBook.add(order(2, "IBM", 60.00));
+        orderBook.drainTriggered("IBM", 50.00, triggered);
+        triggered.clear();
+        orderBook.drainTriggered("IBM", 30.00, triggered);
+        assertEquals(1, triggered.size());
+        assertEquals(BigInteger.valueOf(1), triggered.get(0).getOrderNo());
+    }
+
+    @Test
+    public void aboveAndStopLimitOrdersFireOnTheirSide() {
+        Order above = typed(order(1, "IBM", 60.00), OrderType.ABOVE);
+        Order buyStop = typed(order(2, "IBM", 65.00), OrderType.STOP_LIMIT);
+        buyStop.setLimitPrice(66.00);
+        Order sellStop = typed(order(3, "IBM", 45.00), OrderType.STOP_LIMIT);
+        sellStop.setLimitPrice(44.00);
+        sellStop.setDirection(Direction.SELL);
+        orderBook.add(above);
+        orderBook.add(buyStop);
+        orderBook.add(sellStop);
+
+        assertEquals(0, orderBook.drainTriggered("IBM", 60.00, triggered));
+        assertEquals(1, orderBook.drainTriggered("IBM", 62.00, triggered));
+        assertThat(orders(triggered), contains(above));
+        triggered.clear();
+        assertEquals(1, orderBook.drainTriggered("IBM", 70.00, triggered));
+        assertThat(orders(triggered), contains(buyStop));
+        triggered.clear();
+        assertEquals(1, orderBook.drainTriggered("IBM", 40.00, triggered));
+        assertThat(orders(triggered), contains(sellStop));
+        assertEquals(0, orderBook.size());
+    }
+
+    @Test
+    public void trailingStopsFollowTheBestPrice() {
+        Order sellTrailing = typed(order(1, "IBM", 50.00), OrderType.TRAILING_STOP);
+        sellTrailing.setTrailAmount(5.00);
+        sellTrailing.setDirection(Direction.SELL);
+        Order buyTrailing = typed(order(2, "MSFT", 50.00), OrderType.TRAILING_STOP);
+        buyTrailing.setTrailAmount(5.00);
+        orderBook.add(sellTrailing);
+        orderBook.add(buyTrailing);
+
+        // the sell stop rises from 45 to 55 with the price
+        assertEquals(0, orderBook.drainTriggered("IBM", 46.00, triggered));
+        assertEquals(0, orderBook.drainTriggered("IBM", 60.00, triggered));
+        assertEquals(1, orderBook.drainTriggered("IBM", 54.00, triggered));
+        assertThat(orders(triggered), contains(sellTrailing));
+        triggered.clear();
+        // the buy stop falls from 55 to 50 with the price
+        assertEquals(0, orderBook.drainTriggered("MSFT", 54.00, triggered));
+        assertEquals(0, orderBook.drainTriggered("MSFT", 45.00, triggered));
+        assertEquals(1, orderBook.drainTriggered("MSFT", 51.00, triggered));
+        assertThat(orders(triggered), contains(buyTrailing));
+    }
+
+    @Test
+    public void priceBandFiresInsideTheBand() {
+        Order band = typed(order(1, "IBM", 50.00), OrderType.PRICE_BAND);
+        band.setUpperPrice(52.00);
+        orderBook.add(band);
+
+        assertEquals(0, orderBook.drainTriggered("IBM", 49.00, triggered));
+        assertEquals(0, orderBook.drainTriggered("IBM", 52.00, triggered));
+        assertEquals(1, orderBook.drainTriggered("IBM", 51.00, triggered));
+        assertThat(orders(triggered), contains(band));
+    }
+
+    @Test
+    public void typedOrdersAreRemovedFromTheirTriggers() {
+        Order above = typed(order(1, "IBM", 60.00), OrderType.ABOVE);
+        Order trailing = typed(order(2, "IBM", 50.00), OrderType.TRAILING_STOP);
+        trailing.setTrailAmount(1.00);
+        Order band = typed(order(3, "IBM", 50.00), OrderType.PRICE_BAND);
+        band.setUpperPrice(52.00);
+        orderBook.add(above);
+        orderBook.add(trailing);
+        orderBook.add(band);
+
+        assertEquals(trailing, orderBook.remove(trailing));
+        assertEquals(band, orderBook.remove(band));
+        assertEquals(above, orderBook.remove(above));
+        assertNull(orderBook.remove(above));
+        assertEquals(0, orderBook.size("IBM"));
+    }
+
+    @Test
+    public void orderCancelledByNumberDoesNotFire() {
+        Order low = order(1, "IBM", 40.00);
+        Order high = order(2, "IBM", 60.00);
+        Order trailing = typed(order(3, "IBM", 50.00), OrderType.TRAILING_STOP);
+        trailing.setTrailAmount(1.00);
+        orderBook.add(low);
+        orderBook.add(high);
+        orderBook.add(trailing);
+
+        assertEquals(high, orderBook.remove(2L));
+        assertEquals(trailing, orderBook.remove(3L));
+        assertNull(orderBook.remove(2L));
+        assertNull(orderBook.get(2L));
+        assertEquals(1, orderBook.size("IBM"));
+
+        assertEquals(1, orderBook.drainTriggered("IBM", 30.00, triggered));
+        assertThat(orders(triggered), contains(low));
+        assertEquals(0, orderBook.size());
+    }
+
+    @Test
+    public void volumeAmendmentKeepsThePriority() {
+        Order first = order(1, "IBM", 50.00);
+        Order second = order(2, "IBM", 50.00);
+        orderBook.add(first);
+        orderBook.add(second);
+        Order amended = order(1, "IBM", 50.00);
+        amended.setVolume(25);
+
+        assertEquals(first, orderBook.amend(amended));
+        assertEquals(amended, orderBook.get(1L));
+        assertEquals(2, orderBook.drainTriggered("IBM", 45.00, triggered));
+        assertThat(orders(triggered), contains(amended, second));
+    }
+
+    @Test
+    public void triggerAmendmentMovesTheOrder() {
+        Order order = order(1, "IBM", 50.00);
+        orderBook.add(order);
+        Order amended = typed(order(1, "IBM", 60.00), OrderType.ABOVE);
+
+        assertEquals(order, orderBook.amend(amended));
+        assertNull(orderBook.amend(order(9, "IBM", 50.00)));
+        assertEquals(0, orderBook.drainTriggered("IBM", 45.00, triggered));
+        assertEquals(1, orderBook.drainTriggered("IBM", 65.00, triggered));
+        assertThat(orders(triggered), contains(amended));
+        assertEquals(0, orderBook.size());
+    }
+
+    @Test
+    public void placeAndCancelCyclesKeepTheMemoryFlat() {
+        for (int i = 0; i < 1_000; i++) {
+            orderBook.add(order(i, "IBM", 50.00 + i % 100));
+        }
+        // the ladder keeps up to as many cancelled slots as live ones, the store reaches its size within the first cycles
+        long offHeapBytes = 0;
+        for (int i = 1_000; i < 1_000_000; i++) {
+            orderBook.add(order(i, "IBM", 50.00 + i % 100));
+            assertEquals(i - 1_000, orderBook.remove(i - 1_000).getOrderNo().intValue());
+            if (i == 10_000) {
+                offHeapBytes = orderBook.getOffHeapBytes();
+            }
+        }
+        assertTrue(offHeapBytes <= 2_048L * OffHeapOrderStore.RECORD_SIZE);
+        assertEquals(1_000, orderBook.size());
+        assertEquals(offHeapBytes, orderBook.getOffHeapBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stopLimitWithoutLimitPriceIsRejected() {
+        orderBook.add(typed(order(1, "IBM", 60.00), OrderType.STOP_LIMIT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void priceBandWithoutUpperPriceAboveTheTriggerIsRejected() {
+        Order band = typed(order(1, "IBM", 60.00), OrderType.PRICE_BAND);
+        band.setUpperPrice(60.00);
+        orderBook.add(band);
+    }
+
+    private static Order typed(Order order, OrderType type) {
+        order.setType(type);
+        return order;
+    }
+
+    private static List<Order> orders(TriggeredOrders triggered) {
+        return IntStream.range(0, triggered.size()).mapToObj(triggered::get).collect(Collectors.toList());
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .volume(10)
+                .stock(new Stock(security, triggerPrice))
+                .direction(Direction.BUY)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.acme.mytrader.strategy.host;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.PriceSource;
+import com.acme.mytrader.strategy.TradingStrategy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static com.acme.mytrader.testdata.TestDataFactory.createBuyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+/**
+ * <pre>
+ * This test is to ensure that the StrategyHost registers one listener for all its strategies and hands a tick only to
+ * the strategies that have resting orders in the ticking security, following their placements, fires and
+ * cancellations. Thousands of strategies fit in a host and the closed ones release their books
+ * </pre>
+ */
+public class StrategyHostTest {
+
+    private PriceSource priceSource;
+    private StrategyHost host;
+
+    @Before
+    public void setUp() {
+        priceSource = mock(PriceSource.class);
+        host = new StrategyHost(priceSource);
+    }
+
+    @Test
+    public void registersOnceWithThePriceSourceAndExecutesTheTriggeredOrders() {
+        ExecutionService first = mock(ExecutionService.class);
+        ExecutionService second = mock(ExecutionService.class);
+        TradingStrategy firstStrategy = new TradingStrategy(first);
+        TradingStrategy secondStrategy = new TradingStrategy(second);
+        host.addStrategy(firstStrategy);
+        host.addStrategy(secondStrategy);
+        verify(priceSource, times(1)).addPriceListener(host);
+
+        firstStrategy.placeOrder(createBuyOrder());
+        secondStrategy.placeOrder(createBuyOrder());
+        host.priceUpdate("IBM", 50.00);
+
+        verify(first).buy("IBM", 55.00, 5);
+        verify(second).buy("IBM", 55.00, 5);
+        host.shutDown();
+        verify(priceSource).removePriceListener(host);
+    }
+
+    @Test
+    public void onlyTheStrategiesWithOrdersInTheSecurityAreSubscribed() {
+        ExecutionService executionService = mock(ExecutionService.class);
+        TradingStrategy ibmStrategy = new TradingStrategy(executionService);
+        TradingStrategy msftStrategy = new TradingStrategy(executionService);
+        host.addStrategy(ibmStrategy);
+        host.addStrategy(msftStrategy);
+
+        Order ibmOrder = order(1, "IBM", 55.00);
+        ibmStrategy.placeOrder(ibmOrder);
+        ibmStrategy.placeOrder(order(2, "IBM", 50.00));
+        msftStrategy.placeOrder(order(3, "MSFT", 100.00));
+        assertEquals(1, host.getSubscriberCount("IBM"));
+        assertEquals(1, host.getSubscriberCount("MSFT"));
+        assertEquals(2, host.getSubscriptionCount());
+
+        // one of the two IBM orders fires, the strategy keeps its subscription
+        host.priceUpdate("IBM", 52.00);
+        verify(executionService).buy("IBM", 55.00, 10);
+        assertEquals(1, host.getSubscriberCount("IBM"));
+
+        // the last IBM order fires, the strategy is unsubscribed
+        host.priceUpdate("IBM", 49.00);
+        assertEquals(0, host.getSubscriberCount("IBM"));
+
+        // cancelling the last MSFT order unsubscribes too, a new placement subscribes again
+        msftStrategy.cancelOrder(order(3, "MSFT", 100.00));
+        assertEquals(0, host.getSubscriptionCount());
+        msftStrategy.placeOrder(order(4, "MSFT", 100.00));
+        assertEquals(1, host.getSubscriberCount("MSFT"));
+    }
+
+    @Test
+    public void strategiesAreSubscribedToTheirExistingOrdersAndCanBeRemoved() {
+        ExecutionService executionService = mock(ExecutionService.class);
+        TradingStrategy strategy = new TradingStrategy(executionService);
+        strategy.placeOrder(order(1, "IBM", 55.00));
+        strategy.placeOrder(order(2, "ORCL", 20.00));
+
+        host.addStrategy(strategy);
+        assertEquals(2, host.getSubscriptionCount());
+
+        host.removeStrategy(strategy);
+        assertEquals(0, host.getSubscriptionCount());
+        assertEquals(0, host.getStrategyCount());
+        host.priceUpdate("IBM", 50.00);
+        verifyNoInteractions(executionService);
+        assertEquals(2, strategy.getOrderCount());
+    }
+
+    @Test
+    public void scalesToThousandsOfStrategies() {
+        ExecutionService executionService = mock(ExecutionService.class);
+        TradingStrategy[] strategies = new TradingStrategy[5000];
+        for (int i = 0; i < strategies.length; i++) {
+            strategies[i] = new TradingStrategy(executionService);
+            host.addStrategy(strategies[i]);
+            strategies[i].placeOrder(order(i, "HOST" + (i % 100), 10.00));
+        }
+        assertEquals(5000, host.getStrategyCount());
+        assertEquals(50, host.getSubscriberCount("HOST7"));
+
+        host.priceUpdate("HOST7", 9.00);
+        verify(executionService, times(50)).buy("HOST7", 10.00, 10);
+        assertEquals(0, host.getSubscriberCount("HOST7"));
+        assertEquals(4950, host.getSubscriptionCount());
+    }
+
+    @Test
+    public void closedStrategiesReleaseTheirBooks() {
+        ExecutionService executionService = mock(ExecutionService.class);
+        for (int i = 0; i < 50_000; i++) {
+            TradingStrategy strategy = new TradingStrategy(executionService);
+            host.addStrategy(strategy);
+            strategy.placeOrder(order(i, "HOST" + (i % 100), 10.00));
+            host.closeStrategy(strategy);
+            assertEquals(0, strategy.getOrderCount());
+        }
+        assertEquals(0, host.getStrategyCount());
+        assertEquals(0, host.getSubscriptionCount());
+        host.priceUpdate("HOST7", 9.00);
+        verifyNoInteractions(executionService);
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return new Order(BigInteger.valueOf(orderNo), new Stock(security, triggerPrice), 10, Direction.BUY);
+    }
+}
@@ -0,0 +1,272 @@
+package com.acme.mytrader.strategy.journal.impl;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.entity.constants.OrderType;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.strategy.TradingStrategy;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * <pre>
+ * This test is to ensure that the TradingStrategy gets back its resting orders from the FileOrderJournal after a restart:
+ * the placed orders are recovered, the fired and cancelled ones are not, in placement order, through the snapshots and
+ * after a crash that left a torn record at the end of the log. An order whose volume was amended keeps its priority.
+ * The records appended by many threads must be made durable with fewer fsync than records (group commit). A snapshot
+ * is written by the flusher, not by the thread that asks for it, and a flusher that fails fails the journal.
+ * </pre>
+ */
+public class FileOrderJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void onlyTheRestingOrdersAreRecovered() throws IOException {
+        Path directory = folder.newFolder("orders").toPath();
+        Order fired = order(1, "IBM", 60.00);
+        Order cancelled = order(2, "IBM", 50.00);
+        Order resting = order(3, "IBM", 40.00);
+        FileOrderJournal journal = new FileOrderJournal(directory);
+        TradingStrategy tradingStrategy = new TradingStrategy(mock(ExecutionService.class), journal);
+        tradingStrategy.placeOrder(fired);
+        tradingStrategy.placeOrder(cancelled);
+        tradingStrategy.placeOrder(resting);
+        tradingStrategy.cancelOrder(cancelled);
+        tradingStrategy.priceUpdate(new Stock("IBM", 55.00));
+        journal.close();
+
+        FileOrderJournal reopened = new FileOrderJournal(directory);
+        assertThat(reopened.recoveredOrders(), contains(resting));
+        ExecutionService executionService = mock(ExecutionService.class);
+        TradingStrategy recovered = new TradingStrategy(executionService, reopened);
+        assertEquals(1, recovered.getOrderCount());
+        recovered.priceUpdate(new Stock("IBM", 30.00));
+        verify(executionService).buy("IBM", 40.00, 10);
+        verifyNoMoreInteractions(executionService);
+        reopened.close();
+    }
+
+    @Test
+    public void typedOrdersAreRecoveredWithTheirPrices() throws IOException {
+        Path directory = folder.newFolder("orders").toPath();
+        Order stopLimit = order(1, "IBM", 60.00);
+        stopLimit.setType(OrderType.STOP_LIMIT);
+        stopLimit.setLimitPrice(61.00);
+        Order band = order(2, "IBM", 40.00);
+        band.setType(OrderType.PRICE_BAND);
+        band.setUpperPrice(45.00);
+        Order plain = order(3, "IBM", 30.00);
+        FileOrderJournal journal = new FileOrderJournal(directory, 2);
+        TradingStrategy tradingStrategy = new TradingStrategy(mock(ExecutionService.class), journal);
+        tradingStrategy.placeOrder(stopLimit);
+        tradingStrategy.placeOrder(band);
+        tradingStrategy.placeOrder(plain);
+        journal.close();
+
+        FileOrderJournal reopened = new FileOrderJournal(directory);
+        assertThat(reopened.recoveredOrders(), contains(stopLimit, band, plain));
+        ExecutionService executionService = mock(ExecutionService.class);
+        TradingStrategy recovered = new TradingStrategy(executionService, reopened);
+        recovered.priceUpdate(new Stock("IBM", 62.00));
+        verify(executionService).buy("IBM", 61.00, 10);
+        verifyNoMoreInteractions(executionService);
+        reopened.close();
+    }
+
+    @Test
+    public void volumeAmendedOrderKeepsItsPriorityAfterARestart() throws IOException {
+        assertVolumeAmendKeepsThePriority(folder.newFolder("log").toPath(), 1_000);
+        // the amendment is the last record before the snapshot
+        assertVolumeAmendKeepsThePriority(folder.newFolder("snapshot").toPath(), 3);
+    }
+
+    @Test
+    public void snapshotReplacesTheOlderLogs() throws IOException {
+        Path directory = folder.newFolder("orders").toPath();
+        FileOrderJournal journal = new FileOrderJournal(directory, 10);
+        TradingStrategy tradingStrategy = new TradingStrategy(mock(ExecutionService.class), journal);
+        List<Order> placed = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            placed.add(order(i, "MSFT", 100.00));
+            tradingStrategy.placeOrder(placed.get(i));
+        }
+        journal.close();
+
+        assertThat(files(directory, "snapshot-"), contains("snapshot-00000000000000000020.bin"));
+        assertThat(files(directory, "orders-"), contains("orders-00000000000000000020.log"));
+        FileOrderJournal reopened = new FileOrderJournal(directory, 10);
+        assertEquals(placed, reopened.recoveredOrders());
+        assertEquals(25, reopened.getAppendedSequence());
+        reopened.close();
+    }
+
+    @Test
+    public void tornTailIsDroppedAndTheJournalGoesOn() throws IOException {
+        Path directory = folder.newFolder("orders").toPath();
+        FileOrderJournal journal = new FileOrderJournal(directory);
+        journal.placed(order(1, "IBM", 40.00));
+        journal.placed(order(2, "IBM", 41.00));
+        journal.close();
+        Path log = directory.resolve(files(directory, "orders-").get(0));
+        // a record whose write was cut by the crash
+        Files.write(log, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        FileOrderJournal reopened = new FileOrderJournal(directory);
+        assertThat(reopened.recoveredOrders(), hasSize(2));
+        reopened.placed(order(3, "IBM", 42.00));
+        reopened.close();
+
+        FileOrderJournal again = new FileOrderJournal(directory);
+        assertThat(again.recoveredOrders(), hasSize(3));
+        again.close();
+    }
+
+    @Test(timeout = 20000)
+    public void recordsOfManyThreadsShareTheFsync() throws Exception {
+        Path directory = folder.newFolder("orders").toPath();
+        FileOrderJournal journal = new FileOrderJournal(directory);
+        int threadCount = 4;
+        int perThread = 2000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int first = t * perThread;
+            threads.add(new Thread(() -> {
+                for (int i = first; i < first + perThread; i++) {
+                    journal.placed(order(i, "IBM", 40.00));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        journal.sync();
+
+        assertEquals(threadCount * perThread, journal.getAppendedSequence());
+        assertThat(journal.getSyncCount(), lessThan((long) threadCount * perThread));
+        journal.close();
+        FileOrderJournal reopened = new FileOrderJournal(directory);
+        assertThat(reopened.recoveredOrders(), hasSize(threadCount * perThread));
+        reopened.close();
+    }
+
+    @Test
+    public void snapshotIsWrittenByTheFlusherAndRollsTheLogAtItsSequence() throws IOException {
+        Path directory = folder.newFolder("orders").toPath();
+        FileOrderJournal journal = new FileOrderJournal(directory);
+        List<String> writers = new ArrayList<>();
+        List<Order> resting = new ArrayList<Order>() {
+            @Override
+            public int size() {
+                writers.add(Thread.currentThread().getName());
+                return super.size();
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            resting.add(order(i, "IBM", 40.00));
+            journal.placed(resting.get(i));
+        }
+        journal.snapshot(resting);
+        journal.placed(order(3, "IBM", 41.00));
+        journal.close();
+
+        assertThat(writers, contains("order-journal-flusher"));
+        assertThat(files(directory, "snapshot-"), contains("snapshot-00000000000000000003.bin"));
+        assertThat(files(directory, "orders-"), contains("orders-00000000000000000003.log"));
+        FileOrderJournal reopened = new FileOrderJournal(directory);
+        assertThat(reopened.recoveredOrders(), contains(resting.get(0), resting.get(1), resting.get(2), order(3, "IBM", 41.00)));
+        reopened.close();
+    }
+
+    @Test(timeout = 5000)
+    public void anyFailureOfTheFlusherFailsTheJournal() throws IOException {
+        Path directory = folder.newFolder("orders").toPath();
+        FileOrderJournal journal = new FileOrderJournal(directory);
+        journal.placed(order(1, "IBM", 40.00));
+        journal.snapshot(new ArrayList<Order>() {
+            @Override
+            public int size() {
+                throw new IllegalStateException("Resting orders are not readable");
+            }
+        });
+        try {
+            journal.sync();
+            fail("The failed flusher must fail the sync");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+        }
+        try {
+            journal.placed(order(2, "IBM", 41.00));
+            fail("The failed journal must refuse the records");
+        } catch (UncheckedIOException e) {
+            // failed
+        }
+    }
+
+    private static void assertVolumeAmendKeepsThePriority(Path directory, long snapshotInterval) throws IOException {
+        Order first = order(1, "IBM", 40.00);
+        Order second = order(2, "IBM", 40.00);
+        Order amended = order(1, "IBM", 40.00);
+        amended.setVolume(25);
+        FileOrderJournal journal = new FileOrderJournal(directory, snapshotInterval);
+        TradingStrategy tradingStrategy = new TradingStrategy(mock(ExecutionService.class), journal);
+        tradingStrategy.placeOrder(first);
+        tradingStrategy.placeOrder(second);
+        tradingStrategy.amendOrder(amended);
+        journal.close();
+
+        FileOrderJournal reopened = new FileOrderJournal(directory, snapshotInterval);
+        assertThat(reopened.recoveredOrders(), contains(amended, second));
+        ExecutionService executionService = mock(ExecutionService.class);
+        TradingStrategy recovered = new TradingStrategy(executionService, reopened);
+        recovered.priceUpdate(new Stock("IBM", 30.00));
+        InOrder inOrder = inOrder(executionService);
+        inOrder.verify(executionService).buy("IBM", 40.00, 25);
+        inOrder.verify(executionService).buy("IBM", 40.00, 10);
+        reopened.close();
+    }
+
+    private static List<String> files(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).filter(name -> name.startsWith(prefix))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .volume(10)
+                .stock(new Stock(security, triggerPrice))
+                .direction(Direction.BUY)
+                .build();
+    }
+}
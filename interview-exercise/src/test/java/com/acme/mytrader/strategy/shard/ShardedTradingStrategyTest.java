@@ -0,0 +1,158 @@
+package com.acme.mytrader.strategy.shard;
+
+import com.acme.mytrader.entity.Order;
+import com.acme.mytrader.entity.Stock;
+import com.acme.mytrader.entity.constants.Direction;
+import com.acme.mytrader.execution.ExecutionService;
+import com.acme.mytrader.price.PriceSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.acme.mytrader.testdata.TestDataFactory.createBuyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+/**
+ * <pre>
+ * This test is to ensure that the ShardedTradingStrategy executes the triggered orders (once) when the orders and the
+ * ticks come from several threads at the same time and that a shard failed by an Error is surfaced
+ * </pre>
+ */
+public class ShardedTradingStrategyTest {
+
+    private static final int THREADS = 4;
+    private static final int SECURITIES = 40;
+    private static final int ORDERS_PER_SECURITY = 50;
+
+    private PriceSource priceSource;
+    private ShardedTradingStrategy tradingStrategy;
+
+    @Before
+    public void setUp() {
+        priceSource = mock(PriceSource.class);
+    }
+
+    @After
+    public void cleanUp() {
+        tradingStrategy.shutDown();
+    }
+
+    @Test
+    public void registersWithThePriceSourceAndExecutesTheTriggeredOrder() {
+        ExecutionService executionService = mock(ExecutionService.class);
+        tradingStrategy = new ShardedTradingStrategy(priceSource, executionService, 2, 16);
+        verify(priceSource).addPriceListener(tradingStrategy);
+        Order buyOrder = createBuyOrder();
+        tradingStrategy.placeOrder(buyOrder);
+        tradingStrategy.priceUpdate("IBM", 50.00);
+        verify(executionService, timeout(1000).times(1)).buy("IBM", 55.00, 5);
+    }
+
+    @Test
+    public void everyOrderIsExecutedOnceWithConcurrentPlacementAndTicks() throws InterruptedException {
+        CountingExecutionService executionService = new CountingExecutionService();
+        tradingStrategy = new ShardedTradingStrategy(priceSource, executionService, 3, 64);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            new Thread(() -> {
+                // each thread places its orders then ticks below every trigger level of its securities
+                for (int s = thread; s < SECURITIES; s += THREADS) {
+                    for (int o = 0; o < ORDERS_PER_SECURITY; o++) {
+                        tradingStrategy.placeOrder(order(s * ORDERS_PER_SECURITY + o, "SHARD" + s, 100.00 + o));
+                    }
+                }
+                for (int round = 0; round < 10; round++) {
+                    for (int s = thread; s < SECURITIES; s += THREADS) {
+                        tradingStrategy.priceUpdate("SHARD" + s, 99.00 - round);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executionService.awaitExecuted(SECURITIES * ORDERS_PER_SECURITY);
+        assertEquals(SECURITIES, executionService.executedBySecurity.size());
+        executionService.executedBySecurity.values().forEach(count -> assertEquals(ORDERS_PER_SECURITY, count.get()));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tradingStrategy.getTicksProcessed() < SECURITIES * 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(SECURITIES * 10, tradingStrategy.getTicksProcessed());
+    }
+
+    @Test
+    public void shardFailedByAnErrorIsSurfacedAndRefusesTheOrders() throws InterruptedException {
+        ExecutionService executionService = mock(ExecutionService.class);
+        StackOverflowError error = new StackOverflowError();
+        doThrow(error).when(executionService).buy(anyString(), anyDouble(), anyInt());
+        tradingStrategy = new ShardedTradingStrategy(priceSource, executionService, 1, 16);
+        tradingStrategy.placeOrder(createBuyOrder());
+        tradingStrategy.priceUpdate("IBM", 50.00);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tradingStrategy.getFailure() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertSame(error, tradingStrategy.getFailure());
+        // the ticks offered to the failed shard are dropped instead of waiting on its full inbox
+        for (int i = 0; i < 100; i++) {
+            tradingStrategy.priceUpdate("IBM", 50.00);
+        }
+        try {
+            tradingStrategy.placeOrder(order(1, "IBM", 60.00));
+            fail("The failed shard must refuse the order");
+        } catch (IllegalStateException e) {
+            assertSame(error, e.getCause());
+        }
+    }
+
+    private static Order order(long orderNo, String security, double triggerPrice) {
+        return Order.builder()
+                .orderNo(BigInteger.valueOf(orderNo))
+                .stock(new Stock(security, triggerPrice))
+                .volume(1)
+                .direction(Direction.SELL)
+                .build();
+    }
+
+    private static class CountingExecutionService implements ExecutionService {
+        final ConcurrentMap<String, AtomicInteger> executedBySecurity = new ConcurrentHashMap<>();
+        final AtomicInteger executed = new AtomicInteger();
+
+        @Override
+        public void buy(String security, double price, int volume) {
+            execute(security);
+        }
+
+        @Override
+        public void sell(String security, double price, int volume) {
+            execute(security);
+        }
+
+        private void execute(String security) {
+            executedBySecurity.computeIfAbsent(security, s -> new AtomicInteger()).incrementAndGet();
+            executed.incrementAndGet();
+        }
+
+        void awaitExecuted(int expected) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (executed.get() < expected && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(50);
+            assertEquals(expected, executed.get());
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.acme.mytrader.testdata;
 
+import com.acme.mytrader.client.StockClient;
 import com.acme.mytrader.entity.Order;
 import com.acme.mytrader.entity.Stock;
 import com.acme.mytrader.entity.constants.Direction;
 
+import org.mockito.stubbing.Answer;
+
 import java.math.BigInteger;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * <pre>
  * This class provides entity / value objects to test, currently, supports for @Stock and @Order entities
+ * and the answer to stub the bulk quote call of a mocked StockClient with its single quote call
  * </pre>
  */
 
@@ -59,4 +66,21 @@ public class TestDataFactory {
                 .build();
     }
 
+    /**
+     * Answers StockClient.getLiveStockPrices by invoking the (stubbed) getLiveStockPrice of the mock for every security
+     */
+    public static Answer<Map<String, Stock>> singleQuoteAnswer(StockClient stockClient) {
+        return invocation -> {
+            Collection<String> securities = invocation.getArgument(0);
+            Map<String, Stock> liveStocks = new HashMap<>();
+            for (String security : securities) {
+                Stock liveStock = stockClient.getLiveStockPrice(security);
+                if (liveStock != null) {
+                    liveStocks.put(security, liveStock);
+                }
+            }
+            return liveStocks;
+        };
+    }
+
 }